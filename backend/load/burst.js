@@ -0,0 +1,49 @@
+// Burst scenario for comparing platform and virtual thread modes.
+// Usage: k6 run -e BASE_URL=http://localhost:8080/api -e EMAIL=... -e PASSWORD=... load/burst.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080/api';
+
+export const options = {
+  scenarios: {
+    burst: {
+      executor: 'ramping-arrival-rate',
+      startRate: 50,
+      timeUnit: '1s',
+      preAllocatedVUs: 500,
+      maxVUs: 2000,
+      stages: [
+        { target: 200, duration: '30s' },
+        { target: 1000, duration: '30s' },
+        { target: 1000, duration: '60s' },
+        { target: 50, duration: '15s' },
+      ],
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+  const res = http.post(`${BASE_URL}/auth/login`,
+    JSON.stringify({ email: __ENV.EMAIL, password: __ENV.PASSWORD }),
+    { headers: { 'Content-Type': 'application/json' } });
+  check(res, { 'logged in': (r) => r.status === 200 });
+  const token = res.json('token');
+  const habits = http.get(`${BASE_URL}/habits`, { headers: { Authorization: `Bearer ${token}` } }).json();
+  return { token, habitIds: habits.map((h) => h.id) };
+}
+
+export default function (data) {
+  const headers = { Authorization: `Bearer ${data.token}`, 'Content-Type': 'application/json' };
+  const roll = Math.random();
+  if (roll < 0.5) {
+    check(http.get(`${BASE_URL}/habits`, { headers, tags: { name: 'habits' } }), { ok: (r) => r.status === 200 });
+  } else if (roll < 0.8) {
+    check(http.get(`${BASE_URL}/dashboard`, { headers, tags: { name: 'dashboard' } }), { ok: (r) => r.status === 200 });
+  } else if (data.habitIds.length > 0) {
+    const habitId = data.habitIds[Math.floor(Math.random() * data.habitIds.length)];
+    check(http.post(`${BASE_URL}/habit-logs/toggle`, JSON.stringify({ habitId }), { headers, tags: { name: 'toggle' } }),
+      { ok: (r) => r.status === 200 });
+  }
+}
@@ -0,0 +1,23 @@
+#!/usr/bin/env bash
+# Runs load/burst.js against the backend once with platform threads and once with
+# virtual threads, writing k6 summaries to load/results-<mode>.json.
+# Needs k6, JDK 21, and the usual DB_URL/DB_USERNAME/DB_PASSWORD/JWT_SECRET/CORS_ALLOWED_ORIGINS
+# plus EMAIL/PASSWORD of a seeded user.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+mvn -q -Pvirtual-threads -DskipTests package
+JAR=$(ls target/growmate-backend-*.jar | head -n 1)
+
+for mode in platform virtual; do
+  if [ "$mode" = virtual ]; then export VIRTUAL_THREADS=true; else export VIRTUAL_THREADS=false; fi
+  java -jar "$JAR" > "load/app-$mode.log" 2>&1 &
+  APP_PID=$!
+  trap 'kill $APP_PID 2>/dev/null || true' EXIT
+
+  until curl -s -o /dev/null "http://localhost:${PORT:-8080}/api/auth/login"; do sleep 1; done
+
+  k6 run --summary-export "load/results-$mode.json" load/burst.js
+  kill $APP_PID
+  wait $APP_PID 2>/dev/null || true
+done
@@ -0,0 +1,83 @@
+package com.growmate;
+
+import com.growmate.dto.HabitLogResponse;
+import com.growmate.model.Habit;
+import com.growmate.model.HabitLog;
+import com.growmate.security.AccessTokenRevocations;
+import com.growmate.security.JwtUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Synthetic data shared by the benchmarks; fixed seeds keep runs comparable
+public final class BenchmarkFixtures {
+    public static final String JWT_SECRET =
+            "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+
+    private BenchmarkFixtures() {
+    }
+
+    public static JwtUtils jwtUtils(int cacheSize) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtUtils jwtUtils = new JwtUtils(meterRegistry, new AccessTokenRevocations(3_600_000L, meterRegistry));
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtils, "tokenCacheSize", cacheSize);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+        return jwtUtils;
+    }
+
+    public static Habit habit(long id, Habit.Frequency frequency) {
+        Habit habit = new Habit();
+        habit.setId(id);
+        habit.setTitle("Habit " + id);
+        habit.setDescription("Synthetic habit number " + id + " used for benchmarks");
+        habit.setFrequency(frequency);
+        habit.setCreatedAt(LocalDateTime.of(2020, 1, 1, 8, 0));
+        habit.setCurrentStreak(3);
+        habit.setLongestStreak(12);
+        habit.setLastCompletedDate(LocalDate.now().minusDays(1));
+        return habit;
+    }
+
+    public static List<Habit> habits(int count) {
+        List<Habit> habits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            habits.add(habit(i + 1, i % 4 == 0 ? Habit.Frequency.WEEKLY : Habit.Frequency.DAILY));
+        }
+        return habits;
+    }
+
+    public static List<HabitLog> habitLogs(int count) {
+        Habit habit = habit(1, Habit.Frequency.DAILY);
+        Random random = new Random(42);
+        LocalDate start = LocalDate.now().minusDays(count);
+        List<HabitLog> logs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            logs.add(new HabitLog((long) i + 1, habit, 1L, start.plusDays(i), random.nextInt(100) < 80));
+        }
+        return logs;
+    }
+
+    public static List<HabitLogResponse> habitLogResponses(int count) {
+        return habitLogs(count).stream().map(HabitLogResponse::new).toList();
+    }
+
+    // Ascending completed dates with roughly 80% of days done, giving realistic run lengths
+    public static List<LocalDate> completedDates(int days) {
+        Random random = new Random(7);
+        LocalDate start = LocalDate.now().minusDays(days);
+        List<LocalDate> dates = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            if (random.nextInt(100) < 80) {
+                dates.add(start.plusDays(i));
+            }
+        }
+        return dates;
+    }
+}
@@ -0,0 +1,82 @@
+package com.growmate.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.growmate.BenchmarkFixtures;
+import com.growmate.dto.HabitLogResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Serialization cost per format; payload sizes, raw and gzipped as sent over the wire, are
+// printed once per trial
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    private static final Type LOG_LIST_TYPE = new ParameterizedTypeReference<List<HabitLogResponse>>() {
+    }.getType();
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    private List<HabitLogResponse> logs;
+    private ObjectMapper json;
+    private ObjectMapper cbor;
+    private ObjectMapper smile;
+    private ColumnarHabitLogHttpMessageConverter columnar;
+
+    @Setup
+    public void setUp() throws Exception {
+        logs = BenchmarkFixtures.habitLogResponses(size);
+        json = Jackson2ObjectMapperBuilder.json().build();
+        cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        smile = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+        columnar = new ColumnarHabitLogHttpMessageConverter();
+
+        System.out.printf("%n%d logs: json=%s, cbor=%s, smile=%s, columnar=%s%n", size,
+                sizes(json()), sizes(cbor()), sizes(smile()), sizes(columnar()));
+    }
+
+    private static String sizes(byte[] payload) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(payload);
+        }
+        return payload.length + " B (gzip " + compressed.size() + " B)";
+    }
+
+    @Benchmark
+    public byte[] json() throws Exception {
+        return json.writeValueAsBytes(logs);
+    }
+
+    @Benchmark
+    public byte[] cbor() throws Exception {
+        return cbor.writeValueAsBytes(logs);
+    }
+
+    @Benchmark
+    public byte[] smile() throws Exception {
+        return smile.writeValueAsBytes(logs);
+    }
+
+    @Benchmark
+    public byte[] columnar() throws Exception {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        columnar.write(logs, LOG_LIST_TYPE, ColumnarHabitLogHttpMessageConverter.COLUMNAR_JSON, message);
+        return message.getBodyAsBytes();
+    }
+}
@@ -0,0 +1,39 @@
+package com.growmate.dto;
+
+import com.growmate.BenchmarkFixtures;
+import com.growmate.model.Habit;
+import com.growmate.model.HabitLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoMappingBenchmark {
+    @Param({"100", "10000"})
+    private int size;
+
+    private List<Habit> habits;
+    private List<HabitLog> habitLogs;
+
+    @Setup
+    public void setUp() {
+        habits = BenchmarkFixtures.habits(Math.min(size, 500));
+        habitLogs = BenchmarkFixtures.habitLogs(size);
+    }
+
+    @Benchmark
+    public List<HabitResponse> habitResponses() {
+        return habits.stream().map(HabitResponse::new).toList();
+    }
+
+    @Benchmark
+    public List<HabitLogResponse> habitLogResponses() {
+        return habitLogs.stream().map(HabitLogResponse::new).toList();
+    }
+}
@@ -0,0 +1,131 @@
+package com.growmate.repository;
+
+import com.growmate.GrowMateApplication;
+import com.growmate.dto.HabitLogRequest;
+import com.growmate.dto.HabitLogResponse;
+import com.growmate.model.Habit;
+import com.growmate.model.HabitLog;
+import com.growmate.model.User;
+import com.growmate.support.EmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// One user's full history (10 habits x 1,000 days) read off the embedded MariaDB and mapped to
+// HabitLogResponse. entities is the read path before the DTO projections: managed entities in
+// a read-write transaction, copied into DTOs. projection is the query the endpoints use now.
+// The gc profiler's alloc.rate.norm is the heap allocated per read.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadPathBenchmark {
+    private static final int HABITS = 10;
+    private static final int DAYS = 1_000;
+    private static final LocalDate MIN_DATE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+    private static final String ENTITY_QUERY = "SELECT hl FROM HabitLog hl WHERE hl.habit.user.id = :userId "
+            + "AND hl.date BETWEEN :startDate AND :endDate ORDER BY hl.date DESC, hl.id DESC";
+
+    private ConfigurableApplicationContext context;
+    private HabitLogRepository habitLogRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(GrowMateApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + EmbeddedDatabase.url(),
+                        "--spring.datasource.username=" + EmbeddedDatabase.USERNAME,
+                        "--spring.datasource.password=" + EmbeddedDatabase.PASSWORD,
+                        "--spring.jpa.show-sql=false",
+                        "--app.jwt.secret=benchmark-secret-benchmark-secret-benchmark-secret-0123456789",
+                        "--app.cors.allowed-origins=http://localhost",
+                        "--app.password.bcrypt-cost=4",
+                        "--app.rollups.reconcile-cron=-",
+                        "--app.archive.cron=-",
+                        "--app.jwt.refresh-cleanup-cron=-",
+                        "--logging.level.root=WARN");
+        habitLogRepository = context.getBean(HabitLogRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        userId = seed();
+        if (entities().size() != HABITS * DAYS || projection().size() != HABITS * DAYS) {
+            throw new IllegalStateException("Both read paths must return all " + HABITS * DAYS + " logs");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<HabitLogResponse> entities() {
+        return readWrite.execute(status -> {
+            List<HabitLog> habitLogs = entityManager.createQuery(ENTITY_QUERY, HabitLog.class)
+                    .setParameter("userId", userId)
+                    .setParameter("startDate", MIN_DATE)
+                    .setParameter("endDate", MAX_DATE)
+                    .getResultList();
+            List<HabitLogResponse> responses = new ArrayList<>(habitLogs.size());
+            for (HabitLog habitLog : habitLogs) {
+                responses.add(new HabitLogResponse(habitLog));
+            }
+            return responses;
+        });
+    }
+
+    @Benchmark
+    public List<HabitLogResponse> projection() {
+        return readOnly.execute(status ->
+                habitLogRepository.findPageByUserId(userId, MIN_DATE, MAX_DATE, PageRequest.of(0, HABITS * DAYS)));
+    }
+
+    private Long seed() {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        HabitRepository habitRepository = context.getBean(HabitRepository.class);
+        User user = new User();
+        user.setName("Bench User");
+        user.setEmail("bench-" + UUID.randomUUID() + "@growmate.test");
+        user.setPassword("not-a-bcrypt-hash");
+        userRepository.save(user);
+
+        LocalDate today = LocalDate.now();
+        for (int h = 0; h < HABITS; h++) {
+            Habit habit = new Habit();
+            habit.setUser(user);
+            habit.setTitle("Habit " + h);
+            habitRepository.save(habit);
+            List<HabitLogRequest> operations = new ArrayList<>(DAYS);
+            for (int day = 0; day < DAYS; day++) {
+                HabitLogRequest operation = new HabitLogRequest();
+                operation.setHabitId(habit.getId());
+                operation.setDate(today.minusDays(day));
+                operation.setCompleted((day + h) % 3 != 0);
+                operations.add(operation);
+            }
+            readWrite.executeWithoutResult(status -> habitLogRepository.setCompletions(user.getId(), operations));
+        }
+        return user.getId();
+    }
+}
@@ -0,0 +1,44 @@
+package com.growmate.security;
+
+import com.growmate.BenchmarkFixtures;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+// Whole filter pass for an authenticated request; no user lookup happens for current tokens
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthTokenFilterBenchmark {
+    @Param({"0", "10000"})
+    private int cacheSize;
+
+    private AuthTokenFilter filter;
+    private String authorization;
+    private final FilterChain chain = (request, response) -> { };
+
+    @Setup
+    public void setUp() {
+        JwtUtils jwtUtils = BenchmarkFixtures.jwtUtils(cacheSize);
+        filter = new AuthTokenFilter(jwtUtils, null);
+        authorization = "Bearer " + jwtUtils.generateJwtToken(
+                new UserPrincipal(42L, "Bench User", "bench@growmate.test", null));
+    }
+
+    @Benchmark
+    public void authenticate(Blackhole blackhole) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/habits");
+        request.addHeader("Authorization", authorization);
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -0,0 +1,44 @@
+package com.growmate.security;
+
+import com.growmate.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+    @Param({"0", "10000"})
+    private int cacheSize;
+
+    private JwtUtils jwtUtils;
+    private UserPrincipal principal;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = BenchmarkFixtures.jwtUtils(cacheSize);
+        principal = new UserPrincipal(42L, "Bench User", "bench@growmate.test", null);
+        token = jwtUtils.generateJwtToken(principal);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtils.generateJwtToken(principal);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public Optional<UserPrincipal> parsePrincipal() {
+        return jwtUtils.getPrincipalFromJwtToken(token);
+    }
+}
@@ -0,0 +1,49 @@
+package com.growmate.service;
+
+import com.growmate.BenchmarkFixtures;
+import com.growmate.model.Habit;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Full rebuild from history versus the O(1) forward toggle the hot path takes
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreakBenchmark {
+    @Param({"365", "3650"})
+    private int days;
+
+    @Param({"DAILY", "WEEKLY"})
+    private Habit.Frequency frequency;
+
+    private List<LocalDate> completedDates;
+    private Habit habit;
+    private StreakService streakService;
+
+    @Setup
+    public void setUp() {
+        completedDates = BenchmarkFixtures.completedDates(days);
+        habit = BenchmarkFixtures.habit(1, frequency);
+        // The forward path never touches the repositories
+        streakService = new StreakService(null, null, null, null);
+    }
+
+    @Benchmark
+    public Habit recomputeFromHistory() {
+        StreakService.applyCompletedDates(habit, completedDates);
+        return habit;
+    }
+
+    @Benchmark
+    public Habit forwardToggle() {
+        LocalDate next = habit.getLastCompletedDate().plusDays(frequency == Habit.Frequency.WEEKLY ? 7 : 1);
+        streakService.applyToggle(habit, next, true);
+        return habit;
+    }
+}
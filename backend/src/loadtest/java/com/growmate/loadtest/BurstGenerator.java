@@ -0,0 +1,186 @@
+package com.growmate.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.growmate.loadtest.Seeder.SeededUser;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Open-model generator mirroring load/burst.js: requests start at a ramping arrival rate whether
+// or not earlier ones have returned, so a server that falls behind shows it in latency and errors
+// instead of in a lower request rate. Arrivals beyond the in-flight cap are dropped and counted,
+// like k6 does once maxVUs are busy.
+public class BurstGenerator {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int START_RATE = 50;
+    private static final int MAX_IN_FLIGHT = 2000;
+    // Target requests per second and the seconds taken to reach it, as in burst.js
+    private static final int[][] STAGES = {{200, 30}, {1000, 30}, {1000, 60}, {50, 15}};
+
+    private final String baseUrl;
+    private final List<SeededUser> users;
+    private final String threadMode;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    private final Map<Integer, Long> statuses = new TreeMap<>();
+    private final Random random = new Random(1000L);
+    private String[] tokens;
+    private long dropped;
+
+    public BurstGenerator(String baseUrl, List<SeededUser> users, String threadMode) {
+        this.baseUrl = baseUrl;
+        this.users = users;
+        this.threadMode = threadMode;
+        for (String name : List.of("habits", "dashboard", "toggle")) {
+            recorders.put(name, new LatencyRecorder());
+        }
+    }
+
+    public Map<String, Object> run() throws Exception {
+        tokens = new String[users.size()];
+        for (int i = 0; i < users.size(); i++) {
+            tokens[i] = login(users.get(i));
+        }
+
+        List<CompletableFuture<?>> requests = new ArrayList<>();
+        long started = System.nanoTime();
+        long end = started + TimeUnit.SECONDS.toNanos(totalSeconds());
+        long fired = 0;
+        for (long now = started; now < end; now = System.nanoTime()) {
+            long due = (long) arrivalsBy((now - started) / 1_000_000_000.0);
+            for (; fired < due; fired++) {
+                if (inFlight.tryAcquire()) {
+                    requests.add(fire());
+                } else {
+                    dropped++;
+                }
+            }
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).join();
+        return summary(fired, (System.nanoTime() - started) / 1_000_000_000.0);
+    }
+
+    // Same 50/30/20 split of list, dashboard and toggle as the k6 script, spread over the seeded users
+    private CompletableFuture<?> fire() {
+        int roll = random.nextInt(100);
+        int user = random.nextInt(users.size());
+        HttpRequest.Builder request;
+        String name;
+        if (roll < 50) {
+            name = "habits";
+            request = HttpRequest.newBuilder(URI.create(baseUrl + "/habits")).GET();
+        } else if (roll < 80) {
+            name = "dashboard";
+            request = HttpRequest.newBuilder(URI.create(baseUrl + "/dashboard")).GET();
+        } else {
+            name = "toggle";
+            List<Long> habitIds = users.get(user).habitIds();
+            String body = "{\"habitId\":" + habitIds.get(random.nextInt(habitIds.size())) + "}";
+            request = HttpRequest.newBuilder(URI.create(baseUrl + "/habit-logs/toggle"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+        request.timeout(REQUEST_TIMEOUT).header("Authorization", "Bearer " + tokens[user]);
+
+        long start = System.nanoTime();
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    long elapsed = System.nanoTime() - start;
+                    int status = failure != null ? 0 : response.statusCode();
+                    synchronized (this) {
+                        statuses.merge(status, 1L, Long::sum);
+                        if (status >= 200 && status < 300) {
+                            recorders.get(name).record(elapsed);
+                        } else {
+                            recorders.get(name).recordError();
+                        }
+                    }
+                    inFlight.release();
+                    return null;
+                });
+    }
+
+    // Requests due by the given second: the area under the piecewise linear rate curve
+    static double arrivalsBy(double seconds) {
+        double arrivals = 0;
+        double from = START_RATE;
+        for (int[] stage : STAGES) {
+            double span = Math.min(seconds, stage[1]);
+            if (span <= 0) {
+                break;
+            }
+            double to = from + (stage[0] - from) * span / stage[1];
+            arrivals += (from + to) / 2 * span;
+            seconds -= stage[1];
+            from = stage[0];
+        }
+        return arrivals;
+    }
+
+    static int totalSeconds() {
+        int total = 0;
+        for (int[] stage : STAGES) {
+            total += stage[1];
+        }
+        return total;
+    }
+
+    private synchronized Map<String, Object> summary(long fired, double seconds) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long completed = 0;
+        for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            completed += recorder.count() + recorder.errors();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ok", recorder.count());
+            stats.put("errors", recorder.errors());
+            stats.put("p50Ms", recorder.percentileMs(50));
+            stats.put("p95Ms", recorder.percentileMs(95));
+            stats.put("p99Ms", recorder.percentileMs(99));
+            stats.put("maxMs", recorder.percentileMs(100));
+            endpoints.put(entry.getKey(), stats);
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("threadMode", threadMode);
+        summary.put("java", Runtime.version().toString());
+        summary.put("cpus", Runtime.getRuntime().availableProcessors());
+        summary.put("seconds", seconds);
+        summary.put("scheduled", fired);
+        summary.put("dropped", dropped);
+        summary.put("completed", completed);
+        summary.put("completedPerSecond", completed / seconds);
+        summary.put("statuses", statuses);
+        summary.put("endpoints", endpoints);
+        return summary;
+    }
+
+    private String login(SeededUser user) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                        Map.of("email", user.email(), "password", Seeder.PASSWORD))))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Seeded user could not log in: " + user.email());
+        }
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+}
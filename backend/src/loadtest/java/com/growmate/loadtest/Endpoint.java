@@ -0,0 +1,53 @@
+package com.growmate.loadtest;
+
+// Traffic mix of the load run; weights are relative shares of requests
+public enum Endpoint {
+    LOGIN("login", 5),
+    HABITS("habits", 30),
+    TOGGLE("toggle", 20),
+    HISTORY("history", 25),
+    CALENDAR("calendar", 20);
+
+    private final String key;
+    private final int weight;
+
+    Endpoint(String key, int weight) {
+        this.key = key;
+        this.weight = weight;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public static Endpoint fromKey(String key) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.key.equals(key)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint: " + key);
+    }
+
+    static Endpoint pick(int roll) {
+        for (Endpoint endpoint : values()) {
+            roll -= endpoint.weight;
+            if (roll < 0) {
+                return endpoint;
+            }
+        }
+        return HABITS;
+    }
+
+    static int totalWeight() {
+        int total = 0;
+        for (Endpoint endpoint : values()) {
+            total += endpoint.weight;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,47 @@
+package com.growmate.loadtest;
+
+import java.util.Arrays;
+
+// Per-worker, unsynchronized sample buffer; workers merge theirs once the run is over
+public class LatencyRecorder {
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+
+    public void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    public void recordError() {
+        errors++;
+    }
+
+    public void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.size; i++) {
+            record(other.samples[i]);
+        }
+        errors += other.errors;
+    }
+
+    public int count() {
+        return size;
+    }
+
+    public long errors() {
+        return errors;
+    }
+
+    // Nearest-rank percentile in milliseconds
+    public double percentileMs(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * size);
+        return sorted[Math.max(rank, 1) - 1] / 1_000_000.0;
+    }
+}
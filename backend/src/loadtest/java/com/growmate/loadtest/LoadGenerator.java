@@ -0,0 +1,175 @@
+package com.growmate.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.growmate.loadtest.Seeder.SeededUser;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Closed-loop generator: each worker thread sends its next request as soon as the previous one returns
+public class LoadGenerator {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int TOGGLE_WINDOW_DAYS = 60;
+
+    private final String baseUrl;
+    private final List<SeededUser> users;
+    private final LoadTestConfig config;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicReferenceArray<String> tokens;
+
+    public LoadGenerator(String baseUrl, List<SeededUser> users, LoadTestConfig config) {
+        this.baseUrl = baseUrl;
+        this.users = users;
+        this.config = config;
+        this.tokens = new AtomicReferenceArray<>(users.size());
+    }
+
+    public LoadReport run(QueryCounter queryCounter) throws Exception {
+        for (int i = 0; i < users.size(); i++) {
+            if (!login(i)) {
+                throw new IllegalStateException("Seeded user could not log in: " + users.get(i).email());
+            }
+        }
+        Map<Endpoint, Double> queriesPerRequest = calibrate(queryCounter);
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(config.durationSeconds()).toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(config.threads());
+        List<Future<Map<Endpoint, LatencyRecorder>>> results = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int w = 0; w < config.threads(); w++) {
+            Random random = new Random(1000L + w);
+            results.add(workers.submit(() -> drive(random, deadline)));
+        }
+
+        Map<Endpoint, LatencyRecorder> merged = recorders();
+        for (Future<Map<Endpoint, LatencyRecorder>> result : results) {
+            result.get().forEach((endpoint, recorder) -> merged.get(endpoint).merge(recorder));
+        }
+        long elapsed = System.nanoTime() - started;
+        workers.shutdown();
+        return new LoadReport(merged, elapsed, queriesPerRequest, config.p99BudgetsMs());
+    }
+
+    private Map<Endpoint, LatencyRecorder> drive(Random random, long deadline) {
+        Map<Endpoint, LatencyRecorder> recorders = recorders();
+        int totalWeight = Endpoint.totalWeight();
+        while (System.nanoTime() < deadline) {
+            Endpoint endpoint = Endpoint.pick(random.nextInt(totalWeight));
+            LatencyRecorder recorder = recorders.get(endpoint);
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                ok = execute(endpoint, random);
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (ok) {
+                recorder.record(System.nanoTime() - start);
+            } else {
+                recorder.recordError();
+            }
+        }
+        return recorders;
+    }
+
+    // Sequential requests per endpoint with nothing else running, so the server's
+    // statement counter delta belongs to them alone
+    private Map<Endpoint, Double> calibrate(QueryCounter queryCounter) throws Exception {
+        Map<Endpoint, Double> queriesPerRequest = new EnumMap<>(Endpoint.class);
+        Random random = new Random(7);
+        int requests = config.calibrationRequests();
+        for (Endpoint endpoint : Endpoint.values()) {
+            long start = queryCounter.read();
+            for (int i = 0; i < requests; i++) {
+                execute(endpoint, random);
+            }
+            queriesPerRequest.put(endpoint, (double) queryCounter.since(start) / requests);
+        }
+        return queriesPerRequest;
+    }
+
+    private boolean execute(Endpoint endpoint, Random random) throws IOException, InterruptedException {
+        int user = random.nextInt(users.size());
+        List<Long> habitIds = users.get(user).habitIds();
+        Long habitId = habitIds.get(random.nextInt(habitIds.size()));
+        return switch (endpoint) {
+            case LOGIN -> login(user);
+            case HABITS -> get(user, "/habits");
+            case TOGGLE -> post("/habit-logs/toggle", tokens.get(user), Map.of(
+                    "habitId", habitId,
+                    "date", LocalDate.now().minusDays(random.nextInt(TOGGLE_WINDOW_DAYS)).toString()));
+            case HISTORY -> get(user, "/habit-logs?limit=500");
+            case CALENDAR -> get(user, "/habit-logs/habit/" + habitId + "/calendar");
+        };
+    }
+
+    private boolean login(int user) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(jsonPost("/auth/login", null,
+                Map.of("email", users.get(user).email(), "password", Seeder.PASSWORD)));
+        if (response.statusCode() != 200) {
+            return false;
+        }
+        JsonNode body = objectMapper.readTree(response.body());
+        tokens.set(user, body.get("token").asText());
+        return true;
+    }
+
+    private boolean get(int user, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + tokens.get(user))
+                .GET()
+                .build();
+        return isSuccess(send(request));
+    }
+
+    private boolean post(String path, String token, Map<String, Object> body) throws IOException, InterruptedException {
+        return isSuccess(send(jsonPost(path, token, body)));
+    }
+
+    private HttpRequest jsonPost(String path, String token, Map<String, Object> body) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static boolean isSuccess(HttpResponse<?> response) {
+        return response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+
+    private static Map<Endpoint, LatencyRecorder> recorders() {
+        Map<Endpoint, LatencyRecorder> recorders = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new LatencyRecorder());
+        }
+        return recorders;
+    }
+}
@@ -0,0 +1,52 @@
+package com.growmate.loadtest;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class LoadReport {
+    private final Map<Endpoint, LatencyRecorder> recorders;
+    private final double seconds;
+    private final Map<Endpoint, Double> queriesPerRequest;
+    private final Map<Endpoint, Long> p99BudgetsMs;
+
+    public LoadReport(Map<Endpoint, LatencyRecorder> recorders, long elapsedNanos,
+                      Map<Endpoint, Double> queriesPerRequest, Map<Endpoint, Long> p99BudgetsMs) {
+        this.recorders = recorders;
+        this.seconds = elapsedNanos / 1_000_000_000.0;
+        this.queriesPerRequest = queriesPerRequest;
+        this.p99BudgetsMs = p99BudgetsMs;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%-10s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "budget", "db q/req");
+        long total = 0;
+        for (Map.Entry<Endpoint, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            Long budget = p99BudgetsMs.get(entry.getKey());
+            total += recorder.count();
+            out.printf("%-10s %9d %7d %9.1f %9.2f %9.2f %9.2f %9s %9.1f%n",
+                    entry.getKey().getKey(), recorder.count(), recorder.errors(), recorder.count() / seconds,
+                    recorder.percentileMs(50), recorder.percentileMs(95), recorder.percentileMs(99),
+                    budget == null ? "-" : budget.toString(), queriesPerRequest.getOrDefault(entry.getKey(), 0.0));
+        }
+        out.printf("total      %9d over %.1f s, %.1f req/s%n", total, seconds, total / seconds);
+    }
+
+    public List<String> violations() {
+        List<String> violations = new ArrayList<>();
+        recorders.forEach((endpoint, recorder) -> {
+            if (recorder.errors() > 0) {
+                violations.add(endpoint.getKey() + ": " + recorder.errors() + " failed requests");
+            }
+            Long budget = p99BudgetsMs.get(endpoint);
+            double p99 = recorder.percentileMs(99);
+            if (budget != null && p99 > budget) {
+                violations.add(String.format("%s: p99 %.2f ms exceeds budget of %d ms", endpoint.getKey(), p99, budget));
+            }
+        });
+        return violations;
+    }
+}
@@ -0,0 +1,41 @@
+package com.growmate.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Read from -Dloadtest.* system properties, defaults match the loadtest Maven profile
+public record LoadTestConfig(int users, int habitsPerUser, int years, int threads, int durationSeconds,
+                             int calibrationRequests, boolean replica, Map<Endpoint, Long> p99BudgetsMs,
+                             String scenario, String results) {
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.users", 50),
+                Integer.getInteger("loadtest.habits-per-user", 6),
+                Integer.getInteger("loadtest.years", 2),
+                Integer.getInteger("loadtest.threads", 32),
+                Integer.getInteger("loadtest.duration-seconds", 60),
+                Integer.getInteger("loadtest.calibration-requests", 20),
+                Boolean.getBoolean("loadtest.replica"),
+                parseBudgets(System.getProperty("loadtest.budgets",
+                        "login=400,habits=50,toggle=80,history=80,calendar=50")),
+                System.getProperty("loadtest.scenario", "mixed"),
+                System.getProperty("loadtest.results", ""));
+    }
+
+    // "login=400,habits=50" -> p99 budget in milliseconds per endpoint; endpoints left out are unbounded
+    static Map<Endpoint, Long> parseBudgets(String value) {
+        Map<Endpoint, Long> budgets = new EnumMap<>(Endpoint.class);
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid budget entry: " + entry);
+            }
+            budgets.put(Endpoint.fromKey(parts[0].trim()), Long.parseLong(parts[1].trim()));
+        }
+        return budgets;
+    }
+}
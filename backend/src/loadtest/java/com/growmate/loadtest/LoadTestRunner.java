@@ -0,0 +1,160 @@
+package com.growmate.loadtest;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import ch.vorburger.exec.ManagedProcessException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.growmate.GrowMateApplication;
+import com.growmate.loadtest.Seeder.SeededUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Boots the full app against an embedded MariaDB, seeds it, drives mixed traffic and exits
+// non-zero when a request fails or an endpoint's p99 is over its budget. With
+// -Dloadtest.replica=true a second instance replicates the first and serves read-only traffic.
+// -Dloadtest.scenario=burst replays load/burst.js instead, see BurstGenerator.
+public final class LoadTestRunner {
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    private static final String DATABASE = "growmate";
+    private static final String DB_USERNAME = "root";
+    private static final String DB_PASSWORD = "";
+    private static final String REPLICATION_USER = "replicator";
+    private static final String REPLICATION_PASSWORD = "replicator";
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        DB primary = startDatabase(1);
+        DB replica = null;
+        int exitCode;
+        try {
+            if (config.replica()) {
+                replica = startDatabase(2);
+                replicate(primary, replica);
+            }
+            // Created after replication is running so the replica receives the schema too; over
+            // JDBC because DB.createDB shells out to the mariadb client and its ncurses dependency
+            execute(primary, "CREATE DATABASE IF NOT EXISTS `" + DATABASE + "`");
+            List<String> urls = new ArrayList<>();
+            urls.add(url(primary));
+            if (replica != null) {
+                urls.add(url(replica));
+            }
+            exitCode = run(config, urls);
+        } finally {
+            if (replica != null) {
+                replica.stop();
+            }
+            primary.stop();
+        }
+        System.exit(exitCode);
+    }
+
+    // Binary logging is on for every instance so any of them can act as a replication source
+    private static DB startDatabase(int serverId) throws ManagedProcessException {
+        DBConfigurationBuilder builder = DBConfigurationBuilder.newBuilder()
+                .setPort(0)
+                .addArg("--server-id=" + serverId)
+                .addArg("--log-bin=mysql-bin")
+                .addArg("--binlog-format=ROW");
+        // mariadbd refuses to start as root unless told to stay root (CI containers)
+        if ("root".equals(System.getProperty("user.name"))) {
+            builder.addArg("--user=root");
+        }
+        DB db = DB.newEmbeddedDB(builder.build());
+        db.start();
+        return db;
+    }
+
+    private static void replicate(DB primary, DB replica) throws SQLException {
+        execute(primary, "CREATE USER '" + REPLICATION_USER + "'@'%' IDENTIFIED BY '" + REPLICATION_PASSWORD + "'",
+                "GRANT REPLICATION SLAVE ON *.* TO '" + REPLICATION_USER + "'@'%'");
+        execute(replica, "CHANGE MASTER TO MASTER_HOST = '127.0.0.1', MASTER_PORT = "
+                        + primary.getConfiguration().getPort() + ", MASTER_USER = '" + REPLICATION_USER
+                        + "', MASTER_PASSWORD = '" + REPLICATION_PASSWORD + "'",
+                "START SLAVE");
+        logger.info("Replicating port {} to port {}", primary.getConfiguration().getPort(),
+                replica.getConfiguration().getPort());
+    }
+
+    private static void execute(DB db, String... statements) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                "jdbc:mysql://localhost:" + db.getConfiguration().getPort() + "/", DB_USERNAME, DB_PASSWORD);
+             Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private static String url(DB db) {
+        return "jdbc:mysql://localhost:" + db.getConfiguration().getPort() + "/" + DATABASE;
+    }
+
+    private static int run(LoadTestConfig config, List<String> urls) throws Exception {
+        // Command-line arguments outrank application.properties, so DB_URL and friends need not be set
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(GrowMateApplication.class).run(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.datasource.url=" + urls.get(0),
+                "--app.datasource.replicas.urls=" + String.join(",", urls.subList(1, urls.size())),
+                "--spring.datasource.username=" + DB_USERNAME,
+                "--spring.datasource.password=" + DB_PASSWORD,
+                "--spring.datasource.hikari.maximum-pool-size=" + Math.max(10, config.threads() / 2),
+                "--spring.jpa.show-sql=false",
+                "--app.query-budget.enabled=true",
+                "--app.query-budget.mode=fail",
+                "--app.jwt.secret=loadtest-secret-loadtest-secret-loadtest-secret-loadtest-secret-0123456789",
+                "--app.cors.allowed-origins=http://localhost",
+                "--app.rollups.reconcile-cron=-",
+                "--app.archive.cron=-",
+                "--logging.level.com.growmate=INFO");
+             QueryCounter queryCounter = new QueryCounter(urls, DB_USERNAME, DB_PASSWORD)) {
+            List<SeededUser> users = new Seeder(context, config).seed();
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+            if ("burst".equals(config.scenario())) {
+                return burst(context, config, users, baseUrl);
+            }
+
+            logger.info("Running {} threads for {} s against {}", config.threads(), config.durationSeconds(), baseUrl);
+            LoadReport report = new LoadGenerator(baseUrl, users, config).run(queryCounter);
+            report.print(System.out);
+
+            List<String> violations = report.violations();
+            violations.forEach(violation -> logger.error("Budget violated - {}", violation));
+            return violations.isEmpty() ? 0 : 1;
+        }
+    }
+
+    // A measurement rather than a gate: the burst is meant to overload a small machine, so it only
+    // reports, and writes the summary to -Dloadtest.results when given
+    private static int burst(ConfigurableApplicationContext context, LoadTestConfig config, List<SeededUser> users,
+                             String baseUrl) throws Exception {
+        boolean virtual = Runtime.version().feature() >= 21 && context.getEnvironment()
+                .getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        logger.info("Running the burst scenario for {} s against {} on {} threads", BurstGenerator.totalSeconds(),
+                baseUrl, virtual ? "virtual" : "platform");
+        Map<String, Object> summary = new BurstGenerator(baseUrl, users, virtual ? "virtual" : "platform").run();
+        ObjectWriter writer = new ObjectMapper().writerWithDefaultPrettyPrinter();
+        System.out.println(writer.writeValueAsString(summary));
+        if (!config.results().isEmpty()) {
+            writer.writeValue(new File(config.results()), summary);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,49 @@
+package com.growmate.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Server-side statement counter summed over the primary and any replicas; reads come from
+// connections outside the app's pools and the counter's own SHOW STATUS cost is measured
+// once and subtracted. Replicated writes are applied by the replica's SQL thread, which
+// Questions does not count.
+public class QueryCounter implements AutoCloseable {
+    private final List<Connection> connections = new ArrayList<>();
+    private final long overhead;
+
+    public QueryCounter(List<String> urls, String username, String password) throws SQLException {
+        for (String url : urls) {
+            connections.add(DriverManager.getConnection(url, username, password));
+        }
+        long first = read();
+        this.overhead = read() - first;
+    }
+
+    public long read() throws SQLException {
+        long total = 0;
+        for (Connection connection : connections) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SHOW GLOBAL STATUS LIKE 'Questions'")) {
+                rs.next();
+                total += rs.getLong(2);
+            }
+        }
+        return total;
+    }
+
+    public long since(long start) throws SQLException {
+        return read() - start - overhead;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+}
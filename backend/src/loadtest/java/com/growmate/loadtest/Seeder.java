@@ -0,0 +1,128 @@
+package com.growmate.loadtest;
+
+import com.growmate.service.RollupService;
+import com.growmate.service.StreakService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Writes users, habits and years of logs straight through JDBC, then lets the app
+// derive streaks and rollups the same way it does for legacy rows
+public class Seeder {
+    private static final Logger logger = LoggerFactory.getLogger(Seeder.class);
+
+    public static final String PASSWORD = "loadtest-password";
+    private static final String EMAIL_DOMAIN = "@growmate.test";
+    private static final int BATCH_SIZE = 5000;
+    private static final int COMPLETION_PERCENT = 75;
+
+    private final ApplicationContext context;
+    private final JdbcTemplate jdbcTemplate;
+    private final LoadTestConfig config;
+    private final Random random = new Random(42);
+
+    public Seeder(ApplicationContext context, LoadTestConfig config) {
+        this.context = context;
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+        this.config = config;
+    }
+
+    public record SeededUser(String email, List<Long> habitIds) {
+    }
+
+    public List<SeededUser> seed() {
+        long started = System.nanoTime();
+        String passwordHash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        LocalDate today = LocalDate.now();
+        LocalDate firstDay = today.minusYears(config.years());
+        Timestamp createdAt = Timestamp.valueOf(firstDay.atStartOfDay());
+
+        List<Object[]> users = new ArrayList<>(config.users());
+        for (int i = 0; i < config.users(); i++) {
+            users.add(new Object[]{"Load User " + i, email(i), passwordHash, createdAt});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO users (name, email, password, created_at, data_version) VALUES (?, ?, ?, ?, 0)",
+                users);
+
+        Map<Long, String> emailsById = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, email FROM users WHERE email LIKE ? ORDER BY id",
+                rs -> {
+                    emailsById.put(rs.getLong(1), rs.getString(2));
+                }, "loadtest-%" + EMAIL_DOMAIN);
+
+        List<Object[]> habits = new ArrayList<>();
+        for (Long userId : emailsById.keySet()) {
+            for (int h = 0; h < config.habitsPerUser(); h++) {
+                // current_streak stays NULL so the startup backfill path computes it
+                habits.add(new Object[]{userId, "Habit " + h, "Seeded habit " + h,
+                        h % 4 == 3 ? "WEEKLY" : "DAILY", "#4C1D95", createdAt});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO habits (user_id, title, description, frequency, color, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", habits);
+
+        Map<Long, List<Long>> habitIdsByUser = new LinkedHashMap<>();
+        emailsById.keySet().forEach(userId -> habitIdsByUser.put(userId, new ArrayList<>()));
+        jdbcTemplate.query("SELECT id, user_id FROM habits ORDER BY id",
+                rs -> {
+                    List<Long> ids = habitIdsByUser.get(rs.getLong(2));
+                    if (ids != null) {
+                        ids.add(rs.getLong(1));
+                    }
+                });
+
+        long logs = 0;
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (Map.Entry<Long, List<Long>> entry : habitIdsByUser.entrySet()) {
+            for (Long habitId : entry.getValue()) {
+                for (LocalDate date = firstDay; date.isBefore(today); date = date.plusDays(1)) {
+                    if (random.nextInt(100) >= COMPLETION_PERCENT) {
+                        continue;
+                    }
+                    batch.add(new Object[]{habitId, entry.getKey(), Date.valueOf(date), true});
+                    if (batch.size() == BATCH_SIZE) {
+                        logs += flushLogs(batch);
+                    }
+                }
+            }
+        }
+        logs += flushLogs(batch);
+
+        context.getBean(StreakService.class).backfillMissingStreaks();
+        context.getBean(RollupService.class).reconcile();
+
+        logger.info("Seeded {} users, {} habits, {} logs in {} ms", emailsById.size(), habits.size(), logs,
+                (System.nanoTime() - started) / 1_000_000);
+
+        List<SeededUser> seeded = new ArrayList<>(emailsById.size());
+        emailsById.forEach((userId, email) -> seeded.add(new SeededUser(email, habitIdsByUser.get(userId))));
+        return seeded;
+    }
+
+    private int flushLogs(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO habit_logs (habit_id, user_id, date, completed) VALUES (?, ?, ?, ?)", batch);
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+
+    private static String email(int index) {
+        return "loadtest-" + index + EMAIL_DOMAIN;
+    }
+}
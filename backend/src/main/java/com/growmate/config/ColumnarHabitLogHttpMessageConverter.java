@@ -0,0 +1,91 @@
+package com.growmate.config;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.growmate.dto.HabitLogResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+// Writes List<HabitLogResponse> as parallel arrays instead of one object per log:
+// {"id":[..],"habitId":[..],"date":["2024-01-01",..],"completed":[1,0,..]}
+public class ColumnarHabitLogHttpMessageConverter extends AbstractGenericHttpMessageConverter<List<HabitLogResponse>> {
+    public static final MediaType COLUMNAR_JSON = MediaType.parseMediaType("application/vnd.growmate.columnar+json");
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public ColumnarHabitLogHttpMessageConverter() {
+        super(COLUMNAR_JSON);
+    }
+
+    // Only when the client asked for the columnar type. Without a media type Spring is
+    // collecting what it could produce, and offering this one there would make it the
+    // answer to */*; the JSON converters' application/*+json already makes it negotiable.
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!COLUMNAR_JSON.equalsTypeAndSubtype(mediaType)) {
+            return false;
+        }
+        return type instanceof ParameterizedType parameterized
+                && List.class.isAssignableFrom((Class<?>) parameterized.getRawType())
+                && parameterized.getActualTypeArguments()[0] == HabitLogResponse.class;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(List<HabitLogResponse> logs, Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(outputMessage.getBody(), JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("id");
+            for (HabitLogResponse log : logs) {
+                generator.writeNumber(log.getId());
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("habitId");
+            for (HabitLogResponse log : logs) {
+                generator.writeNumber(log.getHabitId());
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("date");
+            for (HabitLogResponse log : logs) {
+                generator.writeString(log.getDate().toString());
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("completed");
+            for (HabitLogResponse log : logs) {
+                generator.writeNumber(Boolean.TRUE.equals(log.getCompleted()) ? 1 : 0);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    @Override
+    public List<HabitLogResponse> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar habit logs are write-only", inputMessage);
+    }
+
+    @Override
+    protected List<HabitLogResponse> readInternal(Class<? extends List<HabitLogResponse>> clazz,
+            HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar habit logs are write-only", inputMessage);
+    }
+}
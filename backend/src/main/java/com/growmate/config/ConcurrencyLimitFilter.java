@@ -0,0 +1,64 @@
+package com.growmate.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// With virtual threads Tomcat no longer caps concurrency, so bursts would all queue on
+// Hikari until connection-timeout. This bounds in-flight requests and sheds the rest early.
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final String REJECTED_BODY = "{\"message\":\"Server is busy, please retry shortly\"}";
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+
+    public ConcurrencyLimitFilter(@Value("${app.virtual-threads.max-concurrent-requests}") int maxConcurrentRequests,
+            @Value("${app.virtual-threads.acquire-timeout-ms}") long acquireTimeoutMs) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            log.warn("Rejecting {} {}: concurrency limit reached", request.getMethod(), request.getRequestURI());
+            // Written here rather than through sendError, whose dispatch to /error is not
+            // authenticated and would turn the 503 into a 401
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(REJECTED_BODY);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.growmate.config;
+
+import com.growmate.security.UserPrincipal;
+import com.growmate.service.DataVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.LocalDate;
+
+// Answers conditional GETs from the user's data version before any habit or log query runs
+@Component
+@RequiredArgsConstructor
+public class DataVersionEtagInterceptor implements HandlerInterceptor {
+    private final DataVersionService dataVersionService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal userPrincipal)) {
+            return true;
+        }
+
+        // Streaks and rates depend on the current day as well as on stored data, and
+        // each negotiated encoding is a different representation. Weak, because Tomcat
+        // will not gzip a response that carries a strong validator. Write-behind toggles
+        // change the tag as soon as they are acknowledged, before they are stored; without
+        // any, tags look as they always did.
+        String version = String.valueOf(dataVersionService.getVersion(userPrincipal.getId()));
+        long acknowledged = dataVersionService.getAcknowledgedWrites(userPrincipal.getId());
+        if (acknowledged > 0) {
+            version += "." + acknowledged;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        String opaqueTag = "\"" + userPrincipal.getId() + "-" + version + "-" + LocalDate.now()
+                + "-" + Integer.toHexString(accept != null ? accept.hashCode() : 0) + "\"";
+        String etag = "W/" + opaqueTag;
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        // Lets browsers keep the body but revalidate every time
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), opaqueTag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    // Weak comparison (RFC 9110 8.8.3.2), as If-None-Match calls for: W/ prefixes are ignored,
+    // so clients that kept a strong tag from before still revalidate
+    private static boolean matches(String ifNoneMatch, String opaqueTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
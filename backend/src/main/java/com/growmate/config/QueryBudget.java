@@ -0,0 +1,16 @@
+package com.growmate.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Maximum SQL statements one call of the annotated handler may execute, counting the
+// security filter and interceptors; see app.query-budget.mode for what a breach does
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int value();
+}
@@ -0,0 +1,37 @@
+package com.growmate.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Runs just before the body is serialized: late enough that the handler's transaction
+// has committed, early enough to still add a header or turn a breach into an error
+@RestControllerAdvice
+@ConditionalOnProperty(name = "app.query-budget.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class QueryBudgetAdvice implements ResponseBodyAdvice<Object> {
+    private final QueryBudgetEnforcer queryBudgetEnforcer;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        if (RequestQueryCounter.isActive()) {
+            queryBudgetEnforcer.check(returnType.getMethod(), true);
+            response.getHeaders().set(QueryBudgetEnforcer.QUERY_COUNT_HEADER,
+                    String.valueOf(RequestQueryCounter.count()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,58 @@
+package com.growmate.config;
+
+import com.growmate.exception.QueryBudgetExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "app.query-budget.enabled", havingValue = "true")
+@Slf4j
+public class QueryBudgetEnforcer {
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    public enum Mode {
+        LOG,
+        FAIL
+    }
+
+    private final Mode mode;
+
+    public QueryBudgetEnforcer(@Value("${app.query-budget.mode:log}") String mode) {
+        this.mode = Mode.valueOf(mode.toUpperCase());
+    }
+
+    // canFail is false once the response is already on its way out
+    void check(Method handlerMethod, boolean canFail) {
+        if (handlerMethod == null || !RequestQueryCounter.markChecked()) {
+            return;
+        }
+        QueryBudget budget = handlerMethod.getAnnotation(QueryBudget.class);
+        int count = RequestQueryCounter.count();
+        if (budget == null || count <= budget.value()) {
+            return;
+        }
+
+        String handler = handlerMethod.getDeclaringClass().getSimpleName() + "." + handlerMethod.getName();
+        List<String> statements = RequestQueryCounter.statements();
+        StringBuilder message = new StringBuilder()
+                .append(handler).append(" ran ").append(count).append(" SQL statements, budget is ")
+                .append(budget.value());
+        for (int i = 0; i < statements.size(); i++) {
+            message.append(System.lineSeparator()).append("  ").append(i + 1).append(": ").append(statements.get(i));
+        }
+        if (statements.size() < count) {
+            message.append(System.lineSeparator()).append("  ... ").append(count - statements.size()).append(" more");
+        }
+        log.error("Query budget exceeded: {}", message);
+
+        if (mode == Mode.FAIL && canFail) {
+            throw new QueryBudgetExceededException(
+                    handler + " ran " + count + " SQL statements, budget is " + budget.value());
+        }
+    }
+}
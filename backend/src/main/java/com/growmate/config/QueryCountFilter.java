@@ -0,0 +1,46 @@
+package com.growmate.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Opens the per-request statement count ahead of Spring Security so token and
+// user lookups are charged to the request too
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "app.query-budget.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+    private final QueryBudgetEnforcer queryBudgetEnforcer;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestQueryCounter.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Bodiless responses such as 304s and 404s never reach QueryBudgetAdvice
+            if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE)
+                    instanceof HandlerMethod handlerMethod) {
+                queryBudgetEnforcer.check(handlerMethod.getMethod(), false);
+            }
+            if (!response.isCommitted() && !response.containsHeader(QueryBudgetEnforcer.QUERY_COUNT_HEADER)) {
+                response.setHeader(QueryBudgetEnforcer.QUERY_COUNT_HEADER,
+                        String.valueOf(RequestQueryCounter.count()));
+            }
+            RequestQueryCounter.end();
+        }
+    }
+}
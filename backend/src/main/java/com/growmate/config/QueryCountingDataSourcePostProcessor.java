@@ -0,0 +1,42 @@
+package com.growmate.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+// Wraps the pool so every statement execution is counted against the current request;
+// a JDBC batch counts once since it is a single round trip
+@Component
+@ConditionalOnProperty(name = "app.query-budget.enabled", havingValue = "true")
+public class QueryCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        // With replicas the pools sit behind the "dataSource" bean and must not be counted twice
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ReadWriteRoutingDataSource) {
+            return bean;
+        }
+        return ProxyDataSourceBuilder.create(dataSource)
+                .name(beanName)
+                .listener(new QueryExecutionListener() {
+                    @Override
+                    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                    }
+
+                    @Override
+                    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                        if (RequestQueryCounter.isActive()) {
+                            RequestQueryCounter.record(queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery());
+                        }
+                    }
+                })
+                .build();
+    }
+}
@@ -0,0 +1,179 @@
+package com.growmate.config;
+
+import com.growmate.security.UserPrincipal;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hands read-only transactions to healthy replicas in round-robin order and everything
+// else to the primary. Must sit behind a LazyConnectionDataSourceProxy so the connection
+// is requested after the transaction's read-only flag has been set.
+//
+// Within one HTTP request every read-only transaction goes to the same place: the ETag
+// interceptor reads the data version in its own transaction before the controller reads
+// the body, and a body from a replica lagging the one that served the version would be
+// cached under the newer ETag. If the pinned replica drops out, the rest of the request
+// reads from the primary, which is never behind it.
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements Closeable {
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final String PINNED_ATTRIBUTE = ReadWriteRoutingDataSource.class.getName() + ".pinned";
+    private static final Object PRIMARY = new Object();
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final long maxLagSeconds;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaPools,
+            ReadYourWritesTracker readYourWritesTracker, long maxLagSeconds) {
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(HikariDataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || currentUserRecentlyWrote()) {
+            return source.get(primary);
+        }
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        Object pinned = request != null
+                ? request.getAttribute(PINNED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) : null;
+        if (pinned instanceof Replica replica) {
+            if (replica.healthy) {
+                try {
+                    return source.get(replica.pool);
+                } catch (SQLException e) {
+                    eject(replica, e.getMessage());
+                }
+            }
+            pin(request, PRIMARY);
+            return source.get(primary);
+        }
+        if (pinned == PRIMARY) {
+            return source.get(primary);
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = source.get(replica.pool);
+                pin(request, replica);
+                return connection;
+            } catch (SQLException e) {
+                eject(replica, e.getMessage());
+            }
+        }
+        pin(request, PRIMARY);
+        return source.get(primary);
+    }
+
+    private static void pin(RequestAttributes request, Object target) {
+        if (request != null) {
+            request.setAttribute(PINNED_ATTRIBUTE, target, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private boolean currentUserRecentlyWrote() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof UserPrincipal userPrincipal
+                && userPrincipal.getId() != null && readYourWritesTracker.recentlyWrote(userPrincipal.getId());
+    }
+
+    // Ejected replicas are only readmitted here, after a clean probe
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.health-check-ms:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            String problem = probe(replica);
+            if (problem != null) {
+                eject(replica, problem);
+            } else if (!replica.healthy) {
+                replica.healthy = true;
+                log.info("Replica {} is healthy again", replica.pool.getPoolName());
+            }
+        }
+    }
+
+    private String probe(Replica replica) {
+        try (Connection connection = replica.pool.getConnection()) {
+            if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                return "connection is not valid";
+            }
+            if (maxLagSeconds < 0) {
+                return null;
+            }
+            // Needs REPLICATION CLIENT; SHOW SLAVE STATUS is understood by MySQL 8.0 and MariaDB
+            try (Statement statement = connection.createStatement();
+                 ResultSet status = statement.executeQuery("SHOW SLAVE STATUS")) {
+                if (!status.next()) {
+                    return "not replicating";
+                }
+                long lag = status.getLong("Seconds_Behind_Master");
+                if (status.wasNull()) {
+                    return "replication is stopped";
+                }
+                return lag > maxLagSeconds ? "lagging " + lag + "s behind" : null;
+            }
+        } catch (SQLException e) {
+            return e.getMessage();
+        }
+    }
+
+    private void eject(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Ejecting replica {}: {}", replica.pool.getPoolName(), reason);
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get(HikariDataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+        private final HikariDataSource pool;
+        private volatile boolean healthy = true;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+}
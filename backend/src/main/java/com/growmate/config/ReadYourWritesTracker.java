@@ -0,0 +1,42 @@
+package com.growmate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Users who changed data within the window; their read-only transactions stay on the
+// primary so they never see a replica that has not caught up with their own write.
+// Per node, so it relies on a user's requests staying on one node for the window.
+@Component
+public class ReadYourWritesTracker {
+    private static final int CLEANUP_THRESHOLD = 10_000;
+
+    private final long windowMs;
+    private final Map<Long, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(@Value("${app.datasource.read-your-writes-ms:5000}") long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    public void recordWrite(Long userId) {
+        long now = System.currentTimeMillis();
+        if (pinnedUntil.size() >= CLEANUP_THRESHOLD) {
+            pinnedUntil.values().removeIf(until -> until <= now);
+        }
+        pinnedUntil.put(userId, now + windowMs);
+    }
+
+    public boolean recentlyWrote(Long userId) {
+        Long until = pinnedUntil.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until > System.currentTimeMillis()) {
+            return true;
+        }
+        pinnedUntil.remove(userId, until);
+        return false;
+    }
+}
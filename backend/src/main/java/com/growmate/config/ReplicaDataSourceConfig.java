@@ -0,0 +1,69 @@
+package com.growmate.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Only active when DB_REPLICA_URLS is set; otherwise Boot's single pool is used as before.
+// Every pool gets the spring.datasource.hikari.* settings and its own metrics.
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replicas.urls:}'.isBlank()")
+public class ReplicaDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(DataSourceProperties properties,
+            Environment environment, MeterRegistry meterRegistry, ReadYourWritesTracker readYourWritesTracker,
+            @Value("${app.datasource.replicas.urls}") String replicaUrls,
+            @Value("${app.datasource.replicas.username:${spring.datasource.username}}") String replicaUsername,
+            @Value("${app.datasource.replicas.password:${spring.datasource.password}}") String replicaPassword,
+            @Value("${app.datasource.replicas.max-lag-seconds:-1}") long maxLagSeconds) {
+        HikariDataSource primary = pool(properties, environment, meterRegistry, "primary",
+                properties.determineUrl(), properties.determineUsername(), properties.determinePassword());
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls.split(",")) {
+            if (!url.isBlank()) {
+                HikariDataSource replica = pool(properties, environment, meterRegistry,
+                        "replica-" + (replicas.size() + 1), url.trim(), replicaUsername, replicaPassword);
+                replica.setReadOnly(true);
+                replicas.add(replica);
+            }
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, readYourWritesTracker, maxLagSeconds);
+    }
+
+    // The connection is only taken at the first statement, once the read-only flag is known
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment,
+            MeterRegistry meterRegistry, String name, String url, String username, String password) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
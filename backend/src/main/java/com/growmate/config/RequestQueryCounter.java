@@ -0,0 +1,64 @@
+package com.growmate.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Statements executed on the current request thread, between begin() and end()
+public final class RequestQueryCounter {
+    // Enough to show the repeated statement of an N+1 without holding a whole export in memory
+    private static final int MAX_CAPTURED_STATEMENTS = 100;
+
+    private static final ThreadLocal<State> CURRENT = new ThreadLocal<>();
+
+    private RequestQueryCounter() {
+    }
+
+    static void begin() {
+        CURRENT.set(new State());
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static void record(String sql) {
+        State state = CURRENT.get();
+        if (state == null) {
+            return;
+        }
+        state.count++;
+        if (state.statements.size() < MAX_CAPTURED_STATEMENTS) {
+            state.statements.add(sql);
+        }
+    }
+
+    public static int count() {
+        State state = CURRENT.get();
+        return state != null ? state.count : 0;
+    }
+
+    static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    static List<String> statements() {
+        State state = CURRENT.get();
+        return state != null ? List.copyOf(state.statements) : List.of();
+    }
+
+    // Returns false when the request's budget was already checked
+    static boolean markChecked() {
+        State state = CURRENT.get();
+        if (state == null || state.checked) {
+            return false;
+        }
+        state.checked = true;
+        return true;
+    }
+
+    private static final class State {
+        private int count;
+        private boolean checked;
+        private final List<String> statements = new ArrayList<>();
+    }
+}
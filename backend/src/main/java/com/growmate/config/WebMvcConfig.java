@@ -0,0 +1,30 @@
+package com.growmate.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+    private final DataVersionEtagInterceptor dataVersionEtagInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(dataVersionEtagInterceptor)
+                .addPathPatterns("/habits/**", "/habit-logs/**", "/dashboard/**", "/analytics/**")
+                // Typeahead is answered from memory; a data-version read would be its only query
+                .excludePathPatterns("/habits/search");
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Ahead of the JSON converters, whose application/*+json would otherwise answer the
+        // columnar type with plain JSON
+        converters.add(0, new ColumnarHabitLogHttpMessageConverter());
+    }
+}
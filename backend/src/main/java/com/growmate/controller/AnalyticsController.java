@@ -0,0 +1,47 @@
+package com.growmate.controller;
+
+import com.growmate.config.QueryBudget;
+import com.growmate.dto.AnalyticsResponse;
+import com.growmate.model.HabitRollup;
+import com.growmate.security.UserPrincipal;
+import com.growmate.service.RollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+    // Caps the number of buckets a single request can ask for
+    private static final long MAX_RANGE_DAYS = 3 * 366;
+
+    private final RollupService rollupService;
+
+    @GetMapping
+    @QueryBudget(3)
+    public ResponseEntity<?> getAnalytics(
+            @RequestParam(defaultValue = "DAY") HabitRollup.Period period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        LocalDate today = LocalDate.now();
+        LocalDate endDate = to != null ? to : today;
+        LocalDate startDate = from != null ? from : endDate.minusDays(29);
+
+        if (startDate.isAfter(endDate) || ChronoUnit.DAYS.between(startDate, endDate) > MAX_RANGE_DAYS) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        AnalyticsResponse analytics = rollupService.getAnalytics(userPrincipal.getId(), period, startDate, endDate,
+                today);
+        return ResponseEntity.ok(analytics);
+    }
+}
@@ -2,13 +2,19 @@ package com.growmate.controller;
 
 import com.growmate.dto.JwtResponse;
 import com.growmate.dto.LoginRequest;
+import com.growmate.dto.RefreshTokenRequest;
 import com.growmate.dto.SignupRequest;
+import com.growmate.exception.InvalidRefreshTokenException;
+import com.growmate.exception.PasswordHashingBusyException;
 import com.growmate.model.User;
 import com.growmate.repository.UserRepository;
 import com.growmate.security.JwtUtils;
 import com.growmate.security.UserPrincipal;
+import com.growmate.service.RefreshTokenService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -25,39 +31,38 @@ import java.util.Map;
 @RequestMapping("/auth")
 @RequiredArgsConstructor
 public class AuthController {
+    private static final int REFRESH_ATTEMPTS = 3;
+
     private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
     private final PasswordEncoder encoder;
     private final JwtUtils jwtUtils;
+    private final RefreshTokenService refreshTokenService;
 
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        Authentication authentication;
         try {
-            Authentication authentication = authenticationManager.authenticate(
+            authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
-
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            String jwt = jwtUtils.generateJwtToken(authentication);
-
-            UserPrincipal userDetails = (UserPrincipal) authentication.getPrincipal();
-
-            return ResponseEntity.ok(new JwtResponse(jwt,
-                    userDetails.getId(),
-                    userDetails.getName(),
-                    userDetails.getEmail()));
+        } catch (PasswordHashingBusyException e) {
+            throw e;
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Invalid email or password");
             return ResponseEntity.badRequest().body(error);
         }
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        UserPrincipal userDetails = (UserPrincipal) authentication.getPrincipal();
+
+        return ResponseEntity.ok(tokens(userDetails, refreshTokenService.issue(userDetails.getId())));
     }
 
     @PostMapping("/signup")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
         if (userRepository.existsByEmail(signUpRequest.getEmail())) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Email is already taken!");
-            return ResponseEntity.badRequest().body(error);
+            return emailTaken();
         }
 
         // Create new user's account
@@ -66,20 +71,63 @@ public class AuthController {
         user.setEmail(signUpRequest.getEmail());
         user.setPassword(encoder.encode(signUpRequest.getPassword()));
 
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race for the same email
+            return emailTaken();
+        }
+
+        // The password was just set, so the tokens are issued without verifying it again
+        UserPrincipal userDetails = UserPrincipal.create(user);
+        return ResponseEntity.ok(tokens(userDetails, refreshTokenService.issue(user.getId())));
+    }
 
-        // Authenticate the new user
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(signUpRequest.getEmail(), signUpRequest.getPassword()));
+    // Exchanges a refresh token for a new access token and its successor; each refresh
+    // token works once
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponse> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = rotate(request.getRefreshToken());
+        return ResponseEntity.ok(tokens(UserPrincipal.create(rotation.user()), rotation.refreshToken()));
+    }
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
+    // Two tabs refreshing at once can deadlock in InnoDB: the first one's successor insert needs
+    // an insert-intention lock on the token hash index, next to the lock the second one is
+    // waiting for. The server rolls one back; run it again in a new transaction, where it finds
+    // the token used and gets the same successor. If it still cannot get the lock, the client
+    // signs in again rather than seeing a 500.
+    private RefreshTokenService.Rotation rotate(String refreshToken) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return refreshTokenService.rotate(refreshToken);
+            } catch (ConcurrencyFailureException e) {
+                if (attempt == REFRESH_ATTEMPTS) {
+                    throw new InvalidRefreshTokenException("Refresh token could not be used, please sign in again");
+                }
+            }
+        }
+    }
 
-        UserPrincipal userDetails = (UserPrincipal) authentication.getPrincipal();
+    // Ends the session: its refresh tokens stop working and its access tokens are rejected
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        refreshTokenService.revoke(request.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
 
-        return ResponseEntity.ok(new JwtResponse(jwt,
+    private JwtResponse tokens(UserPrincipal userDetails, RefreshTokenService.IssuedToken refreshToken) {
+        String jwt = jwtUtils.generateJwtToken(userDetails, refreshToken.sessionId());
+        return new JwtResponse(jwt,
+                jwtUtils.getExpirationMs() / 1000,
+                refreshToken.token(),
                 userDetails.getId(),
                 userDetails.getName(),
-                userDetails.getEmail()));
+                userDetails.getEmail());
+    }
+
+    private static ResponseEntity<Map<String, String>> emailTaken() {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", "Email is already taken!");
+        return ResponseEntity.badRequest().body(error);
     }
-}
\ No newline at end of file
+}
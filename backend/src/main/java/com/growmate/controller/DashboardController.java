@@ -0,0 +1,27 @@
+package com.growmate.controller;
+
+import com.growmate.config.QueryBudget;
+import com.growmate.dto.DashboardResponse;
+import com.growmate.security.UserPrincipal;
+import com.growmate.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+    private final DashboardService dashboardService;
+
+    @GetMapping
+    @QueryBudget(3)
+    public ResponseEntity<DashboardResponse> getDashboard(Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(dashboardService.getDashboard(userPrincipal.getId(), LocalDate.now()));
+    }
+}
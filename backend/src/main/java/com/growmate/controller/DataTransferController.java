@@ -0,0 +1,62 @@
+package com.growmate.controller;
+
+import com.growmate.security.UserPrincipal;
+import com.growmate.service.DataTransferService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/data")
+@RequiredArgsConstructor
+public class DataTransferController {
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+    private final DataTransferService dataTransferService;
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportData(@RequestParam(defaultValue = "ndjson") String format,
+            Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        DataTransferService.Format exportFormat;
+        try {
+            exportFormat = DataTransferService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = outputStream ->
+                dataTransferService.export(userPrincipal.getId(), exportFormat, outputStream);
+        String filename = "growmate-export." + (exportFormat == DataTransferService.Format.CSV ? "csv" : "ndjson");
+        return ResponseEntity.ok()
+                .contentType(exportFormat == DataTransferService.Format.CSV ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build()
+                        .toString())
+                .body(body);
+    }
+
+    // The body is read as it arrives and the progress report is streamed back as NDJSON
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<StreamingResponseBody> importData(HttpServletRequest request,
+            Authentication authentication) throws IOException {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        DataTransferService.Format importFormat = TEXT_CSV.includes(MediaType.parseMediaType(request.getContentType()))
+                ? DataTransferService.Format.CSV
+                : DataTransferService.Format.NDJSON;
+        InputStream inputStream = request.getInputStream();
+
+        StreamingResponseBody body = outputStream ->
+                dataTransferService.importData(userPrincipal.getId(), importFormat, inputStream, outputStream);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
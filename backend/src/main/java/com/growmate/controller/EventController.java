@@ -0,0 +1,28 @@
+package com.growmate.controller;
+
+import com.growmate.security.UserPrincipal;
+import com.growmate.service.ChangeEventService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/events")
+@RequiredArgsConstructor
+public class EventController {
+    private final ChangeEventService changeEventService;
+
+    // Change stream for the signed-in user's habits and logs, resumable with Last-Event-ID
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            Authentication authentication, HttpServletResponse response) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        // Stops reverse proxies from buffering the stream
+        response.setHeader("X-Accel-Buffering", "no");
+        return changeEventService.subscribe(userPrincipal.getId(), lastEventId);
+    }
+}
@@ -1,44 +1,67 @@
 package com.growmate.controller;
 
+import com.growmate.config.QueryBudget;
+import com.growmate.dto.ChangeEvent;
 import com.growmate.dto.HabitRequest;
 import com.growmate.dto.HabitResponse;
+import com.growmate.dto.HabitSearchResult;
 import com.growmate.model.Habit;
 import com.growmate.model.User;
 import com.growmate.repository.HabitRepository;
 import com.growmate.repository.UserRepository;
 import com.growmate.security.UserPrincipal;
+import com.growmate.service.ChangeEventService;
+import com.growmate.service.DataVersionService;
+import com.growmate.service.HabitSearchService;
+import com.growmate.service.RollupService;
+import com.growmate.service.StreakService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/habits")
 @RequiredArgsConstructor
 public class HabitController {
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final int MAX_SEARCH_LIMIT = 50;
+
     private final HabitRepository habitRepository;
     private final UserRepository userRepository;
+    private final StreakService streakService;
+    private final RollupService rollupService;
+    private final DataVersionService dataVersionService;
+    private final ChangeEventService changeEventService;
+    private final HabitSearchService habitSearchService;
 
     @GetMapping
+    @Transactional(readOnly = true)
+    @QueryBudget(2)
     public ResponseEntity<List<HabitResponse>> getAllHabits(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        List<Habit> habits = habitRepository.findByUserIdOrderByCreatedAtDesc(userPrincipal.getId());
-
-        List<HabitResponse> habitResponses = habits.stream()
-                .map(HabitResponse::new)
-                .collect(Collectors.toList());
+        return ResponseEntity.ok(habitRepository.findResponsesByUserId(userPrincipal.getId()));
+    }
 
-        return ResponseEntity.ok(habitResponses);
+    // Typeahead over titles and descriptions, answered from memory once the index is warm
+    @GetMapping("/search")
+    @QueryBudget(1)
+    public ResponseEntity<List<HabitSearchResult>> searchHabits(@RequestParam("q") String query,
+            @RequestParam(defaultValue = "" + DEFAULT_SEARCH_LIMIT) int limit, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(habitSearchService.search(userPrincipal.getId(), query,
+                Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT))));
     }
 
     @GetMapping("/{id}")
+    @QueryBudget(2)
     public ResponseEntity<?> getHabitById(@PathVariable Long id, Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
 
@@ -48,6 +71,7 @@ public class HabitController {
     }
 
     @PostMapping
+    @Transactional
     public ResponseEntity<?> createHabit(@Valid @RequestBody HabitRequest habitRequest, Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
 
@@ -61,35 +85,55 @@ public class HabitController {
         habit.setFrequency(habitRequest.getFrequency());
         habit.setColor(habitRequest.getColor());
 
+        dataVersionService.bump(userPrincipal.getId());
         Habit savedHabit = habitRepository.save(habit);
-        return ResponseEntity.ok(new HabitResponse(savedHabit));
+        habitSearchService.habitSaved(userPrincipal.getId(), savedHabit);
+        HabitResponse response = new HabitResponse(savedHabit);
+        changeEventService.publish(userPrincipal.getId(), ChangeEvent.habitCreated(response));
+        return ResponseEntity.ok(response);
     }
 
     @PutMapping("/{id}")
+    @Transactional
     public ResponseEntity<?> updateHabit(@PathVariable Long id, @Valid @RequestBody HabitRequest habitRequest,
             Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
 
         return habitRepository.findByIdAndUserId(id, userPrincipal.getId())
                 .map(habit -> {
+                    boolean frequencyChanged = habit.getFrequency() != habitRequest.getFrequency();
                     habit.setTitle(habitRequest.getTitle());
                     habit.setDescription(habitRequest.getDescription());
                     habit.setFrequency(habitRequest.getFrequency());
                     habit.setColor(habitRequest.getColor());
 
+                    // Streak buckets depend on frequency
+                    if (frequencyChanged) {
+                        streakService.recompute(habit);
+                    }
+
                     Habit updatedHabit = habitRepository.save(habit);
-                    return ResponseEntity.ok(new HabitResponse(updatedHabit));
+                    dataVersionService.bump(userPrincipal.getId());
+                    habitSearchService.habitSaved(userPrincipal.getId(), updatedHabit);
+                    HabitResponse response = new HabitResponse(updatedHabit);
+                    changeEventService.publish(userPrincipal.getId(), ChangeEvent.habitUpdated(response));
+                    return ResponseEntity.ok(response);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
+    @Transactional
     public ResponseEntity<?> deleteHabit(@PathVariable Long id, Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
 
         return habitRepository.findByIdAndUserId(id, userPrincipal.getId())
                 .map(habit -> {
+                    rollupService.deleteHabit(habit.getId());
                     habitRepository.delete(habit);
+                    dataVersionService.bump(userPrincipal.getId());
+                    habitSearchService.habitDeleted(userPrincipal.getId(), id);
+                    changeEventService.publish(userPrincipal.getId(), ChangeEvent.habitDeleted(id));
                     Map<String, String> response = new HashMap<>();
                     response.put("message", "Habit deleted successfully");
                     return ResponseEntity.ok(response);
@@ -1,103 +1,298 @@
 package com.growmate.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.growmate.config.QueryBudget;
+import com.growmate.dto.ChangeEvent;
+import com.growmate.dto.HabitCalendarResponse;
+import com.growmate.dto.HabitLogBulkRequest;
+import com.growmate.dto.HabitLogBulkResult;
 import com.growmate.dto.HabitLogRequest;
 import com.growmate.dto.HabitLogResponse;
 import com.growmate.model.Habit;
+import com.growmate.model.HabitCalendar;
 import com.growmate.model.HabitLog;
 import com.growmate.repository.HabitLogRepository;
 import com.growmate.repository.HabitRepository;
 import com.growmate.security.UserPrincipal;
+import com.growmate.service.ChangeEventService;
+import com.growmate.service.DataVersionService;
+import com.growmate.service.HabitArchiveService;
+import com.growmate.service.HabitCalendarService;
+import com.growmate.service.HabitLogWriteService;
+import com.growmate.service.RollupService;
+import com.growmate.service.StreakService;
+import com.growmate.service.ToggleWriteBehindService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/habit-logs")
 @RequiredArgsConstructor
 public class HabitLogController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 1000;
+    // Bounds of the MySQL DATE type, used when from/to are omitted
+    private static final LocalDate MIN_DATE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
     private final HabitLogRepository habitLogRepository;
     private final HabitRepository habitRepository;
+    private final StreakService streakService;
+    private final HabitCalendarService habitCalendarService;
+    private final HabitArchiveService habitArchiveService;
+    private final RollupService rollupService;
+    private final DataVersionService dataVersionService;
+    private final HabitLogWriteService habitLogWriteService;
+    private final ChangeEventService changeEventService;
+    private final Optional<ToggleWriteBehindService> toggleWriteBehind;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
 
     @GetMapping
-    public ResponseEntity<List<HabitLogResponse>> getAllHabitLogs(Authentication authentication) {
+    @Transactional(readOnly = true)
+    // Pages reaching back into archivable years also read the archive
+    @QueryBudget(3)
+    public ResponseEntity<List<HabitLogResponse>> getAllHabitLogs(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        List<HabitLog> habitLogs = habitLogRepository.findByUserId(userPrincipal.getId());
+        LocalDate startDate = from != null ? from : MIN_DATE;
+        LocalDate endDate = to != null ? to : MAX_DATE;
+        Pageable page = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
 
-        List<HabitLogResponse> habitLogResponses = habitLogs.stream()
-                .map(HabitLogResponse::new)
-                .collect(Collectors.toList());
+        List<HabitLogResponse> habitLogs;
+        LocalDate cursorDate = null;
+        Long cursorId = null;
+        if (cursor == null) {
+            habitLogs = habitLogRepository.findPageByUserId(userPrincipal.getId(), startDate, endDate, page);
+        } else {
+            // Cursor is "<date>_<id>" of the last row of the previous page
+            String[] parts = cursor.split("_", 2);
+            try {
+                cursorDate = LocalDate.parse(parts[0]);
+                cursorId = Long.parseLong(parts[1]);
+            } catch (DateTimeParseException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            habitLogs = habitLogRepository.findPageByUserIdAfter(userPrincipal.getId(), startDate, endDate,
+                    cursorDate, cursorId, page);
+        }
+        habitLogs = habitArchiveService.mergePage(userPrincipal.getId(), habitLogs, startDate, endDate, cursorDate,
+                cursorId, page.getPageSize());
 
-        return ResponseEntity.ok(habitLogResponses);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (habitLogs.size() == page.getPageSize()) {
+            HabitLogResponse last = habitLogs.get(habitLogs.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, last.getDate() + "_" + last.getId());
+        }
+        return response.body(habitLogs);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamHabitLogs(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        Long userId = userPrincipal.getId();
+        LocalDate startDate = from != null ? from : MIN_DATE;
+        LocalDate endDate = to != null ? to : MAX_DATE;
+
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        // Rows are written as they come off the cursor, so memory stays flat
+        // regardless of history length
+        StreamingResponseBody body = outputStream -> readOnlyTransaction.executeWithoutResult(status -> {
+            // Before the cursor opens: the connection takes no other query while it streams
+            List<HabitCalendar> archived = habitArchiveService.archivedCalendars(userId, startDate, endDate);
+            try (Stream<HabitLogResponse> habitLogs = habitLogRepository.streamByUserId(userId, startDate, endDate);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                Iterator<HabitLogResponse> iterator = habitArchiveService.mergeStream(habitLogs.iterator(), archived,
+                        startDate, endDate);
+                while (iterator.hasNext()) {
+                    objectMapper.writeValue(generator, iterator.next());
+                }
+                generator.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @GetMapping("/habit/{habitId}")
+    @Transactional(readOnly = true)
+    @QueryBudget(3)
     public ResponseEntity<List<HabitLogResponse>> getHabitLogs(@PathVariable Long habitId,
             Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
 
         // Verify habit belongs to user
-        Optional<Habit> habit = habitRepository.findByIdAndUserId(habitId, userPrincipal.getId());
-        if (habit.isEmpty()) {
+        if (!habitRepository.existsByIdAndUserId(habitId, userPrincipal.getId())) {
             return ResponseEntity.notFound().build();
         }
 
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(365); // Last year
 
-        List<HabitLog> habitLogs = habitLogRepository.findByHabitIdAndDateBetweenOrderByDateDesc(habitId, startDate,
-                endDate);
+        List<HabitLogResponse> habitLogs = habitLogRepository.findResponsesByHabitIdAndDateBetween(habitId,
+                startDate, endDate);
 
-        List<HabitLogResponse> habitLogResponses = habitLogs.stream()
-                .map(HabitLogResponse::new)
-                .collect(Collectors.toList());
+        return ResponseEntity.ok(habitLogs);
+    }
 
-        return ResponseEntity.ok(habitLogResponses);
+    @GetMapping("/habit/{habitId}/calendar")
+    @Transactional(readOnly = true)
+    // Includes computing a missing year from the per-day rows
+    @QueryBudget(5)
+    public ResponseEntity<?> getHabitCalendar(@PathVariable Long habitId,
+            @RequestParam(required = false) Integer year, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        if (year != null && (year < MIN_DATE.getYear() || year > MAX_DATE.getYear())) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "year must be between " + MIN_DATE.getYear() + " and " + MAX_DATE.getYear());
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        // Verify habit belongs to user
+        Optional<Habit> habit = habitRepository.findByIdAndUserId(habitId, userPrincipal.getId());
+        if (habit.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        int calendarYear = year != null ? year : LocalDate.now().getYear();
+        return ResponseEntity.ok(new HabitCalendarResponse(habitId,
+                habitCalendarService.getCalendar(habit.get(), calendarYear)));
     }
 
     @PostMapping("/toggle")
+    @Transactional
+    // Seven for a plain toggle; the worst case adds restoring an archived year, a streak
+    // recompute and building a missing calendar year
+    @QueryBudget(15)
     public ResponseEntity<?> toggleHabitLog(@Valid @RequestBody HabitLogRequest habitLogRequest,
             Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        LocalDate date = habitLogRequest.getDate() != null ? habitLogRequest.getDate() : LocalDate.now();
+        if (toggleWriteBehind.isPresent()) {
+            return toggleWriteBehind.get().toggle(habitLogRequest.getHabitId(), userPrincipal.getId(), date)
+                    .<ResponseEntity<?>>map(habitLog -> {
+                        changeEventService.publish(userPrincipal.getId(), ChangeEvent.logsChanged(List.of(habitLog)));
+                        return ResponseEntity.ok(habitLog);
+                    })
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        }
 
-        // Verify habit belongs to user
-        Optional<Habit> habitOpt = habitRepository.findByIdAndUserId(habitLogRequest.getHabitId(),
+        // The habit lock is what makes a toggle safe: every writer of a habit's logs takes it
+        // first, so the flip and the state it returns happen without interleaving, and streak,
+        // calendar and rollup upkeep see toggles one at a time. Taking it before touching
+        // habit_logs also avoids the deadlock where the upsert's foreign key check holds a
+        // shared lock on this row and two toggles both try to upgrade it.
+        Optional<Habit> locked = habitRepository.findWithLockByIdAndUserId(habitLogRequest.getHabitId(),
                 userPrincipal.getId());
-        if (habitOpt.isEmpty()) {
+        if (locked.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        Habit habit = locked.get();
+        dataVersionService.bump(userPrincipal.getId());
 
-        Habit habit = habitOpt.get();
-        LocalDate date = habitLogRequest.getDate() != null ? habitLogRequest.getDate() : LocalDate.now();
+        habitArchiveService.restoreIfArchived(habit.getId(), userPrincipal.getId(), List.of(date));
 
-        // Find existing log or create new one
-        Optional<HabitLog> existingLog = habitLogRepository.findByHabitIdAndDate(habit.getId(), date);
+        HabitLogResponse habitLog = habitLogRepository.toggleCompletion(habit.getId(), userPrincipal.getId(), date);
+        streakService.applyToggle(habit, date, habitLog.getCompleted());
+        habitCalendarService.setCompleted(habit, date, habitLog.getCompleted());
+        rollupService.recordToggle(userPrincipal.getId(), habit.getId(), date, habitLog.getCompleted());
+        changeEventService.publish(userPrincipal.getId(), ChangeEvent.logsChanged(List.of(habitLog)));
 
-        HabitLog habitLog;
-        if (existingLog.isPresent()) {
-            habitLog = existingLog.get();
-            habitLog.setCompleted(!habitLog.getCompleted()); // Toggle completion
-        } else {
-            habitLog = new HabitLog();
-            habitLog.setHabit(habit);
-            habitLog.setDate(date);
-            habitLog.setCompleted(true); // First time marking as complete
+        return ResponseEntity.ok(habitLog);
+    }
+
+    @PostMapping("/bulk")
+    // The same for any number of habits: ownership, locks, rows, calendars, streaks and
+    // rollups are each read or written in one statement or batch, at most 13. Flushing the
+    // user's pending write-behind toggles first is the same write again, less the ownership
+    // check. Restoring archived years comes on top.
+    @QueryBudget(25)
+    public ResponseEntity<List<HabitLogBulkResult>> bulkSetHabitLogs(
+            @Valid @RequestBody HabitLogBulkRequest bulkRequest, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        // Pending write-behind toggles land first, in their own transactions, so this batch
+        // wins over them and its snapshot is taken after they committed
+        toggleWriteBehind.ifPresent(writeBehind -> writeBehind.flushUser(userPrincipal.getId()));
+        return new TransactionTemplate(transactionManager).execute(status ->
+                bulkSet(bulkRequest.getOperations(), userPrincipal.getId()));
+    }
+
+    private ResponseEntity<List<HabitLogBulkResult>> bulkSet(List<HabitLogRequest> operations, Long userId) {
+        // Verify every referenced habit belongs to user in one query
+        Set<Long> habitIds = operations.stream().map(HabitLogRequest::getHabitId).collect(Collectors.toSet());
+        Set<Long> ownedIds = new HashSet<>(habitRepository.findIdsByUserIdAndIdIn(userId, habitIds));
+
+        List<HabitLogBulkResult> results = new ArrayList<>(operations.size());
+        List<HabitLogRequest> accepted = new ArrayList<>(operations.size());
+        for (HabitLogRequest operation : operations) {
+            HabitLogBulkResult.Status status;
+            if (!ownedIds.contains(operation.getHabitId())) {
+                status = HabitLogBulkResult.Status.NOT_FOUND;
+            } else if (operation.getDate() == null || operation.getCompleted() == null) {
+                status = HabitLogBulkResult.Status.INVALID;
+            } else {
+                status = HabitLogBulkResult.Status.OK;
+                accepted.add(operation);
+            }
+            results.add(new HabitLogBulkResult(operation.getHabitId(), operation.getDate(),
+                    operation.getCompleted(), status));
         }
+        if (accepted.isEmpty()) {
+            return ResponseEntity.ok(results);
+        }
+
+        habitLogWriteService.setCompletions(userId, accepted);
+        changeEventService.publish(userId, ChangeEvent.logsChanged(accepted.stream()
+                .map(operation -> new HabitLogResponse(null, operation.getHabitId(), operation.getDate(),
+                        operation.getCompleted()))
+                .toList()));
 
-        HabitLog savedLog = habitLogRepository.save(habitLog);
-        return ResponseEntity.ok(new HabitLogResponse(savedLog));
+        return ResponseEntity.ok(results);
     }
 
     @GetMapping("/check")
+    @Transactional(readOnly = true)
     public ResponseEntity<?> checkHabitCompletion(@RequestParam Long habitId, @RequestParam String date,
             Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
@@ -109,10 +304,13 @@ public class HabitLogController {
         }
 
         LocalDate logDate = LocalDate.parse(date);
-        Optional<HabitLog> habitLog = habitLogRepository.findByHabitIdAndDate(habitId, logDate);
+        Optional<Boolean> pending = toggleWriteBehind.flatMap(writeBehind -> writeBehind.pendingState(habitId,
+                logDate));
 
         Map<String, Boolean> response = new HashMap<>();
-        response.put("completed", habitLog.map(HabitLog::getCompleted).orElse(false));
+        response.put("completed", pending.orElseGet(() -> habitLogRepository.findByHabitIdAndDate(habitId, logDate)
+                .map(HabitLog::getCompleted)
+                .orElseGet(() -> habitArchiveService.isArchivedCompletion(habitId, logDate))));
 
         return ResponseEntity.ok(response);
     }
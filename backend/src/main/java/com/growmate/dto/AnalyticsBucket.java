@@ -0,0 +1,17 @@
+package com.growmate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class AnalyticsBucket {
+    private LocalDate bucketStart;
+    // Completed days in the bucket (completed ISO weeks for WEEKLY habits)
+    private long completed;
+    // Days the habit existed for within the bucket (for WEEKLY habits, the ISO weeks that
+    // begin in it)
+    private long possible;
+}
@@ -0,0 +1,18 @@
+package com.growmate.dto;
+
+import com.growmate.model.HabitRollup;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class AnalyticsResponse {
+    private HabitRollup.Period period;
+    private LocalDate from;
+    private LocalDate to;
+    private List<AnalyticsBucket> totals;
+    private List<HabitAnalyticsResponse> habits;
+}
@@ -0,0 +1,59 @@
+package com.growmate.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Payload of one server-sent event; the SSE event name is the type
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChangeEvent {
+    @JsonIgnore
+    private Type type;
+    private Long habitId;
+    private HabitResponse habit;
+    private List<HabitLogResponse> logs;
+
+    public enum Type {
+        HABIT_CREATED("habit.created"),
+        HABIT_UPDATED("habit.updated"),
+        HABIT_DELETED("habit.deleted"),
+        LOGS_CHANGED("logs.changed"),
+        // Too much changed to describe; clients refetch
+        DATA_IMPORTED("data.imported");
+
+        private final String eventName;
+
+        Type(String eventName) {
+            this.eventName = eventName;
+        }
+
+        public String getEventName() {
+            return eventName;
+        }
+    }
+
+    public static ChangeEvent habitCreated(HabitResponse habit) {
+        return new ChangeEvent(Type.HABIT_CREATED, habit.getId(), habit, null);
+    }
+
+    public static ChangeEvent habitUpdated(HabitResponse habit) {
+        return new ChangeEvent(Type.HABIT_UPDATED, habit.getId(), habit, null);
+    }
+
+    public static ChangeEvent habitDeleted(Long habitId) {
+        return new ChangeEvent(Type.HABIT_DELETED, habitId, null, null);
+    }
+
+    public static ChangeEvent dataImported() {
+        return new ChangeEvent(Type.DATA_IMPORTED, null, null, null);
+    }
+
+    public static ChangeEvent logsChanged(List<HabitLogResponse> logs) {
+        return new ChangeEvent(Type.LOGS_CHANGED, null, null, logs);
+    }
+}
@@ -0,0 +1,15 @@
+package com.growmate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DashboardHabitResponse {
+    private HabitResponse habit;
+    private boolean completedToday;
+    // Share of possible days (ISO weeks for WEEKLY habits) completed, 0..1
+    private double completionRate7;
+    private double completionRate30;
+    private int weekToDateCount;
+}
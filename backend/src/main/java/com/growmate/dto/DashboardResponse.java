@@ -0,0 +1,14 @@
+package com.growmate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class DashboardResponse {
+    private LocalDate date;
+    private List<DashboardHabitResponse> habits;
+}
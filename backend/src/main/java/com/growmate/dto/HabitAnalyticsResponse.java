@@ -0,0 +1,13 @@
+package com.growmate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class HabitAnalyticsResponse {
+    private Long habitId;
+    private List<AnalyticsBucket> buckets;
+}
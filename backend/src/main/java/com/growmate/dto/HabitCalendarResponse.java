@@ -0,0 +1,18 @@
+package com.growmate.dto;
+
+import com.growmate.model.HabitCalendar;
+import lombok.Data;
+
+@Data
+public class HabitCalendarResponse {
+    private Long habitId;
+    private Integer year;
+    // Serialized as base64; bit (dayOfYear - 1) set means completed, least significant bit first
+    private byte[] days;
+
+    public HabitCalendarResponse(Long habitId, HabitCalendar calendar) {
+        this.habitId = habitId;
+        this.year = calendar.getYear();
+        this.days = calendar.getDays();
+    }
+}
@@ -0,0 +1,16 @@
+package com.growmate.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class HabitLogBulkRequest {
+    @NotEmpty(message = "Operations are required")
+    @Size(max = 1000, message = "At most 1000 operations per request")
+    @Valid
+    private List<HabitLogRequest> operations;
+}
@@ -0,0 +1,19 @@
+package com.growmate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class HabitLogBulkResult {
+    private Long habitId;
+    private LocalDate date;
+    private Boolean completed;
+    private Status status;
+
+    public enum Status {
+        OK, NOT_FOUND, INVALID
+    }
+}
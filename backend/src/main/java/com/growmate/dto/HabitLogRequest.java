@@ -1,11 +1,13 @@
 package com.growmate.dto;
 
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 import java.time.LocalDate;
 
 @Data
 public class HabitLogRequest {
+    @NotNull(message = "Habit is required")
     private Long habitId;
     private LocalDate date;
     private Boolean completed;
@@ -12,6 +12,13 @@ public class HabitLogResponse {
     private LocalDate date;
     private Boolean completed;
 
+    public HabitLogResponse(Long id, Long habitId, LocalDate date, Boolean completed) {
+        this.id = id;
+        this.habitId = habitId;
+        this.date = date;
+        this.completed = completed;
+    }
+
     public HabitLogResponse(HabitLog habitLog) {
         this.id = habitLog.getId();
         this.habitId = habitLog.getHabit().getId();
@@ -3,6 +3,7 @@ package com.growmate.dto;
 import com.growmate.model.Habit;
 import lombok.Data;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
@@ -13,13 +14,25 @@ public class HabitResponse {
     private Habit.Frequency frequency;
     private String color;
     private LocalDateTime createdAt;
+    private int currentStreak;
+    private int longestStreak;
+    private LocalDate lastCompletedDate;
 
     public HabitResponse(Habit habit) {
-        this.id = habit.getId();
-        this.title = habit.getTitle();
-        this.description = habit.getDescription();
-        this.frequency = habit.getFrequency();
-        this.color = habit.getColor();
-        this.createdAt = habit.getCreatedAt();
+        this(habit.getId(), habit.getTitle(), habit.getDescription(), habit.getFrequency(), habit.getColor(),
+                habit.getCreatedAt(), habit.getCurrentStreak(), habit.getLongestStreak(), habit.getLastCompletedDate());
     }
-}
\ No newline at end of file
+
+    public HabitResponse(Long id, String title, String description, Habit.Frequency frequency, String color,
+            LocalDateTime createdAt, Integer currentStreak, Integer longestStreak, LocalDate lastCompletedDate) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.frequency = frequency;
+        this.color = color;
+        this.createdAt = createdAt;
+        this.currentStreak = frequency.effectiveStreak(currentStreak, lastCompletedDate, LocalDate.now());
+        this.longestStreak = longestStreak != null ? longestStreak : 0;
+        this.lastCompletedDate = lastCompletedDate;
+    }
+}
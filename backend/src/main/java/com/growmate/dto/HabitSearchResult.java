@@ -0,0 +1,16 @@
+package com.growmate.dto;
+
+import com.growmate.model.Habit;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Typeahead hit; streaks are left out because toggles do not touch the search index
+@Data
+@AllArgsConstructor
+public class HabitSearchResult {
+    private Long id;
+    private String title;
+    private String description;
+    private Habit.Frequency frequency;
+    private String color;
+}
@@ -8,12 +8,17 @@ import lombok.Data;
 public class JwtResponse {
     private String token;
     private String type = "Bearer";
+    // Access token lifetime in seconds
+    private long expiresIn;
+    private String refreshToken;
     private Long id;
     private String name;
     private String email;
 
-    public JwtResponse(String token, Long id, String name, String email) {
+    public JwtResponse(String token, long expiresIn, String refreshToken, Long id, String name, String email) {
         this.token = token;
+        this.expiresIn = expiresIn;
+        this.refreshToken = refreshToken;
         this.id = id;
         this.name = name;
         this.email = email;
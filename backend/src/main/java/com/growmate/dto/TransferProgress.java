@@ -0,0 +1,32 @@
+package com.growmate.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Streamed back while an import runs: "error" per rejected line, "progress" after each
+// committed chunk, then "done" or "failed"
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransferProgress {
+    private String type;
+    private Long line;
+    private String message;
+    private Long lines;
+    private Long habits;
+    private Long logs;
+    private Long errors;
+
+    public static TransferProgress error(long line, String message) {
+        return new TransferProgress("error", line, message, null, null, null, null);
+    }
+
+    public static TransferProgress progress(String type, long lines, long habits, long logs, long errors) {
+        return new TransferProgress(type, null, null, lines, habits, logs, errors);
+    }
+
+    public static TransferProgress failed(long line, String message, long habits, long logs, long errors) {
+        return new TransferProgress("failed", line, message, null, habits, logs, errors);
+    }
+}
@@ -0,0 +1,31 @@
+package com.growmate.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.growmate.model.Habit;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One line of an export or import. "habit" lines define a habit under the ref used by the
+// "log" lines that follow; createdAt is exported for reference and ignored on import.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransferRecord {
+    public static final String HABIT = "habit";
+    public static final String LOG = "log";
+
+    private String type;
+    private String habit;
+    private String title;
+    private String description;
+    private Habit.Frequency frequency;
+    private String color;
+    private LocalDateTime createdAt;
+    private LocalDate date;
+    private Boolean completed;
+}
@@ -0,0 +1,10 @@
+package com.growmate.exception;
+
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
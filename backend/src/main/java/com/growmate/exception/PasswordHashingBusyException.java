@@ -0,0 +1,10 @@
+package com.growmate.exception;
+
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.growmate.exception;
+
+public class QueryBudgetExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
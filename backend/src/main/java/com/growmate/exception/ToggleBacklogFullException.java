@@ -0,0 +1,10 @@
+package com.growmate.exception;
+
+public class ToggleBacklogFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ToggleBacklogFullException(String message) {
+        super(message);
+    }
+}
@@ -9,11 +9,16 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Entity
-@Table(name = "habits")
+@Table(name = "habits", indexes = {
+    @Index(name = "idx_habits_user_created", columnList = "user_id, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -47,11 +52,47 @@ public class Habit {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Streak state maintained by StreakService; null on rows that predate it
+    // until backfilled at startup
+    @Column(name = "current_streak")
+    private Integer currentStreak = 0;
+
+    @Column(name = "longest_streak")
+    private Integer longestStreak = 0;
+
+    @Column(name = "last_completed_date")
+    private LocalDate lastCompletedDate;
+
     @OneToMany(mappedBy = "habit", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
     private List<HabitLog> habitLogs;
 
+    @OneToMany(mappedBy = "habit", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @JsonIgnore
+    private List<HabitCalendar> calendars;
+
     public enum Frequency {
-        DAILY, WEEKLY
+        DAILY, WEEKLY;
+
+        // A streak counts days or ISO weeks (Monday to Sunday)
+        public LocalDate bucketStart(LocalDate date) {
+            return this == WEEKLY ? date.with(DayOfWeek.MONDAY) : date;
+        }
+
+        public long bucketsBetween(LocalDate from, LocalDate to) {
+            if (this == WEEKLY) {
+                return ChronoUnit.WEEKS.between(bucketStart(from), bucketStart(to));
+            }
+            return ChronoUnit.DAYS.between(from, to);
+        }
+
+        // Streak as seen on the given day: the stored run only counts while its
+        // last bucket is the current or the immediately preceding one
+        public int effectiveStreak(Integer currentStreak, LocalDate lastCompletedDate, LocalDate today) {
+            if (currentStreak == null || lastCompletedDate == null) {
+                return 0;
+            }
+            return bucketsBetween(lastCompletedDate, today) <= 1 ? currentStreak : 0;
+        }
     }
 }
\ No newline at end of file
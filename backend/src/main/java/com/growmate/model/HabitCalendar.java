@@ -0,0 +1,39 @@
+package com.growmate.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "habit_calendars", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"habit_id", "year"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HabitCalendar {
+    // 366 days rounded up to whole bytes
+    public static final int BITMAP_BYTES = 46;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "habit_id", nullable = false)
+    @JsonIgnore
+    private Habit habit;
+
+    @Column(nullable = false)
+    private Integer year;
+
+    // Bit (dayOfYear - 1) is set when the habit was completed that day, least significant bit first
+    @Column(nullable = false, length = BITMAP_BYTES)
+    private byte[] days = new byte[BITMAP_BYTES];
+
+    // Set once the year's habit_logs rows have been moved out, the bitmap is then the only copy
+    @Column(nullable = false)
+    private Boolean archived = false;
+}
@@ -11,6 +11,9 @@ import java.time.LocalDate;
 @Entity
 @Table(name = "habit_logs", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"habit_id", "date"})
+}, indexes = {
+    // Carries id explicitly so ORDER BY date, id and the projections are served from the index
+    @Index(name = "idx_habit_logs_user_date", columnList = "user_id, date, id, habit_id, completed")
 })
 @Data
 @NoArgsConstructor
@@ -25,9 +28,20 @@ public class HabitLog {
     @JsonIgnore
     private Habit habit;
 
+    // Copy of habit.user.id so per-user reads skip the join; habits never change owner
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
     @Column(nullable = false)
     private LocalDate date;
 
     @Column(nullable = false)
     private Boolean completed = false;
+
+    @PrePersist
+    void copyUserIdFromHabit() {
+        if (userId == null && habit != null) {
+            userId = habit.getUser().getId();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.growmate.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "habit_rollups", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"habit_id", "period", "bucket_start"})
+}, indexes = {
+    @Index(name = "idx_habit_rollups_user_period_bucket", columnList = "user_id, period, bucket_start")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HabitRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "habit_id", nullable = false)
+    private Long habitId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 5)
+    private Period period;
+
+    // First day of the day, ISO week or month bucket
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDate bucketStart;
+
+    // Number of completed days inside the bucket
+    @Column(nullable = false)
+    private Integer completed = 0;
+
+    public enum Period {
+        DAY, WEEK, MONTH;
+
+        public LocalDate bucketStart(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(DayOfWeek.MONDAY);
+                case MONTH -> date.withDayOfMonth(1);
+            };
+        }
+
+        public LocalDate nextBucket(LocalDate bucketStart) {
+            return switch (this) {
+                case DAY -> bucketStart.plusDays(1);
+                case WEEK -> bucketStart.plusWeeks(1);
+                case MONTH -> bucketStart.plusMonths(1);
+            };
+        }
+    }
+}
@@ -46,6 +46,12 @@ public class User {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Bumped by every habit/log write and used for ETags; only ever changed
+    // through UserRepository.incrementDataVersion so entity saves can't roll it back
+    @JsonIgnore
+    @Column(name = "data_version", nullable = false, updatable = false)
+    private Long dataVersion = 0L;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
     private List<Habit> habits;
@@ -0,0 +1,32 @@
+package com.growmate.repository;
+
+import com.growmate.model.HabitCalendar;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HabitCalendarRepository extends JpaRepository<HabitCalendar, Long>, HabitCalendarRepositoryCustom {
+    Optional<HabitCalendar> findByHabitIdAndYear(Long habitId, Integer year);
+
+    List<HabitCalendar> findByHabitIdInAndYearIn(Collection<Long> habitIds, Collection<Integer> years);
+
+    List<HabitCalendar> findByHabitIdAndArchivedTrueOrderByYearAsc(Long habitId);
+
+    List<HabitCalendar> findByHabitIdInAndArchivedTrue(Collection<Long> habitIds);
+
+    @Query("SELECT c FROM HabitCalendar c WHERE c.habit.user.id = :userId AND c.archived = true "
+            + "AND c.year BETWEEN :fromYear AND :toYear ORDER BY c.year DESC, c.id DESC")
+    List<HabitCalendar> findArchivedByUserIdAndYearBetween(@Param("userId") Long userId,
+            @Param("fromYear") Integer fromYear, @Param("toYear") Integer toYear);
+
+    @Query("SELECT c FROM HabitCalendar c WHERE c.habit.id = :habitId AND c.habit.user.id = :userId "
+            + "AND c.archived = true AND c.year IN :years")
+    List<HabitCalendar> findArchivedByHabitIdAndUserIdAndYearIn(@Param("habitId") Long habitId,
+            @Param("userId") Long userId, @Param("years") Collection<Integer> years);
+}
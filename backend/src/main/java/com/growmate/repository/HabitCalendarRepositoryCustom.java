@@ -0,0 +1,10 @@
+package com.growmate.repository;
+
+import com.growmate.model.HabitCalendar;
+
+import java.util.List;
+
+public interface HabitCalendarRepositoryCustom {
+    // Inserts new, unarchived calendars in one batch; ids are ignored and not read back
+    void insertAll(List<HabitCalendar> calendars);
+}
@@ -0,0 +1,28 @@
+package com.growmate.repository;
+
+import com.growmate.model.HabitCalendar;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class HabitCalendarRepositoryImpl implements HabitCalendarRepositoryCustom {
+
+    // Hibernate sends IDENTITY inserts one at a time; with rewriteBatchedStatements this is one statement
+    private static final String INSERT_SQL =
+            "INSERT INTO habit_calendars (habit_id, year, days, archived) VALUES (?, ?, ?, FALSE)";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<HabitCalendar> calendars) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, calendars, BATCH_SIZE, (statement, calendar) -> {
+            statement.setLong(1, calendar.getHabit().getId());
+            statement.setInt(2, calendar.getYear());
+            statement.setBytes(3, calendar.getDays());
+        });
+    }
+}
@@ -1,24 +1,91 @@
 package com.growmate.repository;
 
+import com.growmate.dto.HabitLogResponse;
 import com.growmate.model.HabitLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface HabitLogRepository extends JpaRepository<HabitLog, Long> {
+public interface HabitLogRepository extends JpaRepository<HabitLog, Long>, HabitLogRepositoryCustom {
     Optional<HabitLog> findByHabitIdAndDate(Long habitId, LocalDate date);
     
     List<HabitLog> findByHabitIdAndDateBetweenOrderByDateDesc(Long habitId, LocalDate startDate, LocalDate endDate);
     
-    @Query("SELECT hl FROM HabitLog hl WHERE hl.habit.user.id = :userId AND hl.date BETWEEN :startDate AND :endDate ORDER BY hl.date DESC")
+    @Query("SELECT hl FROM HabitLog hl WHERE hl.userId = :userId AND hl.date BETWEEN :startDate AND :endDate ORDER BY hl.date DESC")
     List<HabitLog> findByUserIdAndDateBetween(@Param("userId") Long userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
     
-    @Query("SELECT hl FROM HabitLog hl WHERE hl.habit.user.id = :userId ORDER BY hl.date DESC")
+    @Query("SELECT hl FROM HabitLog hl WHERE hl.userId = :userId ORDER BY hl.date DESC")
     List<HabitLog> findByUserId(@Param("userId") Long userId);
+
+    // Read paths select straight into HabitLogResponse so no entities are hydrated
+    @Query("SELECT new com.growmate.dto.HabitLogResponse(hl.id, hl.habit.id, hl.date, hl.completed) FROM HabitLog hl "
+            + "WHERE hl.habit.id = :habitId AND hl.date BETWEEN :startDate AND :endDate ORDER BY hl.date DESC")
+    List<HabitLogResponse> findResponsesByHabitIdAndDateBetween(@Param("habitId") Long habitId,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT new com.growmate.dto.HabitLogResponse(hl.id, hl.habit.id, hl.date, hl.completed) FROM HabitLog hl "
+            + "WHERE hl.userId = :userId AND hl.completed = true AND hl.date BETWEEN :startDate AND :endDate")
+    List<HabitLogResponse> findCompletedResponsesByUserIdAndDateBetween(@Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Rows of the given days, so a batch can tell which of them it actually changes
+    @Query("SELECT new com.growmate.dto.HabitLogResponse(hl.id, hl.habit.id, hl.date, hl.completed) FROM HabitLog hl "
+            + "WHERE hl.habit.id IN :habitIds AND hl.date IN :dates")
+    List<HabitLogResponse> findResponsesByHabitIdInAndDateIn(@Param("habitIds") Collection<Long> habitIds,
+            @Param("dates") Collection<LocalDate> dates);
+
+    // Keyset pages over (date DESC, id DESC)
+    @Query("SELECT new com.growmate.dto.HabitLogResponse(hl.id, hl.habit.id, hl.date, hl.completed) FROM HabitLog hl "
+            + "WHERE hl.userId = :userId AND hl.date BETWEEN :startDate AND :endDate ORDER BY hl.date DESC, hl.id DESC")
+    List<HabitLogResponse> findPageByUserId(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate, Pageable pageable);
+
+    @Query("SELECT new com.growmate.dto.HabitLogResponse(hl.id, hl.habit.id, hl.date, hl.completed) FROM HabitLog hl "
+            + "WHERE hl.userId = :userId AND hl.date BETWEEN :startDate AND :endDate "
+            + "AND (hl.date < :cursorDate OR (hl.date = :cursorDate AND hl.id < :cursorId)) ORDER BY hl.date DESC, hl.id DESC")
+    List<HabitLogResponse> findPageByUserIdAfter(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate, @Param("cursorDate") LocalDate cursorDate,
+            @Param("cursorId") Long cursorId, Pageable pageable);
+
+    // MySQL Connector/J only streams rows when the fetch size is Integer.MIN_VALUE
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT new com.growmate.dto.HabitLogResponse(hl.id, hl.habit.id, hl.date, hl.completed) FROM HabitLog hl "
+            + "WHERE hl.userId = :userId AND hl.date BETWEEN :startDate AND :endDate ORDER BY hl.date DESC, hl.id DESC")
+    Stream<HabitLogResponse> streamByUserId(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT hl.date FROM HabitLog hl WHERE hl.habit.id = :habitId AND hl.completed = true ORDER BY hl.date ASC")
+    List<LocalDate> findCompletedDatesByHabitId(@Param("habitId") Long habitId);
+
+    @Query("SELECT new com.growmate.dto.HabitLogResponse(hl.id, hl.habit.id, hl.date, hl.completed) FROM HabitLog hl "
+            + "WHERE hl.habit.id IN :habitIds AND hl.completed = true ORDER BY hl.date ASC")
+    List<HabitLogResponse> findCompletedResponsesByHabitIdIn(@Param("habitIds") Collection<Long> habitIds);
+
+    @Query("SELECT new com.growmate.dto.HabitLogResponse(hl.id, hl.habit.id, hl.date, hl.completed) FROM HabitLog hl "
+            + "WHERE hl.habit.id IN :habitIds AND hl.completed = true AND hl.date BETWEEN :startDate AND :endDate")
+    List<HabitLogResponse> findCompletedResponsesByHabitIdInAndDateBetween(@Param("habitIds") Collection<Long> habitIds,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT MIN(hl.date) FROM HabitLog hl WHERE hl.habit.id = :habitId")
+    LocalDate findOldestDateByHabitId(@Param("habitId") Long habitId);
+
+    @Modifying
+    @Query("DELETE FROM HabitLog hl WHERE hl.habit.id = :habitId AND hl.date BETWEEN :startDate AND :endDate")
+    int deleteByHabitIdAndDateBetween(@Param("habitId") Long habitId, @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    long countByHabitIdAndCompletedTrueAndDateBetweenAndDateNot(Long habitId, LocalDate startDate, LocalDate endDate, LocalDate excludedDate);
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.growmate.repository;
+
+import com.growmate.dto.HabitLogRequest;
+import com.growmate.dto.HabitLogResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface HabitLogRepositoryCustom {
+    // Flips the day, creating it as completed; callers must hold the habit lock and have checked ownership
+    HabitLogResponse toggleCompletion(Long habitId, Long userId, LocalDate date);
+
+    // Current state of the day, with a null id when there is no row; empty when the habit
+    // does not exist or belongs to another user
+    Optional<HabitLogResponse> findToggleState(Long habitId, Long userId, LocalDate date);
+
+    // Writes explicit states in one JDBC batch; callers must have checked ownership
+    void setCompletions(Long userId, List<HabitLogRequest> operations);
+}
@@ -0,0 +1,79 @@
+package com.growmate.repository;
+
+import com.growmate.dto.HabitLogRequest;
+import com.growmate.dto.HabitLogResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class HabitLogRepositoryImpl implements HabitLogRepositoryCustom {
+
+    // Insert-or-flip that also returns the result, so a toggle is one round trip. On the update
+    // branch LAST_INSERT_ID(expr) hands back (id * 2 + new state) as the generated key of the
+    // OK packet; the insert branch returns the new id. Ownership is the caller's locked lookup.
+    private static final String TOGGLE_SQL =
+            "INSERT INTO habit_logs (habit_id, user_id, date, completed) VALUES (?, ?, ?, TRUE) "
+            + "ON DUPLICATE KEY UPDATE completed = LAST_INSERT_ID(habit_logs.id * 2 + (NOT habit_logs.completed)) & 1";
+
+    // With rewriteBatchedStatements the driver sends each batch as one multi-row statement
+    private static final String SET_SQL =
+            "INSERT INTO habit_logs (habit_id, user_id, date, completed) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE completed = VALUES(completed)";
+    private static final int BATCH_SIZE = 500;
+
+    private static final String STATE_SQL =
+            "SELECT hl.id, hl.completed FROM habits h "
+            + "LEFT JOIN habit_logs hl ON hl.habit_id = h.id AND hl.date = ? "
+            + "WHERE h.id = ? AND h.user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public HabitLogResponse toggleCompletion(Long habitId, Long userId, LocalDate date) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        int affectedRows = jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(TOGGLE_SQL, Statement.RETURN_GENERATED_KEYS);
+            statement.setLong(1, habitId);
+            statement.setLong(2, userId);
+            statement.setDate(3, Date.valueOf(date));
+            return statement;
+        }, keyHolder);
+
+        // Connector/J reports one key per affected row, the first is the one we set
+        long key = ((Number) keyHolder.getKeyList().get(0).values().iterator().next()).longValue();
+        if (affectedRows == 1) {
+            return new HabitLogResponse(key, habitId, date, true);
+        }
+        return new HabitLogResponse(key >> 1, habitId, date, (key & 1) == 1);
+    }
+
+    @Override
+    public Optional<HabitLogResponse> findToggleState(Long habitId, Long userId, LocalDate date) {
+        List<HabitLogResponse> states = jdbcTemplate.query(STATE_SQL, (rs, rowNum) -> {
+            long id = rs.getLong(1);
+            return rs.wasNull()
+                    ? new HabitLogResponse(null, habitId, date, false)
+                    : new HabitLogResponse(id, habitId, date, rs.getBoolean(2));
+        }, Date.valueOf(date), habitId, userId);
+        return states.stream().findFirst();
+    }
+
+    @Override
+    public void setCompletions(Long userId, List<HabitLogRequest> operations) {
+        jdbcTemplate.batchUpdate(SET_SQL, operations, BATCH_SIZE, (statement, operation) -> {
+            statement.setLong(1, operation.getHabitId());
+            statement.setLong(2, userId);
+            statement.setDate(3, Date.valueOf(operation.getDate()));
+            statement.setBoolean(4, operation.getCompleted());
+        });
+    }
+}
@@ -1,9 +1,17 @@
 package com.growmate.repository;
 
+import com.growmate.dto.HabitResponse;
+import com.growmate.dto.HabitSearchResult;
 import com.growmate.model.Habit;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,5 +19,34 @@ import java.util.Optional;
 public interface HabitRepository extends JpaRepository<Habit, Long> {
     List<Habit> findByUserIdOrderByCreatedAtDesc(Long userId);
     Optional<Habit> findByIdAndUserId(Long id, Long userId);
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    @Query("SELECT h.id FROM Habit h WHERE h.user.id = :userId AND h.id IN :ids")
+    List<Long> findIdsByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT h.id FROM Habit h ORDER BY h.id")
+    List<Long> findAllIds();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Habit> findWithLockById(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Habit> findWithLockByIdAndUserId(Long id, Long userId);
+
+    // Several habits under one statement, locked in id order like every multi-habit writer
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM Habit h WHERE h.id IN :ids ORDER BY h.id")
+    List<Habit> findAllWithLockByIdIn(@Param("ids") Collection<Long> ids);
     void deleteByIdAndUserId(Long id, Long userId);
+
+    @Query("SELECT h.id FROM Habit h WHERE h.currentStreak IS NULL AND h.id > :afterId ORDER BY h.id")
+    List<Long> findIdsWithoutStreak(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.growmate.dto.HabitResponse(h.id, h.title, h.description, h.frequency, h.color, h.createdAt, "
+            + "h.currentStreak, h.longestStreak, h.lastCompletedDate) FROM Habit h WHERE h.user.id = :userId ORDER BY h.createdAt DESC")
+    List<HabitResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.growmate.dto.HabitSearchResult(h.id, h.title, h.description, h.frequency, h.color) "
+            + "FROM Habit h WHERE h.user.id = :userId")
+    List<HabitSearchResult> findSearchResultsByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.growmate.repository;
+
+import com.growmate.model.HabitRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface HabitRollupRepository extends JpaRepository<HabitRollup, Long>, HabitRollupRepositoryCustom {
+    List<HabitRollup> findByUserIdAndPeriodAndBucketStartBetweenOrderByBucketStartAsc(Long userId,
+            HabitRollup.Period period, LocalDate startDate, LocalDate endDate);
+
+    List<HabitRollup> findByUserIdAndPeriodInAndBucketStartBetween(Long userId,
+            Collection<HabitRollup.Period> periods, LocalDate startDate, LocalDate endDate);
+
+    @Modifying
+    @Query("DELETE FROM HabitRollup r WHERE r.habitId = :habitId")
+    void deleteByHabitId(@Param("habitId") Long habitId);
+}
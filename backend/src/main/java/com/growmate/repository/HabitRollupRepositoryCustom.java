@@ -0,0 +1,17 @@
+package com.growmate.repository;
+
+import com.growmate.model.HabitRollup;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface HabitRollupRepositoryCustom {
+    // Adds delta to the day, week and month buckets containing date
+    void addCompleted(Long userId, Long habitId, LocalDate date, int delta);
+
+    // Adds each row's completed count to its bucket in one batch; ids are ignored
+    void addCompleted(List<HabitRollup> deltas);
+
+    // Replaces all of a habit's rollups with counts aggregated from habit_logs
+    void rebuildForHabit(Long habitId);
+}
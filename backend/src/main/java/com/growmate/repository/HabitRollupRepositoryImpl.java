@@ -0,0 +1,65 @@
+package com.growmate.repository;
+
+import com.growmate.model.HabitRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class HabitRollupRepositoryImpl implements HabitRollupRepositoryCustom {
+
+    private static final String ADD_SQL =
+            "INSERT INTO habit_rollups (user_id, habit_id, period, bucket_start, completed) VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE completed = completed + VALUES(completed)";
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String DELETE_SQL = "DELETE FROM habit_rollups WHERE habit_id = ?";
+
+    // One aggregate per period; bucket expressions mirror HabitRollup.Period.bucketStart()
+    private static final String REBUILD_SQL =
+            "INSERT INTO habit_rollups (user_id, habit_id, period, bucket_start, completed) "
+            + "SELECT hl.user_id, hl.habit_id, ?, %s, COUNT(*) FROM habit_logs hl "
+            + "WHERE hl.habit_id = ? AND hl.completed = TRUE GROUP BY hl.user_id, hl.habit_id, %s";
+
+    private static final List<String[]> BUCKET_EXPRESSIONS = List.of(
+            new String[]{HabitRollup.Period.DAY.name(), "hl.date"},
+            new String[]{HabitRollup.Period.WEEK.name(), "DATE_SUB(hl.date, INTERVAL WEEKDAY(hl.date) DAY)"},
+            new String[]{HabitRollup.Period.MONTH.name(), "DATE_SUB(hl.date, INTERVAL DAYOFMONTH(hl.date) - 1 DAY)"});
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addCompleted(Long userId, Long habitId, LocalDate date, int delta) {
+        HabitRollup.Period[] periods = HabitRollup.Period.values();
+        jdbcTemplate.batchUpdate(ADD_SQL, List.of(periods), periods.length, (statement, period) -> {
+            statement.setLong(1, userId);
+            statement.setLong(2, habitId);
+            statement.setString(3, period.name());
+            statement.setDate(4, Date.valueOf(period.bucketStart(date)));
+            statement.setInt(5, delta);
+        });
+    }
+
+    @Override
+    public void addCompleted(List<HabitRollup> deltas) {
+        jdbcTemplate.batchUpdate(ADD_SQL, deltas, BATCH_SIZE, (statement, delta) -> {
+            statement.setLong(1, delta.getUserId());
+            statement.setLong(2, delta.getHabitId());
+            statement.setString(3, delta.getPeriod().name());
+            statement.setDate(4, Date.valueOf(delta.getBucketStart()));
+            statement.setInt(5, delta.getCompleted());
+        });
+    }
+
+    @Override
+    public void rebuildForHabit(Long habitId) {
+        jdbcTemplate.update(DELETE_SQL, habitId);
+        for (String[] bucket : BUCKET_EXPRESSIONS) {
+            jdbcTemplate.update(String.format(REBUILD_SQL, bucket[1], bucket[1]), bucket[0], habitId);
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.growmate.repository;
 
 import com.growmate.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +13,16 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    @Query("SELECT u.dataVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findDataVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.dataVersion = u.dataVersion + 1 WHERE u.id = :id")
+    void incrementDataVersion(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :id AND u.password = :oldPassword")
+    int replacePassword(@Param("id") Long id, @Param("oldPassword") String oldPassword,
+            @Param("newPassword") String newPassword);
+}
@@ -0,0 +1,40 @@
+package com.growmate.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Sessions whose access tokens must stop working before they expire (logout, refresh token
+// reuse). Access tokens carry their session id, so the check is one map lookup, and an entry
+// is only needed until every token issued before the revocation has expired on its own.
+// Kept per instance: other instances keep accepting such tokens for at most one access TTL.
+@Component
+public class AccessTokenRevocations {
+    private final long accessTokenTtlMs;
+    // session id -> when the entry can be dropped
+    private final Map<String, Long> revokedSessions = new ConcurrentHashMap<>();
+
+    public AccessTokenRevocations(@Value("${app.jwt.expiration}") long accessTokenTtlMs, MeterRegistry meterRegistry) {
+        this.accessTokenTtlMs = accessTokenTtlMs;
+        meterRegistry.gaugeMapSize("growmate.jwt.revoked.sessions", Tags.empty(), revokedSessions);
+    }
+
+    public void revokeSession(String sessionId) {
+        revokedSessions.put(sessionId, System.currentTimeMillis() + accessTokenTtlMs);
+    }
+
+    public boolean isRevoked(String sessionId) {
+        return sessionId != null && revokedSessions.containsKey(sessionId);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void prune() {
+        long now = System.currentTimeMillis();
+        revokedSessions.values().removeIf(until -> until <= now);
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -26,10 +27,13 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String email = jwtUtils.getUserEmailFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+            Optional<UserPrincipal> principal = jwt != null ? jwtUtils.getPrincipalFromJwtToken(jwt) : Optional.empty();
+            if (principal.isPresent()) {
+                // Principal comes straight from the verified claims; only tokens issued
+                // before the id claim existed still need a user lookup
+                UserDetails userDetails = principal.get().getId() != null
+                        ? principal.get()
+                        : userDetailsService.loadUserByUsername(principal.get().getEmail());
                 UsernamePasswordAuthenticationToken authentication = 
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -0,0 +1,36 @@
+package com.growmate.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+// Picks the highest BCrypt cost whose hash fits the target time on this machine. Each cost
+// step doubles the work, so one timed cost is enough to extrapolate from.
+@Slf4j
+final class BCryptCostCalibrator {
+    static final int MIN_COST = 10;
+    static final int MAX_COST = 16;
+    private static final int SAMPLES = 3;
+
+    private BCryptCostCalibrator() {
+    }
+
+    static int calibrate(long targetMs) {
+        String salt = BCrypt.gensalt(MIN_COST);
+        BCrypt.hashpw("calibration", salt);
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        double measuredMs = bestNanos / 1_000_000.0;
+        int cost = MIN_COST;
+        while (cost < MAX_COST && measuredMs * 2 <= targetMs) {
+            measuredMs *= 2;
+            cost++;
+        }
+        log.info("BCrypt cost {} (about {} ms per hash, target {} ms)", cost, Math.round(measuredMs), targetMs);
+        return cost;
+    }
+}
@@ -0,0 +1,114 @@
+package com.growmate.security;
+
+import com.growmate.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Runs hashing and verification on a small dedicated pool so a login burst can only take
+// that many cores. Callers wait for their turn; once the queue is full they are turned away
+// with PasswordHashingBusyException instead of piling up on request threads.
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+    private final Counter deferred;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueSize, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.rejected = Counter.builder("growmate.password.rejected")
+                .description("Hashing requests turned away because the queue was full")
+                .register(meterRegistry);
+        this.deferred = Counter.builder("growmate.password.rehash.deferred")
+                .description("Rehashes left for a later login because the pool was busy")
+                .register(meterRegistry);
+        Gauge.builder("growmate.password.queued", executor, pool -> pool.getQueue().size())
+                .description("Hashing requests waiting for a thread")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    // For work that can wait for a later attempt, like rehashing at a new cost after a login: it
+    // only starts when nobody is queued and is dropped rather than rejected when the pool is busy
+    public void encodeLater(CharSequence rawPassword, Consumer<String> onEncoded) {
+        if (!executor.getQueue().isEmpty()) {
+            deferred.increment();
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    onEncoded.accept(delegate.encode(rawPassword));
+                } catch (RuntimeException e) {
+                    logger.warn("Background password rehash failed", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            deferred.increment();
+        }
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException("Too many sign-in attempts right now, please retry shortly");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
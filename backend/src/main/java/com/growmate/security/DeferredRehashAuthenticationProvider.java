@@ -0,0 +1,35 @@
+package com.growmate.security;
+
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+// DaoAuthenticationProvider rehashes an outdated hash inline, after the password has already
+// been verified, so a busy hashing pool would turn a correct login into a 503. Here the rehash
+// is handed to the pool to run after the response, and skipped until a later login when the
+// pool is busy.
+public class DeferredRehashAuthenticationProvider extends DaoAuthenticationProvider {
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final UserDetailsPasswordService passwordService;
+
+    public DeferredRehashAuthenticationProvider(UserDetailsService userDetailsService,
+                                                BoundedPasswordEncoder passwordEncoder,
+                                                UserDetailsPasswordService passwordService) {
+        this.passwordEncoder = passwordEncoder;
+        this.passwordService = passwordService;
+        setUserDetailsService(userDetailsService);
+        setPasswordEncoder(passwordEncoder);
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            passwordEncoder.encodeLater(authentication.getCredentials().toString(),
+                    encoded -> passwordService.updatePassword(user, encoded));
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
@@ -2,6 +2,10 @@ package com.growmate.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
@@ -9,40 +13,143 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Slf4j
+@RequiredArgsConstructor
 public class JwtUtils {
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String NAME_CLAIM = "name";
+    private static final String SESSION_CLAIM = "sid";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
     @Value("${app.jwt.expiration}")
     private long jwtExpirationMs;
 
+    // Maximum number of verified tokens kept in memory, 0 disables the cache
+    @Value("${app.jwt.cache-size:10000}")
+    private int tokenCacheSize;
+
+    private final MeterRegistry meterRegistry;
+    private final AccessTokenRevocations revocations;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    // Access-ordered, so a full cache drops the least recently used token in O(1) and new
+    // sessions still get cached. Reads reorder it too, so every access holds its lock.
+    private final Map<String, CachedPrincipal> verifiedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedPrincipal> eldest) {
+            return size() > tokenCacheSize;
+        }
+    };
+    private Timer validTokenTimer;
+    private Timer invalidTokenTimer;
+    private Timer cachedTokenTimer;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        validTokenTimer = verificationTimer("valid");
+        invalidTokenTimer = verificationTimer("invalid");
+        cachedTokenTimer = verificationTimer("cached");
+    }
+
+    private Timer verificationTimer(String result) {
+        return Timer.builder("growmate.jwt.verification")
+                .description("Time to turn a bearer token into a principal")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
     public String generateJwtToken(Authentication authentication) {
-        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return generateJwtToken((UserPrincipal) authentication.getPrincipal());
+    }
+
+    public String generateJwtToken(UserPrincipal userPrincipal) {
+        return generateJwtToken(userPrincipal, null);
+    }
+
+    // Tokens tied to a session (a refresh token family) can be revoked with it
+    public String generateJwtToken(UserPrincipal userPrincipal, String sessionId) {
+        Date now = new Date();
 
         return Jwts.builder()
                 .setSubject((userPrincipal.getEmail()))
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .claim(USER_ID_CLAIM, userPrincipal.getId())
+                .claim(NAME_CLAIM, userPrincipal.getName())
+                .claim(SESSION_CLAIM, sessionId)
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + jwtExpirationMs))
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    public long getExpirationMs() {
+        return jwtExpirationMs;
+    }
+
     public String getUserEmailFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
 
     public boolean validateJwtToken(String authToken) {
+        return parseClaims(authToken).isPresent();
+    }
+
+    // Verifies the token once and builds the principal from its claims. Tokens
+    // issued before the id/name claims existed come back with a null id. Revoked
+    // sessions are checked in memory on every call, cached or not.
+    public Optional<UserPrincipal> getPrincipalFromJwtToken(String token) {
+        long start = System.nanoTime();
+        CachedPrincipal cached;
+        synchronized (verifiedTokens) {
+            cached = verifiedTokens.get(token);
+        }
+        if (cached != null) {
+            if (revocations.isRevoked(cached.sessionId())) {
+                invalidTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return Optional.empty();
+            }
+            if (cached.expiresAt() > System.currentTimeMillis()) {
+                cachedTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return Optional.of(cached.principal());
+            }
+            synchronized (verifiedTokens) {
+                verifiedTokens.remove(token);
+            }
+        }
+
+        Optional<UserPrincipal> principal = parseClaims(token)
+                .filter(claims -> !revocations.isRevoked(claims.get(SESSION_CLAIM, String.class)))
+                .map(claims -> {
+                    Number userId = claims.get(USER_ID_CLAIM, Number.class);
+                    UserPrincipal claimsPrincipal = new UserPrincipal(
+                            userId != null ? userId.longValue() : null,
+                            claims.get(NAME_CLAIM, String.class),
+                            claims.getSubject(),
+                            null);
+                    if (userId != null) {
+                        cache(token, claimsPrincipal, claims.get(SESSION_CLAIM, String.class),
+                                claims.getExpiration().getTime());
+                    }
+                    return claimsPrincipal;
+                });
+        (principal.isPresent() ? validTokenTimer : invalidTokenTimer)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return principal;
+    }
+
+    private Optional<Claims> parseClaims(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(authToken);
-            return true;
+            return Optional.of(parser.parseClaimsJws(authToken).getBody());
         } catch (MalformedJwtException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -52,10 +159,18 @@ public class JwtUtils {
         } catch (IllegalArgumentException e) {
             log.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+
+    private void cache(String token, UserPrincipal principal, String sessionId, long expiresAt) {
+        if (tokenCacheSize <= 0) {
+            return;
+        }
+        synchronized (verifiedTokens) {
+            verifiedTokens.put(token, new CachedPrincipal(principal, sessionId, expiresAt));
+        }
     }
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    private record CachedPrincipal(UserPrincipal principal, String sessionId, long expiresAt) {
     }
-}
\ No newline at end of file
+}
@@ -112,7 +112,11 @@
 
 package com.growmate.security;
 
+import com.growmate.config.QueryBudgetEnforcer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -125,7 +129,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -144,10 +147,28 @@ public class WebSecurityConfig {
     private final CustomUserDetailsService userDetailsService;
     private final AuthEntryPointJwt unauthorizedHandler;
     private final JwtUtils jwtUtils;
+    private final MeterRegistry meterRegistry;
 
     @Value("${app.cors.allowed-origins}")
     private String allowedOrigins;
 
+    // 0 calibrates at startup against target-ms; set it to pin the cost across instances
+    @Value("${app.password.bcrypt-cost:0}")
+    private int bcryptCost;
+
+    @Value("${app.password.target-ms:100}")
+    private long hashTargetMs;
+
+    // 0 uses half the cores
+    @Value("${app.password.threads:0}")
+    private int hashingThreads;
+
+    @Value("${app.password.queue-size:64}")
+    private int hashingQueueSize;
+
+    @Value("${app.query-budget.enabled:false}")
+    private boolean queryBudgetEnabled;
+
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
         return new AuthTokenFilter(jwtUtils, userDetailsService);
@@ -155,10 +176,8 @@ public class WebSecurityConfig {
 
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
-        return authProvider;
+        // Rehashes at the current cost after a successful login with an older hash
+        return new DeferredRehashAuthenticationProvider(userDetailsService, passwordEncoder(), userDetailsService);
     }
 
     @Bean
@@ -167,8 +186,12 @@ public class WebSecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        int cost = bcryptCost > 0 ? bcryptCost : BCryptCostCalibrator.calibrate(hashTargetMs);
+        int threads = hashingThreads > 0 ? hashingThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new TimedPasswordEncoder(new BCryptPasswordEncoder(cost), meterRegistry),
+                threads, hashingQueueSize, meterRegistry);
     }
 
     @Bean
@@ -179,9 +202,13 @@ public class WebSecurityConfig {
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Completion dispatches of already-authorized SSE and streaming responses
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/auth/**").permitAll()
                         .requestMatchers("/test/**").permitAll()
+                        // Only reachable on the management port, which binds to localhost
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
                         .anyRequest().authenticated());
 
         http.authenticationProvider(authenticationProvider());
@@ -198,6 +225,12 @@ public class WebSecurityConfig {
         configuration.setAllowedHeaders(List.of("*"));
         configuration.setAllowCredentials(true);
         configuration.addExposedHeader("Authorization");
+        configuration.addExposedHeader("X-Next-Cursor");
+        configuration.addExposedHeader("ETag");
+        // Only set when query counting is on, which is meant for development and tests
+        if (queryBudgetEnabled) {
+            configuration.addExposedHeader(QueryBudgetEnforcer.QUERY_COUNT_HEADER);
+        }
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
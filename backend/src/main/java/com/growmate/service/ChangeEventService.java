@@ -0,0 +1,446 @@
+package com.growmate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.growmate.dto.ChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-user server-sent event fan-out. An idle connection is an async request plus a small
+// queue, with no thread attached; a few sender threads drain queues that have events.
+// Each event is serialized once. Every stream opens with "ready" carrying the current id;
+// recent events are kept per user so a reconnect with Last-Event-ID replays what it
+// missed, and a gap that cannot be filled gets "reset" telling the client to refetch.
+// Events only reach connections on the node that handled the write.
+//
+// A send to a client that stopped reading blocks until Tomcat's socket write timeout
+// (the connector's connection timeout) fails it, holding its sender thread and the
+// emitter's lock. The heartbeat evicts such a connection and adds a stand-in sender for as
+// long as the write stays stuck, and only the drain completes an emitter it may be writing to,
+// so a few stalled clients cannot hold up delivery to everyone else.
+@Service
+public class ChangeEventService {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeEventService.class);
+
+    private static final String READY_EVENT = "ready";
+    private static final String RESET_EVENT = "reset";
+
+    // id is null for heartbeats, which go out as SSE comments
+    private record StoredEvent(String id, long seq, String name, String json) {
+    }
+
+    private static final StoredEvent HEARTBEAT = new StoredEvent(null, 0, null, null);
+
+    // Caps the extra threads a burst of stalled clients can add to the sender pool
+    private static final int MAX_STAND_IN_SENDERS = 64;
+
+    private static final int IDLE = 0;
+    private static final int SENDING = 1;
+    private static final int STALLED = 2;
+
+    private final ObjectMapper objectMapper;
+    private final int historySize;
+    private final int bufferSize;
+    private final int maxConnectionsPerUser;
+    private final long connectionTimeoutMs;
+    private final long slowConsumerMs;
+    private final long resumeWindowMs;
+    private final int senderThreads;
+    private final ThreadPoolExecutor senders;
+    private int standInSenders;
+
+    // Event ids are "<boot>-<seq>" so ids from before a restart are recognised as unknown
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, UserChannel> channels = new ConcurrentHashMap<>();
+    // Evicted while a drain may still be writing to them; completed when it returns
+    private final Set<Subscriber> closing = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter evictions;
+
+    public ChangeEventService(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${app.events.history-size:256}") int historySize,
+            @Value("${app.events.buffer-size:64}") int bufferSize,
+            @Value("${app.events.max-connections-per-user:10}") int maxConnectionsPerUser,
+            @Value("${app.events.connection-timeout-ms:1800000}") long connectionTimeoutMs,
+            @Value("${app.events.slow-consumer-ms:10000}") long slowConsumerMs,
+            @Value("${app.events.resume-window-ms:300000}") long resumeWindowMs,
+            @Value("${app.events.sender-threads:4}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.historySize = historySize;
+        this.bufferSize = bufferSize;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.connectionTimeoutMs = connectionTimeoutMs;
+        this.slowConsumerMs = slowConsumerMs;
+        this.resumeWindowMs = resumeWindowMs;
+        this.senderThreads = senderThreads;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "sse-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        meterRegistry.gauge("growmate.events.connections", Tags.empty(), connections);
+        this.evictions = meterRegistry.counter("growmate.events.evictions");
+    }
+
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(connectionTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        Subscriber oldest = null;
+        while (true) {
+            UserChannel channel = channels.computeIfAbsent(userId, id -> new UserChannel(sequence.get()));
+            synchronized (channel) {
+                if (channels.get(userId) != channel) {
+                    // Expired by the heartbeat between lookup and lock
+                    continue;
+                }
+                // Replay and registration under one lock, so no event is missed or sent twice
+                List<StoredEvent> missed = missedEvents(channel, lastEventId);
+                String currentId = bootId + "-" + sequence.get();
+                if (missed == null || missed.size() >= bufferSize) {
+                    subscriber.queue.offer(new StoredEvent(currentId, 0, RESET_EVENT, "{}"));
+                } else {
+                    missed.forEach(subscriber.queue::offer);
+                    subscriber.queue.offer(new StoredEvent(currentId, 0, READY_EVENT, "{}"));
+                }
+                if (channel.subscribers.size() >= maxConnectionsPerUser) {
+                    oldest = channel.subscribers.iterator().next();
+                }
+                channel.subscribers.add(subscriber);
+                channel.touch();
+                break;
+            }
+        }
+        connections.incrementAndGet();
+        if (oldest != null) {
+            evict(userId, oldest, "too many connections");
+        }
+
+        emitter.onCompletion(() -> disconnected(userId, subscriber));
+        emitter.onTimeout(() -> disconnected(userId, subscriber));
+        emitter.onError(error -> disconnected(userId, subscriber));
+        schedule(userId, subscriber);
+        return emitter;
+    }
+
+    // Publishes after commit when called inside a transaction, so clients never hear about
+    // a change they cannot read yet, or one that was rolled back
+    public void publish(Long userId, ChangeEvent event) {
+        if (!channels.containsKey(userId)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(userId, event);
+                }
+            });
+        } else {
+            deliver(userId, event);
+        }
+    }
+
+    private void deliver(Long userId, ChangeEvent event) {
+        UserChannel channel = channels.get(userId);
+        if (channel == null) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            logger.error("Cannot serialize {} event", event.getType(), e);
+            return;
+        }
+
+        List<Subscriber> overflowed = new ArrayList<>();
+        synchronized (channel) {
+            long seq = sequence.incrementAndGet();
+            StoredEvent stored = new StoredEvent(bootId + "-" + seq, seq, event.getType().getEventName(), json);
+            channel.append(stored, historySize);
+            for (Subscriber subscriber : channel.subscribers) {
+                if (!subscriber.queue.offer(stored)) {
+                    overflowed.add(subscriber);
+                }
+            }
+        }
+        // A full buffer means the client stopped reading; it can resume from its last id
+        overflowed.forEach(subscriber -> evict(userId, subscriber, "buffer full"));
+        channel.subscribers.forEach(subscriber -> schedule(userId, subscriber));
+    }
+
+    // Keeps proxies from closing idle streams, evicts connections stuck on a write and
+    // forgets users whose resume window has passed
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        channels.forEach((userId, channel) -> {
+            for (Subscriber subscriber : channel.subscribers) {
+                if (stalled(subscriber, now)) {
+                    addStandIn(subscriber);
+                    evict(userId, subscriber, "write stalled");
+                } else if (!subscriber.queue.offer(HEARTBEAT)) {
+                    evict(userId, subscriber, "buffer full");
+                } else {
+                    schedule(userId, subscriber);
+                }
+            }
+            synchronized (channel) {
+                if (channel.subscribers.isEmpty() && now - channel.lastActive > resumeWindowMs) {
+                    channels.remove(userId, channel);
+                }
+            }
+        });
+        // Evicted for a full buffer while stuck in a write
+        for (Subscriber subscriber : closing) {
+            if (stalled(subscriber, now)) {
+                addStandIn(subscriber);
+            }
+        }
+    }
+
+    private boolean stalled(Subscriber subscriber, long now) {
+        long sendingSince = subscriber.sendingSince;
+        return sendingSince != 0 && now - sendingSince > slowConsumerMs
+                && subscriber.state.get() == SENDING;
+    }
+
+    private void addStandIn(Subscriber subscriber) {
+        if (addStandInSender() && !subscriber.state.compareAndSet(SENDING, STALLED)) {
+            // The write finished after all
+            removeStandInSender();
+        }
+    }
+
+    private void schedule(Long userId, Subscriber subscriber) {
+        if (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(userId, subscriber));
+        }
+    }
+
+    private void drain(Long userId, Subscriber subscriber) {
+        try {
+            StoredEvent event;
+            while (!subscriber.closed && (event = subscriber.queue.poll()) != null) {
+                synchronized (subscriber) {
+                    if (subscriber.closed) {
+                        break;
+                    }
+                    send(subscriber, event);
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container reports it through onError/onCompletion too
+            remove(userId, subscriber);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (subscriber.evicted) {
+            complete(subscriber);
+        } else if (!subscriber.closed) {
+            // Events offered after the last poll but before the flag was cleared
+            schedule(userId, subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, StoredEvent event) throws IOException {
+        subscriber.state.set(SENDING);
+        subscriber.sendingSince = System.currentTimeMillis();
+        try {
+            if (event == HEARTBEAT) {
+                subscriber.emitter.send(SseEmitter.event().comment(""));
+            } else {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(event.id())
+                        .name(event.name())
+                        .data(event.json(), MediaType.APPLICATION_JSON));
+            }
+        } finally {
+            subscriber.sendingSince = 0;
+            if (!subscriber.state.compareAndSet(SENDING, IDLE)) {
+                // Stalled and evicted meanwhile; this thread is back, so its stand-in can go
+                subscriber.state.set(IDLE);
+                removeStandInSender();
+            }
+        }
+    }
+
+    // Waits out a send in progress, behind a stalled one until it fails. Once the container has
+    // completed the request, it recycles the response for another connection, and a late
+    // write would land on that connection.
+    private void disconnected(Long userId, Subscriber subscriber) {
+        synchronized (subscriber) {
+            subscriber.disconnected = true;
+            remove(userId, subscriber);
+        }
+    }
+
+    private void evict(Long userId, Subscriber subscriber, String reason) {
+        if (remove(userId, subscriber)) {
+            evictions.increment();
+            logger.debug("Evicting event stream of user {}: {}", userId, reason);
+            complete(subscriber);
+        }
+    }
+
+    // complete() waits for the emitter's lock, which a stalled send holds, so it only runs
+    // while no drain does; a running drain calls this again once its write returns. The
+    // draining flag is never released afterwards, so nothing is sent to a closed emitter.
+    // It runs on a sender, because completing dispatches that request back into the
+    // container, which must not happen on another request's thread.
+    private void complete(Subscriber subscriber) {
+        subscriber.evicted = true;
+        closing.add(subscriber);
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> {
+                closing.remove(subscriber);
+                synchronized (subscriber) {
+                    if (!subscriber.disconnected) {
+                        subscriber.emitter.complete();
+                    }
+                }
+            });
+        }
+    }
+
+    private synchronized boolean addStandInSender() {
+        if (standInSenders >= MAX_STAND_IN_SENDERS) {
+            return false;
+        }
+        standInSenders++;
+        senders.setMaximumPoolSize(senderThreads + standInSenders);
+        senders.setCorePoolSize(senderThreads + standInSenders);
+        return true;
+    }
+
+    private synchronized void removeStandInSender() {
+        standInSenders--;
+        senders.setCorePoolSize(senderThreads + standInSenders);
+        senders.setMaximumPoolSize(senderThreads + standInSenders);
+    }
+
+    private boolean remove(Long userId, Subscriber subscriber) {
+        if (subscriber.closed) {
+            return false;
+        }
+        subscriber.closed = true;
+        UserChannel channel = channels.get(userId);
+        if (channel != null) {
+            synchronized (channel) {
+                channel.subscribers.remove(subscriber);
+                channel.touch();
+            }
+        }
+        subscriber.queue.clear();
+        connections.decrementAndGet();
+        return true;
+    }
+
+    // Events after the given id, empty without an id, or null when the gap can no longer
+    // be filled from history
+    private List<StoredEvent> missedEvents(UserChannel channel, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return List.of();
+        }
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash < 0 || !lastEventId.substring(0, dash).equals(bootId)) {
+            return null;
+        }
+        long lastSeq;
+        try {
+            lastSeq = Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (lastSeq < channel.coveredAfter) {
+            return null;
+        }
+        List<StoredEvent> missed = new ArrayList<>();
+        for (StoredEvent event : channel.history) {
+            if (event.seq() > lastSeq) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    // The web server has stopped by now and closed the streams with it, so the emitters are
+    // not completed here; their responses may already be recycled
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<StoredEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicInteger state = new AtomicInteger(IDLE);
+        private volatile long sendingSince;
+        private volatile boolean closed;
+        private volatile boolean evicted;
+        // Completed by the container; guarded by the subscriber's monitor
+        private boolean disconnected;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    // Guarded by its own monitor, except the subscriber set which is also iterated lock-free.
+    // Sequence numbers are global, so history holds every event of this user after coveredAfter.
+    private static final class UserChannel {
+        private final Deque<StoredEvent> history = new ArrayDeque<>();
+        private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+        private long coveredAfter;
+        private long lastActive = System.currentTimeMillis();
+
+        private UserChannel(long coveredAfter) {
+            this.coveredAfter = coveredAfter;
+        }
+
+        private void append(StoredEvent event, int historySize) {
+            if (history.size() >= historySize) {
+                coveredAfter = history.removeFirst().seq();
+            }
+            history.addLast(event);
+            touch();
+        }
+
+        private void touch() {
+            lastActive = System.currentTimeMillis();
+        }
+    }
+}
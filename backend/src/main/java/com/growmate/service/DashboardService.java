@@ -0,0 +1,79 @@
+package com.growmate.service;
+
+import com.growmate.dto.DashboardHabitResponse;
+import com.growmate.dto.DashboardResponse;
+import com.growmate.dto.HabitLogResponse;
+import com.growmate.dto.HabitResponse;
+import com.growmate.model.Habit;
+import com.growmate.repository.HabitLogRepository;
+import com.growmate.repository.HabitRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class DashboardService {
+
+    private static final int LONG_WINDOW_DAYS = 30;
+    private static final int SHORT_WINDOW_DAYS = 7;
+
+    private final HabitRepository habitRepository;
+    private final HabitLogRepository habitLogRepository;
+
+    // Two queries regardless of history length: the habits and the last 30 days of completions
+    @Transactional(readOnly = true)
+    public DashboardResponse getDashboard(Long userId, LocalDate today) {
+        List<HabitResponse> habits = habitRepository.findResponsesByUserId(userId);
+
+        LocalDate windowStart = today.minusDays(LONG_WINDOW_DAYS - 1);
+        Map<Long, Set<LocalDate>> completedByHabit = new HashMap<>();
+        for (HabitLogResponse log : habitLogRepository.findCompletedResponsesByUserIdAndDateBetween(userId,
+                windowStart, today)) {
+            completedByHabit.computeIfAbsent(log.getHabitId(), id -> new HashSet<>()).add(log.getDate());
+        }
+
+        List<DashboardHabitResponse> result = new ArrayList<>(habits.size());
+        for (HabitResponse habit : habits) {
+            Set<LocalDate> completed = completedByHabit.getOrDefault(habit.getId(), Set.of());
+            LocalDate weekStart = Habit.Frequency.WEEKLY.bucketStart(today);
+            int weekToDate = (int) completed.stream().filter(date -> !date.isBefore(weekStart)).count();
+
+            result.add(new DashboardHabitResponse(habit,
+                    completed.contains(today),
+                    completionRate(habit, completed, today, SHORT_WINDOW_DAYS),
+                    completionRate(habit, completed, today, LONG_WINDOW_DAYS),
+                    weekToDate));
+        }
+        return new DashboardResponse(today, result);
+    }
+
+    // Buckets (days, or ISO weeks for WEEKLY habits) are only counted from the habit's creation
+    private static double completionRate(HabitResponse habit, Set<LocalDate> completed, LocalDate today, int days) {
+        LocalDate start = today.minusDays(days - 1);
+        if (habit.getCreatedAt() != null && habit.getCreatedAt().toLocalDate().isAfter(start)) {
+            start = habit.getCreatedAt().toLocalDate();
+        }
+        if (start.isAfter(today)) {
+            return 0;
+        }
+
+        Habit.Frequency frequency = habit.getFrequency();
+        long possible = frequency.bucketsBetween(start, today) + 1;
+        Set<LocalDate> completedBuckets = new HashSet<>();
+        for (LocalDate date : completed) {
+            if (!date.isBefore(start) && !date.isAfter(today)) {
+                completedBuckets.add(frequency.bucketStart(date));
+            }
+        }
+        return (double) completedBuckets.size() / possible;
+    }
+}
@@ -0,0 +1,440 @@
+package com.growmate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.growmate.dto.ChangeEvent;
+import com.growmate.dto.HabitLogRequest;
+import com.growmate.dto.HabitLogResponse;
+import com.growmate.dto.HabitRequest;
+import com.growmate.dto.HabitResponse;
+import com.growmate.dto.TransferProgress;
+import com.growmate.dto.TransferRecord;
+import com.growmate.model.Habit;
+import com.growmate.model.HabitCalendar;
+import com.growmate.repository.HabitLogRepository;
+import com.growmate.repository.HabitRepository;
+import com.growmate.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Moves a user's habits and logs in and out as NDJSON or CSV without holding the data in
+// memory. Export reads logs off a streaming cursor; import parses record by record and
+// commits every chunk-size records in their own transaction, reporting as it goes.
+@Service
+public class DataTransferService {
+    private static final Logger logger = LoggerFactory.getLogger(DataTransferService.class);
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private static final String[] CSV_COLUMNS = {
+            "type", "habit", "title", "description", "frequency", "color", "createdAt", "date", "completed"};
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+    private static final LocalDate MIN_DATE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+    // Past this only the count grows, so a file of garbage cannot flood the response
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final HabitRepository habitRepository;
+    private final HabitLogRepository habitLogRepository;
+    private final UserRepository userRepository;
+    private final HabitArchiveService habitArchiveService;
+    private final HabitLogWriteService habitLogWriteService;
+    private final ChangeEventService changeEventService;
+    private final HabitSearchService habitSearchService;
+    private final Optional<ToggleWriteBehindService> toggleWriteBehind;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+
+    public DataTransferService(HabitRepository habitRepository, HabitLogRepository habitLogRepository,
+            UserRepository userRepository, HabitArchiveService habitArchiveService,
+            HabitLogWriteService habitLogWriteService, ChangeEventService changeEventService,
+            HabitSearchService habitSearchService, Optional<ToggleWriteBehindService> toggleWriteBehind,
+            ObjectMapper objectMapper, Validator validator, PlatformTransactionManager transactionManager,
+            @Value("${app.transfer.import-chunk-size:2000}") int chunkSize) {
+        this.habitRepository = habitRepository;
+        this.habitLogRepository = habitLogRepository;
+        this.userRepository = userRepository;
+        this.habitArchiveService = habitArchiveService;
+        this.habitLogWriteService = habitLogWriteService;
+        this.changeEventService = changeEventService;
+        this.habitSearchService = habitSearchService;
+        this.toggleWriteBehind = toggleWriteBehind;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    // Habits first, each under its id as ref, then every log of both tiers
+    @Transactional(readOnly = true)
+    public void export(Long userId, Format format, OutputStream outputStream) throws IOException {
+        OutputStream out = new BufferedOutputStream(outputStream);
+        RecordWriter writer = format == Format.CSV ? csvWriter(out) : ndjsonWriter(out);
+        for (HabitResponse habit : habitRepository.findResponsesByUserId(userId)) {
+            writer.write(new TransferRecord(TransferRecord.HABIT, habit.getId().toString(), habit.getTitle(),
+                    habit.getDescription(), habit.getFrequency(), habit.getColor(), habit.getCreatedAt(), null, null));
+        }
+        // Before the cursor opens: the connection takes no other query while it streams
+        List<HabitCalendar> archived = habitArchiveService.archivedCalendars(userId, MIN_DATE, MAX_DATE);
+        try (Stream<HabitLogResponse> habitLogs = habitLogRepository.streamByUserId(userId, MIN_DATE, MAX_DATE)) {
+            Iterator<HabitLogResponse> iterator = habitArchiveService.mergeStream(habitLogs.iterator(), archived,
+                    MIN_DATE, MAX_DATE);
+            while (iterator.hasNext()) {
+                HabitLogResponse habitLog = iterator.next();
+                writer.write(new TransferRecord(TransferRecord.LOG, habitLog.getHabitId().toString(), null, null,
+                        null, null, null, habitLog.getDate(), habitLog.getCompleted()));
+            }
+        }
+        writer.flush();
+    }
+
+    // Not atomic: chunks committed before a failure stay, and the final report says how far
+    // it got. Rerunning is safe, since logs are upserts and habits are matched by title.
+    public void importData(Long userId, Format format, InputStream inputStream, OutputStream outputStream)
+            throws IOException {
+        // Pending toggles land first so imported days win over them
+        toggleWriteBehind.ifPresent(writeBehind -> writeBehind.flushUser(userId));
+
+        ImportRun run = new ImportRun(userId, new BufferedOutputStream(outputStream));
+        try {
+            try {
+                if (format == Format.CSV) {
+                    readCsv(inputStream, run);
+                } else {
+                    readNdjson(inputStream, run);
+                }
+                run.commitChunk();
+            } catch (RuntimeException | JsonProcessingException e) {
+                // Malformed CSV quoting cannot be skipped past, and a chunk that fails to commit ends the run
+                logger.warn("Import for user {} stopped at line {}", userId, run.chunkStartLine, e);
+                run.fail(e instanceof DataAccessException ? "chunk could not be saved" : e.getMessage());
+            }
+        } finally {
+            // Also when the upload or the progress writes break off: committed chunks still
+            // need their derived state, or ETag clients keep revalidating stale data
+            run.settle();
+        }
+        run.finish();
+    }
+
+    private void readNdjson(InputStream inputStream, ImportRun run) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        long line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                run.accept(line, objectMapper.readValue(text, TransferRecord.class));
+            } catch (JsonProcessingException e) {
+                run.reject(line, e.getOriginalMessage());
+            }
+        }
+    }
+
+    // Columns are matched by the header row, in any order; unknown ones are ignored
+    private void readCsv(InputStream inputStream, ImportRun run) throws IOException {
+        try (MappingIterator<String[]> rows = CSV_MAPPER.readerFor(String[].class)
+                .with(CsvParser.Feature.WRAP_AS_ARRAY)
+                .readValues(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            if (!rows.hasNextValue()) {
+                return;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            String[] header = rows.nextValue();
+            for (int i = 0; i < header.length; i++) {
+                columns.put(header[i].trim(), i);
+            }
+            long line = 1;
+            while (rows.hasNextValue()) {
+                String[] row = rows.nextValue();
+                line++;
+                try {
+                    run.accept(line, fromCsv(columns, row));
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    run.reject(line, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static TransferRecord fromCsv(Map<String, Integer> columns, String[] row) {
+        String frequency = csvValue(columns, row, "frequency");
+        String createdAt = csvValue(columns, row, "createdAt");
+        String date = csvValue(columns, row, "date");
+        String completed = csvValue(columns, row, "completed");
+        if (completed != null && !completed.equalsIgnoreCase("true") && !completed.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("completed must be true or false");
+        }
+        return new TransferRecord(csvValue(columns, row, "type"), csvValue(columns, row, "habit"),
+                csvValue(columns, row, "title"), csvValue(columns, row, "description"),
+                frequency != null ? Habit.Frequency.valueOf(frequency.toUpperCase()) : null,
+                csvValue(columns, row, "color"),
+                createdAt != null ? LocalDateTime.parse(createdAt) : null,
+                date != null ? LocalDate.parse(date) : null,
+                completed != null ? Boolean.valueOf(completed) : null);
+    }
+
+    private static String csvValue(Map<String, Integer> columns, String[] row, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= row.length || row[index].isEmpty()) {
+            return null;
+        }
+        return row[index];
+    }
+
+    private interface RecordWriter {
+        void write(TransferRecord record) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private RecordWriter ndjsonWriter(OutputStream out) {
+        return new RecordWriter() {
+            @Override
+            public void write(TransferRecord record) throws IOException {
+                out.write(objectMapper.writeValueAsBytes(record));
+                out.write('\n');
+            }
+
+            @Override
+            public void flush() throws IOException {
+                out.flush();
+            }
+        };
+    }
+
+    private static RecordWriter csvWriter(OutputStream out) throws IOException {
+        SequenceWriter rows = CSV_MAPPER.writer().writeValues(out);
+        rows.write(CSV_COLUMNS);
+        return new RecordWriter() {
+            @Override
+            public void write(TransferRecord record) throws IOException {
+                rows.write(new String[] {record.getType(), record.getHabit(), record.getTitle(),
+                        record.getDescription(), text(record.getFrequency()), record.getColor(),
+                        text(record.getCreatedAt()), text(record.getDate()), text(record.getCompleted())});
+            }
+
+            @Override
+            public void flush() throws IOException {
+                rows.flush();
+                out.flush();
+            }
+        };
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private record PendingHabit(String ref, HabitRequest request) {
+    }
+
+    // State of one import; refs map the file's habit keys to habit ids
+    private final class ImportRun {
+        private final Long userId;
+        private final OutputStream out;
+        private final Map<String, Long> existingByTitle;
+        private final Map<String, Long> refs = new HashMap<>();
+        private final Set<String> pendingRefs = new HashSet<>();
+        private final List<PendingHabit> pendingHabits = new ArrayList<>();
+        private final Map<String, List<HabitLogRequest>> pendingLogs = new HashMap<>();
+        private final Set<Long> touchedHabitIds = new HashSet<>();
+        private int pendingCount;
+        private long lines;
+        private long habits;
+        private long logs;
+        private long errors;
+        private long chunkStartLine = 1;
+        private boolean failed;
+
+        private ImportRun(Long userId, OutputStream out) {
+            this.userId = userId;
+            this.out = out;
+            this.existingByTitle = habitRepository.findResponsesByUserId(userId).stream()
+                    .collect(Collectors.toMap(HabitResponse::getTitle, HabitResponse::getId, (a, b) -> a));
+        }
+
+        private void accept(long line, TransferRecord record) throws IOException {
+            lines = line;
+            if (TransferRecord.HABIT.equals(record.getType())) {
+                acceptHabit(line, record);
+            } else if (TransferRecord.LOG.equals(record.getType())) {
+                acceptLog(line, record);
+            } else {
+                reject(line, "type must be habit or log");
+            }
+            if (pendingCount >= chunkSize) {
+                commitChunk();
+                chunkStartLine = line + 1;
+            }
+        }
+
+        private void acceptHabit(long line, TransferRecord record) throws IOException {
+            String ref = record.getHabit();
+            if (ref == null) {
+                reject(line, "habit is required");
+                return;
+            }
+            if (refs.containsKey(ref) || pendingRefs.contains(ref)) {
+                reject(line, "habit " + ref + " is defined twice");
+                return;
+            }
+            HabitRequest request = new HabitRequest();
+            request.setTitle(record.getTitle());
+            request.setDescription(record.getDescription());
+            if (record.getFrequency() != null) {
+                request.setFrequency(record.getFrequency());
+            }
+            if (record.getColor() != null) {
+                request.setColor(record.getColor());
+            }
+            Set<ConstraintViolation<HabitRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(line, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+
+            Long existingId = existingByTitle.get(request.getTitle());
+            if (existingId != null) {
+                refs.put(ref, existingId);
+                return;
+            }
+            pendingHabits.add(new PendingHabit(ref, request));
+            pendingRefs.add(ref);
+            pendingCount++;
+        }
+
+        private void acceptLog(long line, TransferRecord record) throws IOException {
+            String ref = record.getHabit();
+            if (ref == null || !(refs.containsKey(ref) || pendingRefs.contains(ref))) {
+                reject(line, "habit " + ref + " is not defined by an earlier habit line");
+                return;
+            }
+            if (record.getDate() == null) {
+                reject(line, "date is required");
+                return;
+            }
+            // Trackers that only list done days can leave completed out
+            HabitLogRequest operation = new HabitLogRequest();
+            operation.setDate(record.getDate());
+            operation.setCompleted(record.getCompleted() != null ? record.getCompleted() : Boolean.TRUE);
+            pendingLogs.computeIfAbsent(ref, key -> new ArrayList<>()).add(operation);
+            pendingCount++;
+        }
+
+        private void reject(long line, String message) throws IOException {
+            lines = line;
+            errors++;
+            if (errors <= MAX_REPORTED_ERRORS) {
+                report(TransferProgress.error(line, message));
+            }
+        }
+
+        private void commitChunk() throws IOException {
+            if (pendingCount == 0) {
+                return;
+            }
+            // Refs of new habits only become visible once their chunk has committed
+            Map<String, Long> created = new HashMap<>();
+            List<HabitLogRequest> operations = new ArrayList<>(pendingCount);
+            chunkTransaction.executeWithoutResult(status -> {
+                for (PendingHabit pending : pendingHabits) {
+                    HabitRequest request = pending.request();
+                    Habit habit = new Habit();
+                    habit.setUser(userRepository.getReferenceById(userId));
+                    habit.setTitle(request.getTitle());
+                    habit.setDescription(request.getDescription());
+                    habit.setFrequency(request.getFrequency());
+                    habit.setColor(request.getColor());
+                    created.put(pending.ref(), habitRepository.save(habit).getId());
+                }
+                pendingLogs.forEach((ref, days) -> {
+                    Long habitId = created.containsKey(ref) ? created.get(ref) : refs.get(ref);
+                    days.forEach(operation -> operation.setHabitId(habitId));
+                    operations.addAll(days);
+                });
+                habitLogWriteService.importCompletions(userId, operations);
+            });
+
+            refs.putAll(created);
+            touchedHabitIds.addAll(created.values());
+            operations.forEach(operation -> touchedHabitIds.add(operation.getHabitId()));
+            habits += pendingHabits.size();
+            logs += operations.size();
+            pendingHabits.clear();
+            pendingRefs.clear();
+            pendingLogs.clear();
+            pendingCount = 0;
+            report(TransferProgress.progress("progress", lines, habits, logs, errors));
+            out.flush();
+        }
+
+        private void fail(String message) throws IOException {
+            failed = true;
+            report(TransferProgress.failed(chunkStartLine, message, habits, logs, errors));
+        }
+
+        // Streaks, rollups and the data version cover everything that did commit
+        private void settle() {
+            if (!touchedHabitIds.isEmpty()) {
+                habitLogWriteService.rebuildDerivedState(userId, touchedHabitIds);
+                habitSearchService.invalidate(userId);
+                changeEventService.publish(userId, ChangeEvent.dataImported());
+            }
+        }
+
+        private void finish() throws IOException {
+            if (!failed) {
+                report(TransferProgress.progress("done", lines, habits, logs, errors));
+            }
+            out.flush();
+        }
+
+        private void report(TransferProgress progress) throws IOException {
+            out.write(objectMapper.writeValueAsBytes(progress));
+            out.write('\n');
+        }
+    }
+}
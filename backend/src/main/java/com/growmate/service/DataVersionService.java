@@ -0,0 +1,50 @@
+package com.growmate.service;
+
+import com.growmate.config.ReadYourWritesTracker;
+import com.growmate.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@RequiredArgsConstructor
+public class DataVersionService {
+
+    private final UserRepository userRepository;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    // Writes acknowledged before they reach MySQL, per user. Only ever counts up, so together
+    // with the stored version no pair repeats; the flush that stores them bumps the version.
+    private final Map<Long, AtomicLong> acknowledgedWrites = new ConcurrentHashMap<>();
+
+    @Transactional(readOnly = true)
+    public long getVersion(Long userId) {
+        return userRepository.findDataVersionById(userId).orElse(0L);
+    }
+
+    // Call from inside the write's transaction so the bump commits with it. Also keeps
+    // the user's reads on the primary for the read-your-writes window. Bump right after
+    // locking the habits and before inserting rows that reference the user: their foreign
+    // key checks take a shared lock on the user row, and upgrading it here afterwards
+    // deadlocks two concurrent writes by the same user.
+    @Transactional
+    public void bump(Long userId) {
+        userRepository.incrementDataVersion(userId);
+        readYourWritesTracker.recordWrite(userId);
+    }
+
+    // For a write-behind toggle: changes the user's ETag and keeps their reads on the primary
+    // from the moment the client is told, not from when the flush gets to it
+    public void acknowledge(Long userId) {
+        acknowledgedWrites.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+        readYourWritesTracker.recordWrite(userId);
+    }
+
+    public long getAcknowledgedWrites(Long userId) {
+        AtomicLong count = acknowledgedWrites.get(userId);
+        return count != null ? count.get() : 0;
+    }
+}
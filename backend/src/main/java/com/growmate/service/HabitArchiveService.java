@@ -0,0 +1,278 @@
+package com.growmate.service;
+
+import com.growmate.dto.HabitLogResponse;
+import com.growmate.model.HabitCalendar;
+import com.growmate.repository.HabitCalendarRepository;
+import com.growmate.repository.HabitLogRepository;
+import com.growmate.repository.HabitRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Moves whole years of habit_logs older than the horizon into their habit_calendars bitmap
+// and merges them back into reads. Archived days are served with negative synthetic ids so
+// (date DESC, id DESC) keyset cursors keep working across both tiers.
+@Service
+@RequiredArgsConstructor
+public class HabitArchiveService {
+    // Keeps the dashboard's and the per-habit history's last-year windows on the hot table
+    private static final int MIN_HORIZON_DAYS = 366;
+
+    private static final Comparator<HabitLogResponse> NEWEST_FIRST = Comparator
+            .comparing(HabitLogResponse::getDate)
+            .thenComparing(HabitLogResponse::getId)
+            .reversed();
+
+    private final HabitRepository habitRepository;
+    private final HabitLogRepository habitLogRepository;
+    private final HabitCalendarRepository habitCalendarRepository;
+    private final HabitCalendarService habitCalendarService;
+    private final PlatformTransactionManager transactionManager;
+    private static final Logger logger = LoggerFactory.getLogger(HabitArchiveService.class);
+
+    @Value("${app.archive.horizon-days:730}")
+    private int horizonDays;
+
+    // One short transaction per (habit, year), taking the same habit lock as writes
+    @Scheduled(cron = "${app.archive.cron:0 0 4 * * *}")
+    public void archiveOldLogs() {
+        int lastYear = LocalDate.now().minusDays(Math.max(horizonDays, MIN_HORIZON_DAYS)).getYear() - 1;
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int archived = 0;
+        for (Long habitId : habitRepository.findAllIds()) {
+            LocalDate oldest = habitLogRepository.findOldestDateByHabitId(habitId);
+            if (oldest == null) {
+                continue;
+            }
+            for (int year = oldest.getYear(); year <= lastYear; year++) {
+                int archivedYear = year;
+                transaction.executeWithoutResult(status -> habitRepository.findWithLockById(habitId)
+                        .ifPresent(habit -> habitCalendarService.archive(habit, archivedYear)));
+                archived++;
+            }
+        }
+        if (archived > 0) {
+            logger.info("Archived {} habit-years of logs up to {}", archived, lastYear);
+        }
+    }
+
+    // Brings back any archived year a write to these dates could touch, including both
+    // years of an ISO week that straddles New Year. Only dates before the current year
+    // can be archived, so recent writes skip this entirely.
+    @Transactional
+    public void restoreIfArchived(Long habitId, Long userId, Collection<LocalDate> dates) {
+        int currentYear = LocalDate.now().getYear();
+        Set<Integer> years = new TreeSet<>();
+        for (LocalDate date : dates) {
+            for (LocalDate day : List.of(date.with(DayOfWeek.MONDAY), date.with(DayOfWeek.SUNDAY))) {
+                if (day.getYear() < currentYear) {
+                    years.add(day.getYear());
+                }
+            }
+        }
+        if (years.isEmpty()) {
+            return;
+        }
+
+        // Serializes with the archival job, which holds this lock while it moves a year
+        if (habitRepository.findWithLockById(habitId).isEmpty()) {
+            return;
+        }
+        for (HabitCalendar calendar : habitCalendarRepository.findArchivedByHabitIdAndUserIdAndYearIn(habitId,
+                userId, years)) {
+            habitCalendarService.restore(calendar, userId);
+        }
+    }
+
+    // Completed dates of a habit across both tiers, ascending
+    public List<LocalDate> completedDates(Long habitId) {
+        List<LocalDate> hot = habitLogRepository.findCompletedDatesByHabitId(habitId);
+        List<HabitCalendar> archived = habitCalendarRepository.findByHabitIdAndArchivedTrueOrderByYearAsc(habitId);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<LocalDate> dates = new ArrayList<>(hot);
+        for (HabitCalendar calendar : archived) {
+            dates.addAll(HabitCalendarService.completedDates(calendar));
+        }
+        dates.sort(null);
+        return dates;
+    }
+
+    // The same for several habits, with one read of each tier
+    public Map<Long, List<LocalDate>> completedDates(Collection<Long> habitIds) {
+        Map<Long, List<LocalDate>> dates = new HashMap<>();
+        for (HabitLogResponse row : habitLogRepository.findCompletedResponsesByHabitIdIn(habitIds)) {
+            dates.computeIfAbsent(row.getHabitId(), id -> new ArrayList<>()).add(row.getDate());
+        }
+        List<HabitCalendar> archived = habitCalendarRepository.findByHabitIdInAndArchivedTrue(habitIds);
+        if (archived.isEmpty()) {
+            return dates;
+        }
+        for (HabitCalendar calendar : archived) {
+            dates.computeIfAbsent(calendar.getHabit().getId(), id -> new ArrayList<>())
+                    .addAll(HabitCalendarService.completedDates(calendar));
+        }
+        dates.values().forEach(list -> list.sort(null));
+        return dates;
+    }
+
+    // Merges a hot keyset page with archived days after the same cursor. When the page is
+    // full and still newer than anything archivable, the archive is not read at all.
+    public List<HabitLogResponse> mergePage(Long userId, List<HabitLogResponse> hotPage, LocalDate startDate,
+            LocalDate endDate, LocalDate cursorDate, Long cursorId, int limit) {
+        if (hotPage.size() == limit && hotPage.get(limit - 1).getDate().getYear() > newestArchivableYear()) {
+            return hotPage;
+        }
+        LocalDate upper = cursorDate != null && cursorDate.isBefore(endDate) ? cursorDate : endDate;
+        Iterator<HabitLogResponse> archived = new ArchivedYearIterator(archivedCalendars(userId, startDate, upper),
+                startDate, upper);
+        if (!archived.hasNext()) {
+            return hotPage;
+        }
+
+        List<HabitLogResponse> page = new ArrayList<>(limit);
+        Iterator<HabitLogResponse> merged = merge(hotPage.iterator(), archived);
+        while (merged.hasNext() && page.size() < limit) {
+            HabitLogResponse entry = merged.next();
+            if (cursorDate == null || entry.getDate().isBefore(cursorDate)
+                    || (entry.getDate().isEqual(cursorDate) && entry.getId() < cursorId)) {
+                page.add(entry);
+            }
+        }
+        return page;
+    }
+
+    // Archived calendars a read of the range has to merge, newest year first. Streaming
+    // readers load these before opening their cursor: Connector/J refuses any other query on
+    // the connection while a streaming result set is open on it.
+    public List<HabitCalendar> archivedCalendars(Long userId, LocalDate startDate, LocalDate endDate) {
+        int toYear = Math.min(endDate.getYear(), newestArchivableYear());
+        if (startDate.getYear() > toYear) {
+            return List.of();
+        }
+        return habitCalendarRepository.findArchivedByUserIdAndYearBetween(userId, startDate.getYear(), toYear);
+    }
+
+    // For streams: hot rows in (date DESC, id DESC) order, archived years expanded one at a
+    // time. Runs no queries, so it is safe next to an open streaming cursor.
+    public Iterator<HabitLogResponse> mergeStream(Iterator<HabitLogResponse> hot, List<HabitCalendar> archived,
+            LocalDate startDate, LocalDate endDate) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        return merge(hot, new ArchivedYearIterator(archived, startDate, endDate));
+    }
+
+    // Only consulted when the hot table has no row for the day
+    public boolean isArchivedCompletion(Long habitId, LocalDate date) {
+        if (date.getYear() > newestArchivableYear()) {
+            return false;
+        }
+        return habitCalendarRepository.findByHabitIdAndYear(habitId, date.getYear())
+                .filter(calendar -> Boolean.TRUE.equals(calendar.getArchived()))
+                .map(calendar -> HabitCalendarService.isCompleted(calendar, date))
+                .orElse(false);
+    }
+
+    private int newestArchivableYear() {
+        return LocalDate.now().minusDays(MIN_HORIZON_DAYS).getYear() - 1;
+    }
+
+    // Negative so archived days sort after hot rows of the same date and never collide with real ids
+    static long syntheticId(HabitCalendar calendar, LocalDate date) {
+        return -(calendar.getId() * 366 + date.getDayOfYear() - 1) - 1;
+    }
+
+    private static Iterator<HabitLogResponse> merge(Iterator<HabitLogResponse> first,
+            Iterator<HabitLogResponse> second) {
+        return new Iterator<>() {
+            private HabitLogResponse nextFirst = first.hasNext() ? first.next() : null;
+            private HabitLogResponse nextSecond = second.hasNext() ? second.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextFirst != null || nextSecond != null;
+            }
+
+            @Override
+            public HabitLogResponse next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                HabitLogResponse result;
+                if (nextSecond == null || (nextFirst != null && NEWEST_FIRST.compare(nextFirst, nextSecond) <= 0)) {
+                    result = nextFirst;
+                    nextFirst = first.hasNext() ? first.next() : null;
+                } else {
+                    result = nextSecond;
+                    nextSecond = second.hasNext() ? second.next() : null;
+                }
+                return result;
+            }
+        };
+    }
+
+    // Calendars arrive newest year first; each year's days are expanded and sorted only when reached
+    private static final class ArchivedYearIterator implements Iterator<HabitLogResponse> {
+        private final List<HabitCalendar> calendars;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private int nextCalendar;
+        private Iterator<HabitLogResponse> currentYear = Collections.emptyIterator();
+
+        ArchivedYearIterator(List<HabitCalendar> calendars, LocalDate startDate, LocalDate endDate) {
+            this.calendars = calendars;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!currentYear.hasNext() && nextCalendar < calendars.size()) {
+                int year = calendars.get(nextCalendar).getYear();
+                List<HabitLogResponse> entries = new ArrayList<>();
+                while (nextCalendar < calendars.size() && calendars.get(nextCalendar).getYear() == year) {
+                    HabitCalendar calendar = calendars.get(nextCalendar++);
+                    for (LocalDate date : HabitCalendarService.completedDates(calendar)) {
+                        if (!date.isBefore(startDate) && !date.isAfter(endDate)) {
+                            entries.add(new HabitLogResponse(syntheticId(calendar, date),
+                                    calendar.getHabit().getId(), date, true));
+                        }
+                    }
+                }
+                entries.sort(NEWEST_FIRST);
+                currentYear = entries.iterator();
+            }
+            return currentYear.hasNext();
+        }
+
+        @Override
+        public HabitLogResponse next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return currentYear.next();
+        }
+    }
+}
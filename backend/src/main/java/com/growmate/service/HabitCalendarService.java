@@ -0,0 +1,213 @@
+package com.growmate.service;
+
+import com.growmate.dto.HabitLogRequest;
+import com.growmate.dto.HabitLogResponse;
+import com.growmate.model.Habit;
+import com.growmate.model.HabitCalendar;
+import com.growmate.model.HabitLog;
+import com.growmate.repository.HabitCalendarRepository;
+import com.growmate.repository.HabitLogRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class HabitCalendarService {
+
+    private final HabitCalendarRepository habitCalendarRepository;
+    private final HabitLogRepository habitLogRepository;
+    private final EntityManager entityManager;
+
+    // Years without a stored calendar are computed from the per-day rows and not saved, so
+    // reads never write; the next write to that year stores it
+    @Transactional(readOnly = true)
+    public HabitCalendar getCalendar(Habit habit, int year) {
+        return habitCalendarRepository.findByHabitIdAndYear(habit.getId(), year)
+                .orElseGet(() -> fromLogs(habit, year));
+    }
+
+    @Transactional
+    public void setCompleted(Habit habit, LocalDate date, boolean completed) {
+        setCompleted(habit, date.getYear(), Map.of(date, completed));
+    }
+
+    // Applies several days of one year with a single calendar read and write. The bitmap is
+    // read, changed and written back, so updates are serialized on the habit row; callers
+    // that already hold that lock pay nothing extra.
+    @Transactional
+    public void setCompleted(Habit habit, int year, Map<LocalDate, Boolean> days) {
+        entityManager.lock(habit, LockModeType.PESSIMISTIC_WRITE);
+        HabitCalendar calendar = habitCalendarRepository.findByHabitIdAndYear(habit.getId(), year)
+                .orElseGet(() -> fromLogs(habit, year));
+        apply(calendar, days);
+    }
+
+    // The same for several habits, whose locks the caller already holds: one read for all
+    // their calendars, one for the rows of years that have none yet, and the changes go out
+    // as one batch of updates at flush and one of inserts
+    @Transactional
+    public void setCompleted(Map<Long, Habit> habits, Map<Long, Map<Integer, Map<LocalDate, Boolean>>> daysByHabit) {
+        if (daysByHabit.isEmpty()) {
+            return;
+        }
+        Set<Integer> years = new HashSet<>();
+        daysByHabit.values().forEach(byYear -> years.addAll(byYear.keySet()));
+        Map<Long, Map<Integer, HabitCalendar>> stored = new HashMap<>();
+        for (HabitCalendar calendar : habitCalendarRepository.findByHabitIdInAndYearIn(daysByHabit.keySet(), years)) {
+            stored.computeIfAbsent(calendar.getHabit().getId(), id -> new HashMap<>())
+                    .put(calendar.getYear(), calendar);
+        }
+
+        Map<Long, Set<Integer>> missing = new HashMap<>();
+        daysByHabit.forEach((habitId, byYear) -> byYear.keySet().forEach(year -> {
+            if (!stored.getOrDefault(habitId, Map.of()).containsKey(year)) {
+                missing.computeIfAbsent(habitId, id -> new HashSet<>()).add(year);
+            }
+        }));
+        Map<Long, Map<Integer, byte[]>> bitmaps = bitmapsFromLogs(missing);
+
+        List<HabitCalendar> inserts = new ArrayList<>();
+        daysByHabit.forEach((habitId, byYear) -> byYear.forEach((year, days) -> {
+            HabitCalendar calendar = stored.getOrDefault(habitId, Map.of()).get(year);
+            if (calendar != null) {
+                apply(calendar, days);
+                return;
+            }
+            byte[] bits = bitmaps.getOrDefault(habitId, Map.of())
+                    .getOrDefault(year, new byte[HabitCalendar.BITMAP_BYTES]);
+            days.forEach((date, completed) -> setBit(bits, date.getDayOfYear() - 1, completed));
+            HabitCalendar created = new HabitCalendar();
+            created.setHabit(habits.get(habitId));
+            created.setYear(year);
+            created.setDays(bits);
+            inserts.add(created);
+        }));
+        if (!inserts.isEmpty()) {
+            habitCalendarRepository.insertAll(inserts);
+        }
+    }
+
+    private void apply(HabitCalendar calendar, Map<LocalDate, Boolean> days) {
+        byte[] bits = calendar.getDays().clone();
+        days.forEach((date, completed) -> setBit(bits, date.getDayOfYear() - 1, completed));
+        // Assign a fresh array so the change is picked up by dirty checking
+        calendar.setDays(bits);
+        habitCalendarRepository.save(calendar);
+    }
+
+    // Folds the year's rows into its bitmap and deletes them; the caller holds the habit lock
+    @Transactional
+    public void archive(Habit habit, int year) {
+        HabitCalendar calendar = habitCalendarRepository.findByHabitIdAndYear(habit.getId(), year)
+                .orElseGet(() -> {
+                    HabitCalendar created = new HabitCalendar();
+                    created.setHabit(habit);
+                    created.setYear(year);
+                    return created;
+                });
+        if (Boolean.TRUE.equals(calendar.getArchived())) {
+            return;
+        }
+        // Rebuilt from the rows rather than trusted, since they are about to become the only copy
+        calendar.setDays(bitmapFromLogs(habit, year));
+        calendar.setArchived(true);
+        habitCalendarRepository.save(calendar);
+        habitLogRepository.deleteByHabitIdAndDateBetween(habit.getId(), LocalDate.ofYearDay(year, 1),
+                LocalDate.of(year, 12, 31));
+    }
+
+    // Writes an archived year back to habit_logs so the regular write paths apply to it again
+    @Transactional
+    public void restore(HabitCalendar calendar, Long userId) {
+        List<HabitLogRequest> rows = new ArrayList<>();
+        for (LocalDate date : completedDates(calendar)) {
+            HabitLogRequest row = new HabitLogRequest();
+            row.setHabitId(calendar.getHabit().getId());
+            row.setDate(date);
+            row.setCompleted(true);
+            rows.add(row);
+        }
+        if (!rows.isEmpty()) {
+            habitLogRepository.setCompletions(userId, rows);
+        }
+        calendar.setArchived(false);
+        habitCalendarRepository.save(calendar);
+    }
+
+    public static List<LocalDate> completedDates(HabitCalendar calendar) {
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate first = LocalDate.ofYearDay(calendar.getYear(), 1);
+        int daysInYear = first.lengthOfYear();
+        for (int index = 0; index < daysInYear; index++) {
+            if ((calendar.getDays()[index >> 3] & (1 << (index & 7))) != 0) {
+                dates.add(first.plusDays(index));
+            }
+        }
+        return dates;
+    }
+
+    public static boolean isCompleted(HabitCalendar calendar, LocalDate date) {
+        int index = date.getDayOfYear() - 1;
+        return (calendar.getDays()[index >> 3] & (1 << (index & 7))) != 0;
+    }
+
+    // Years that predate the calendar table, or have no writes yet
+    private HabitCalendar fromLogs(Habit habit, int year) {
+        HabitCalendar calendar = new HabitCalendar();
+        calendar.setHabit(habit);
+        calendar.setYear(year);
+        calendar.setDays(bitmapFromLogs(habit, year));
+        return calendar;
+    }
+
+    private byte[] bitmapFromLogs(Habit habit, int year) {
+        byte[] days = new byte[HabitCalendar.BITMAP_BYTES];
+        for (HabitLog log : habitLogRepository.findByHabitIdAndDateBetweenOrderByDateDesc(habit.getId(),
+                LocalDate.ofYearDay(year, 1), LocalDate.of(year, 12, 31))) {
+            if (Boolean.TRUE.equals(log.getCompleted())) {
+                setBit(days, log.getDate().getDayOfYear() - 1, true);
+            }
+        }
+        return days;
+    }
+
+    // Bitmaps of the given habits and years from their rows, in one read
+    private Map<Long, Map<Integer, byte[]>> bitmapsFromLogs(Map<Long, Set<Integer>> yearsByHabit) {
+        Map<Long, Map<Integer, byte[]>> bitmaps = new HashMap<>();
+        if (yearsByHabit.isEmpty()) {
+            return bitmaps;
+        }
+        IntSummaryStatistics years = yearsByHabit.values().stream().flatMap(Set::stream)
+                .mapToInt(Integer::intValue).summaryStatistics();
+        for (HabitLogResponse log : habitLogRepository.findCompletedResponsesByHabitIdInAndDateBetween(
+                yearsByHabit.keySet(), LocalDate.ofYearDay(years.getMin(), 1), LocalDate.of(years.getMax(), 12, 31))) {
+            int year = log.getDate().getYear();
+            if (yearsByHabit.get(log.getHabitId()).contains(year)) {
+                setBit(bitmaps.computeIfAbsent(log.getHabitId(), id -> new HashMap<>())
+                        .computeIfAbsent(year, y -> new byte[HabitCalendar.BITMAP_BYTES]),
+                        log.getDate().getDayOfYear() - 1, true);
+            }
+        }
+        return bitmaps;
+    }
+
+    private static void setBit(byte[] days, int index, boolean value) {
+        if (value) {
+            days[index >> 3] |= (byte) (1 << (index & 7));
+        } else {
+            days[index >> 3] &= (byte) ~(1 << (index & 7));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.growmate.service;
+
+import com.growmate.dto.HabitLogRequest;
+import com.growmate.dto.HabitLogResponse;
+import com.growmate.exception.ResourceNotFoundException;
+import com.growmate.model.Habit;
+import com.growmate.repository.HabitLogRepository;
+import com.growmate.repository.HabitRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// Applies explicit (habit, date, completed) states for one user along with all derived
+// state. Shared by the bulk endpoint, the toggle write-behind flush and imports.
+@Service
+@RequiredArgsConstructor
+public class HabitLogWriteService {
+
+    private final HabitLogRepository habitLogRepository;
+    private final HabitRepository habitRepository;
+    private final StreakService streakService;
+    private final HabitCalendarService habitCalendarService;
+    private final HabitArchiveService habitArchiveService;
+    private final RollupService rollupService;
+    private final DataVersionService dataVersionService;
+
+    // Callers must have checked that every habit belongs to the user and that date and
+    // completed are set
+    @Transactional
+    public void setCompletions(Long userId, List<HabitLogRequest> operations) {
+        if (operations.isEmpty()) {
+            return;
+        }
+        write(userId, operations, lockAll(operations));
+    }
+
+    // For writes accepted before this transaction, like the toggle write-behind: operations
+    // on habits deleted since are skipped instead of failing the batch. Returns the ids of
+    // the skipped habits.
+    @Transactional
+    public Set<Long> setExistingCompletions(Long userId, List<HabitLogRequest> operations) {
+        Map<Long, Habit> habits = lockExisting(operations);
+        Set<Long> deleted = new TreeSet<>();
+        List<HabitLogRequest> remaining = new ArrayList<>(operations.size());
+        for (HabitLogRequest operation : operations) {
+            if (habits.containsKey(operation.getHabitId())) {
+                remaining.add(operation);
+            } else {
+                deleted.add(operation.getHabitId());
+            }
+        }
+        if (!remaining.isEmpty()) {
+            write(userId, remaining, habits);
+        }
+        return deleted;
+    }
+
+    // One import chunk: rows and calendars only. Streaks and rollups depend on the whole
+    // history, so they are rebuilt once per habit by rebuildDerivedState after the last chunk.
+    @Transactional
+    public void importCompletions(Long userId, List<HabitLogRequest> operations) {
+        if (operations.isEmpty()) {
+            return;
+        }
+        Map<Long, Habit> habits = lockAll(operations);
+        restoreArchived(userId, operations);
+        habitLogRepository.setCompletions(userId, operations);
+        habitCalendarService.setCompleted(habits, changesByHabit(operations));
+    }
+
+    @Transactional
+    public void rebuildDerivedState(Long userId, Collection<Long> habitIds) {
+        for (Long habitId : new TreeSet<>(habitIds)) {
+            streakService.recompute(lock(habitId));
+            rollupService.rebuildHabit(habitId);
+        }
+        dataVersionService.bump(userId);
+    }
+
+    // Streaks and rollups are updated from the days whose state actually changes, like a
+    // toggle does, so a flush or bulk write costs what it touches rather than the history.
+    // Calendars, streaks and rollups of all habits are read and written together; only
+    // archive restores and the week check of a single weekly day cost statements per habit.
+    private void write(Long userId, List<HabitLogRequest> operations, Map<Long, Habit> habits) {
+        dataVersionService.bump(userId);
+        restoreArchived(userId, operations);
+        Map<Long, Map<LocalDate, Boolean>> previous = currentStates(operations);
+        habitLogRepository.setCompletions(userId, operations);
+        Map<Long, Map<Integer, Map<LocalDate, Boolean>>> changesByHabit = changesByHabit(operations);
+        habitCalendarService.setCompleted(habits, changesByHabit);
+
+        Map<Long, NavigableMap<LocalDate, Boolean>> changedByHabit = new TreeMap<>();
+        changesByHabit.forEach((habitId, changesByYear) -> {
+            Map<LocalDate, Boolean> before = previous.getOrDefault(habitId, Map.of());
+            NavigableMap<LocalDate, Boolean> changed = new TreeMap<>();
+            changesByYear.forEach((year, days) -> days.forEach((date, completed) -> {
+                if (!completed.equals(before.getOrDefault(date, false))) {
+                    changed.put(date, completed);
+                }
+            }));
+            changedByHabit.put(habitId, changed);
+        });
+        streakService.applyChanges(habits, changedByHabit);
+        rollupService.recordChanges(userId, changedByHabit);
+    }
+
+    // Archived days are restored first so they count as the stored state
+    private void restoreArchived(Long userId, List<HabitLogRequest> operations) {
+        Map<Long, List<LocalDate>> datesByHabit = new TreeMap<>();
+        for (HabitLogRequest operation : operations) {
+            datesByHabit.computeIfAbsent(operation.getHabitId(), id -> new ArrayList<>()).add(operation.getDate());
+        }
+        datesByHabit.forEach((habitId, dates) -> habitArchiveService.restoreIfArchived(habitId, userId, dates));
+    }
+
+    // Stored completion per habit and day; days without a row are absent
+    private Map<Long, Map<LocalDate, Boolean>> currentStates(List<HabitLogRequest> operations) {
+        Set<Long> habitIds = new HashSet<>();
+        Set<LocalDate> dates = new HashSet<>();
+        for (HabitLogRequest operation : operations) {
+            habitIds.add(operation.getHabitId());
+            dates.add(operation.getDate());
+        }
+        Map<Long, Map<LocalDate, Boolean>> states = new HashMap<>();
+        for (HabitLogResponse row : habitLogRepository.findResponsesByHabitIdInAndDateIn(habitIds, dates)) {
+            states.computeIfAbsent(row.getHabitId(), id -> new HashMap<>()).put(row.getDate(), row.getCompleted());
+        }
+        return states;
+    }
+
+    // Habits in id order to avoid deadlocks; later operations on the same day win,
+    // matching the batch order
+    private static Map<Long, Map<Integer, Map<LocalDate, Boolean>>> changesByHabit(
+            List<HabitLogRequest> operations) {
+        Map<Long, Map<Integer, Map<LocalDate, Boolean>>> changesByHabit = new TreeMap<>();
+        for (HabitLogRequest operation : operations) {
+            changesByHabit.computeIfAbsent(operation.getHabitId(), id -> new HashMap<>())
+                    .computeIfAbsent(operation.getDate().getYear(), year -> new HashMap<>())
+                    .put(operation.getDate(), operation.getCompleted());
+        }
+        return changesByHabit;
+    }
+
+    // Locks every habit of the batch, in id order, before any habit_logs row is written.
+    // The inserts' foreign key check takes a shared lock on the habit, and upgrading that to
+    // the exclusive lock afterwards deadlocks against a concurrent writer of the same habit.
+    private Map<Long, Habit> lockAll(List<HabitLogRequest> operations) {
+        Map<Long, Habit> habits = lockExisting(operations);
+        for (HabitLogRequest operation : operations) {
+            if (!habits.containsKey(operation.getHabitId())) {
+                throw new ResourceNotFoundException("Habit not found");
+            }
+        }
+        return habits;
+    }
+
+    // Like lockAll, leaving out habits that no longer exist
+    private Map<Long, Habit> lockExisting(List<HabitLogRequest> operations) {
+        Set<Long> habitIds = new HashSet<>();
+        for (HabitLogRequest operation : operations) {
+            habitIds.add(operation.getHabitId());
+        }
+        Map<Long, Habit> habits = new HashMap<>();
+        for (Habit habit : habitRepository.findAllWithLockByIdIn(habitIds)) {
+            habits.put(habit.getId(), habit);
+        }
+        return habits;
+    }
+
+    // Serializes derived-state maintenance per habit
+    private Habit lock(Long habitId) {
+        return habitRepository.findWithLockById(habitId)
+                .orElseThrow(() -> new ResourceNotFoundException("Habit not found"));
+    }
+}
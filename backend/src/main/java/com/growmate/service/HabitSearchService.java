@@ -0,0 +1,325 @@
+package com.growmate.service;
+
+import com.growmate.dto.HabitSearchResult;
+import com.growmate.model.Habit;
+import com.growmate.repository.HabitRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+// Typeahead over habit titles and descriptions. Each user's habits get a sorted token index,
+// built on first search and kept in an LRU under a byte budget. Every query token must match
+// a token of the habit exactly, as a prefix, or within a small edit distance of a prefix;
+// title hits outrank description hits. Writes on this node are applied after commit; writes
+// on other nodes show up once the index outlives its TTL.
+@Service
+public class HabitSearchService {
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final int MAX_QUERY_TOKENS = 8;
+    private static final int TITLE_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int FUZZY = 1;
+    private static final int LOCK_STRIPES = 64;
+
+    private final HabitRepository habitRepository;
+    private final long maxIndexBytes;
+    private final long ttlMs;
+
+    // Access-ordered for LRU eviction; guarded by itself, as is totalBytes
+    private final LinkedHashMap<Long, UserIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong totalBytes = new AtomicLong();
+    // A build and the after-commit updates of the same user take the same stripe, so an
+    // update is either seen by the build's read or applied to the index it caches
+    private final Object[] userLocks = new Object[LOCK_STRIPES];
+
+    public HabitSearchService(HabitRepository habitRepository, MeterRegistry meterRegistry,
+            @Value("${app.search.max-index-bytes:67108864}") long maxIndexBytes,
+            @Value("${app.search.ttl-ms:300000}") long ttlMs) {
+        this.habitRepository = habitRepository;
+        this.maxIndexBytes = maxIndexBytes;
+        this.ttlMs = ttlMs;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            userLocks[i] = new Object();
+        }
+        meterRegistry.gauge("growmate.search.index.bytes", Tags.empty(), totalBytes);
+    }
+
+    public List<HabitSearchResult> search(Long userId, String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        return index(userId).search(tokens.subList(0, Math.min(tokens.size(), MAX_QUERY_TOKENS)), limit);
+    }
+
+    public void habitSaved(Long userId, Habit habit) {
+        HabitSearchResult result = new HabitSearchResult(habit.getId(), habit.getTitle(), habit.getDescription(),
+                habit.getFrequency(), habit.getColor());
+        afterCommit(() -> update(userId, index -> index.put(result)));
+    }
+
+    public void habitDeleted(Long userId, Long habitId) {
+        afterCommit(() -> update(userId, index -> index.remove(habitId)));
+    }
+
+    // For bulk changes such as imports; the next search rebuilds
+    public void invalidate(Long userId) {
+        synchronized (lock(userId)) {
+            synchronized (indexes) {
+                UserIndex removed = indexes.remove(userId);
+                if (removed != null) {
+                    totalBytes.addAndGet(-removed.bytes());
+                }
+            }
+        }
+    }
+
+    private UserIndex index(Long userId) {
+        UserIndex index;
+        synchronized (indexes) {
+            index = indexes.get(userId);
+        }
+        if (index != null && System.currentTimeMillis() - index.builtAt < ttlMs) {
+            return index;
+        }
+
+        synchronized (lock(userId)) {
+            synchronized (indexes) {
+                index = indexes.get(userId);
+            }
+            if (index != null && System.currentTimeMillis() - index.builtAt < ttlMs) {
+                return index;
+            }
+            UserIndex built = new UserIndex();
+            habitRepository.findSearchResultsByUserId(userId).forEach(built::put);
+            synchronized (indexes) {
+                UserIndex replaced = indexes.put(userId, built);
+                totalBytes.addAndGet(built.bytes() - (replaced != null ? replaced.bytes() : 0));
+                evictOverBudget(userId);
+            }
+            return built;
+        }
+    }
+
+    private void update(Long userId, ToLongFunction<UserIndex> change) {
+        synchronized (lock(userId)) {
+            synchronized (indexes) {
+                UserIndex index = indexes.get(userId);
+                if (index != null) {
+                    totalBytes.addAndGet(change.applyAsLong(index));
+                    evictOverBudget(userId);
+                }
+            }
+        }
+    }
+
+    // Caller holds the indexes monitor; the index just touched is kept even if it alone is over
+    private void evictOverBudget(Long keep) {
+        Iterator<Map.Entry<Long, UserIndex>> eldest = indexes.entrySet().iterator();
+        while (totalBytes.get() > maxIndexBytes && eldest.hasNext()) {
+            Map.Entry<Long, UserIndex> entry = eldest.next();
+            if (!entry.getKey().equals(keep)) {
+                totalBytes.addAndGet(-entry.getValue().bytes());
+                eldest.remove();
+            }
+        }
+    }
+
+    private Object lock(Long userId) {
+        return userLocks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(folded)).filter(token -> !token.isEmpty()).toList();
+    }
+
+    // Edits allowed between a query token and a token prefix of the same length
+    private static int maxEdits(String queryToken) {
+        return queryToken.length() >= 7 ? 2 : queryToken.length() >= 4 ? 1 : 0;
+    }
+
+    // Levenshtein distance, giving up once it must exceed max
+    private static int boundedDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    // One user's habits; methods return the change in estimated bytes
+    private static final class UserIndex {
+        private static final long HABIT_BYTES = 128;
+        private static final long TOKEN_BYTES = 96;
+        private static final long POSTING_BYTES = 48;
+
+        private final long builtAt = System.currentTimeMillis();
+        private final Map<Long, HabitSearchResult> habits = new HashMap<>();
+        // token -> habit id -> best field weight
+        private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private long bytes;
+
+        private synchronized long bytes() {
+            return bytes;
+        }
+
+        private synchronized long put(HabitSearchResult habit) {
+            long before = bytes;
+            remove(habit.getId());
+            habits.put(habit.getId(), habit);
+            bytes += HABIT_BYTES + 2L * (length(habit.getTitle()) + length(habit.getDescription()));
+            for (String token : tokenize(habit.getDescription())) {
+                addPosting(token, habit.getId(), DESCRIPTION_WEIGHT);
+            }
+            for (String token : tokenize(habit.getTitle())) {
+                addPosting(token, habit.getId(), TITLE_WEIGHT);
+            }
+            return bytes - before;
+        }
+
+        private synchronized long remove(Long habitId) {
+            HabitSearchResult habit = habits.remove(habitId);
+            if (habit == null) {
+                return 0;
+            }
+            long before = bytes;
+            bytes -= HABIT_BYTES + 2L * (length(habit.getTitle()) + length(habit.getDescription()));
+            List<String> tokens = new ArrayList<>(tokenize(habit.getTitle()));
+            tokens.addAll(tokenize(habit.getDescription()));
+            for (String token : tokens) {
+                Map<Long, Integer> ids = postings.get(token);
+                if (ids != null && ids.remove(habitId) != null) {
+                    bytes -= POSTING_BYTES;
+                    if (ids.isEmpty()) {
+                        postings.remove(token);
+                        bytes -= TOKEN_BYTES + 2L * token.length();
+                    }
+                }
+            }
+            return bytes - before;
+        }
+
+        private void addPosting(String token, Long habitId, int weight) {
+            Map<Long, Integer> ids = postings.get(token);
+            if (ids == null) {
+                ids = new HashMap<>();
+                postings.put(token, ids);
+                bytes += TOKEN_BYTES + 2L * token.length();
+            }
+            if (ids.put(habitId, weight) == null) {
+                bytes += POSTING_BYTES;
+            }
+        }
+
+        private synchronized List<HabitSearchResult> search(List<String> queryTokens, int limit) {
+            Map<Long, Integer> scores = null;
+            for (String queryToken : queryTokens) {
+                Map<Long, Integer> tokenScores = match(queryToken);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // Every query token has to match
+                    Map<Long, Integer> matched = tokenScores;
+                    scores.keySet().retainAll(matched.keySet());
+                    scores.replaceAll((id, score) -> score + matched.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                            .thenComparing(entry -> habits.get(entry.getKey()).getTitle(),
+                                    Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                    .limit(limit)
+                    .map(entry -> habits.get(entry.getKey()))
+                    .toList();
+        }
+
+        // Best score per habit for one query token
+        private Map<Long, Integer> match(String queryToken) {
+            Map<Long, Integer> scores = new HashMap<>();
+            for (Map.Entry<String, Map<Long, Integer>> posting
+                    : postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false).entrySet()) {
+                int kind = posting.getKey().length() == queryToken.length() ? EXACT : PREFIX;
+                posting.getValue().forEach((id, weight) -> scores.merge(id, kind * weight, Math::max));
+            }
+
+            int maxEdits = maxEdits(queryToken);
+            if (maxEdits == 0) {
+                return scores;
+            }
+            for (Map.Entry<String, Map<Long, Integer>> posting : postings.entrySet()) {
+                String token = posting.getKey();
+                String prefix = token.length() > queryToken.length() ? token.substring(0, queryToken.length()) : token;
+                if (!prefix.equals(queryToken) && boundedDistance(queryToken, prefix, maxEdits) <= maxEdits) {
+                    posting.getValue().forEach((id, weight) -> scores.merge(id, FUZZY * weight, Math::max));
+                }
+            }
+            return scores;
+        }
+
+        private static int length(String text) {
+            return text != null ? text.length() : 0;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.growmate.service;
+
+import com.growmate.exception.InvalidRefreshTokenException;
+import com.growmate.model.RefreshToken;
+import com.growmate.model.User;
+import com.growmate.repository.RefreshTokenRepository;
+import com.growmate.repository.UserRepository;
+import com.growmate.security.AccessTokenRevocations;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+// Refresh tokens are random, single-use and stored only as SHA-256 hashes; they carry 256 bits
+// of entropy, so a slow hash would add nothing. Each refresh marks the token used and issues
+// its successor in the same family. A used token coming back means one of the two copies
+// leaked, so the whole family and its access tokens are revoked - unless it comes back within
+// a few seconds and its successor is still unused, which is two tabs refreshing at once. The
+// successor is derived from the token with an HMAC, so the late one gets the same successor
+// without the server keeping anything but hashes.
+@Service
+@Slf4j
+public class RefreshTokenService {
+    private static final int TOKEN_BYTES = 32;
+    private static final String SUCCESSOR_ALGORITHM = "HmacSHA256";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final AccessTokenRevocations accessTokenRevocations;
+    private final long refreshExpirationMs;
+    private final long reuseGraceMs;
+    private final SecretKeySpec successorKey;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository,
+            AccessTokenRevocations accessTokenRevocations,
+            @Value("${app.jwt.refresh-expiration:2592000000}") long refreshExpirationMs,
+            @Value("${app.jwt.refresh-reuse-grace-ms:10000}") long reuseGraceMs,
+            @Value("${app.jwt.secret}") String jwtSecret) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.accessTokenRevocations = accessTokenRevocations;
+        this.refreshExpirationMs = refreshExpirationMs;
+        this.reuseGraceMs = reuseGraceMs;
+        this.successorKey = new SecretKeySpec(("refresh-successor:" + jwtSecret).getBytes(StandardCharsets.UTF_8),
+                SUCCESSOR_ALGORITHM);
+    }
+
+    public record IssuedToken(String token, String sessionId) {
+    }
+
+    public record Rotation(User user, IssuedToken refreshToken) {
+    }
+
+    // Starts a new session
+    @Transactional
+    public IssuedToken issue(Long userId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return create(userId, UUID.randomUUID().toString(), encode(bytes));
+    }
+
+    // Commits the family revocation even though the caller gets an error
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken current = refreshTokenRepository.findWithLockByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+        if (current.getUsedAt() != null) {
+            Optional<Rotation> concurrent = concurrentRotation(current, rawToken);
+            if (concurrent.isPresent()) {
+                return concurrent.get();
+            }
+            log.warn("Refresh token reused for user {}, revoking session {}", current.getUserId(),
+                    current.getFamilyId());
+            revokeSession(current.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token has already been used");
+        }
+        if (current.getRevoked() || current.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new InvalidRefreshTokenException("Refresh token has expired or been revoked");
+        }
+        User user = userRepository.findById(current.getUserId())
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+
+        current.setUsedAt(LocalDateTime.now());
+        return new Rotation(user, create(user.getId(), current.getFamilyId(), successor(rawToken)));
+    }
+
+    // The row lock makes the second of two simultaneous refreshes wait for the first to commit
+    private Optional<Rotation> concurrentRotation(RefreshToken current, String rawToken) {
+        if (current.getRevoked() || current.getUsedAt().isBefore(LocalDateTime.now().minus(reuseGraceMs,
+                ChronoUnit.MILLIS))) {
+            return Optional.empty();
+        }
+        String successor = successor(rawToken);
+        return refreshTokenRepository.findByTokenHash(hash(successor))
+                .filter(next -> next.getUsedAt() == null && !next.getRevoked())
+                .flatMap(next -> userRepository.findById(next.getUserId()))
+                .map(user -> new Rotation(user, new IssuedToken(successor, current.getFamilyId())));
+    }
+
+    // Logout: unknown tokens are ignored so the call is idempotent
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> revokeSession(token.getFamilyId()));
+    }
+
+    @Scheduled(cron = "${app.jwt.refresh-cleanup-cron:0 30 4 * * *}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private IssuedToken create(Long userId, String familyId, String token) {
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setUserId(userId);
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setExpiresAt(LocalDateTime.now().plus(refreshExpirationMs, ChronoUnit.MILLIS));
+        refreshTokenRepository.save(refreshToken);
+        return new IssuedToken(token, familyId);
+    }
+
+    private void revokeSession(String familyId) {
+        refreshTokenRepository.revokeFamily(familyId);
+        accessTokenRevocations.revokeSession(familyId);
+    }
+
+    private String successor(String rawToken) {
+        try {
+            Mac mac = Mac.getInstance(SUCCESSOR_ALGORITHM);
+            mac.init(successorKey);
+            return encode(mac.doFinal(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.growmate.service;
+
+import com.growmate.dto.AnalyticsBucket;
+import com.growmate.dto.AnalyticsResponse;
+import com.growmate.dto.HabitAnalyticsResponse;
+import com.growmate.dto.HabitResponse;
+import com.growmate.model.Habit;
+import com.growmate.model.HabitCalendar;
+import com.growmate.model.HabitRollup;
+import com.growmate.repository.HabitCalendarRepository;
+import com.growmate.repository.HabitRepository;
+import com.growmate.repository.HabitRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class RollupService {
+
+    private final HabitRollupRepository habitRollupRepository;
+    private final HabitRepository habitRepository;
+    private final HabitCalendarRepository habitCalendarRepository;
+    private final PlatformTransactionManager transactionManager;
+    private static final Logger logger = LoggerFactory.getLogger(RollupService.class);
+
+    @Transactional
+    public void recordToggle(Long userId, Long habitId, LocalDate date, boolean completed) {
+        habitRollupRepository.addCompleted(userId, habitId, date, completed ? 1 : -1);
+    }
+
+    // Changed days of several habits: +1 or -1 per day, summed per bucket and written in one batch
+    @Transactional
+    public void recordChanges(Long userId, Map<Long, ? extends Map<LocalDate, Boolean>> changesByHabit) {
+        List<HabitRollup> deltas = new ArrayList<>();
+        changesByHabit.forEach((habitId, changes) -> {
+            Map<HabitRollup.Period, Map<LocalDate, Integer>> counts = new EnumMap<>(HabitRollup.Period.class);
+            changes.forEach((date, completed) -> {
+                for (HabitRollup.Period period : HabitRollup.Period.values()) {
+                    counts.computeIfAbsent(period, p -> new HashMap<>())
+                            .merge(period.bucketStart(date), completed ? 1 : -1, Integer::sum);
+                }
+            });
+            counts.forEach((period, buckets) -> buckets.forEach((bucketStart, delta) -> {
+                if (delta != 0) {
+                    deltas.add(new HabitRollup(null, userId, habitId, period, bucketStart, delta));
+                }
+            }));
+        });
+        if (!deltas.isEmpty()) {
+            habitRollupRepository.addCompleted(deltas);
+        }
+    }
+
+    @Transactional
+    public void rebuildHabit(Long habitId) {
+        rebuild(habitId);
+    }
+
+    @Transactional
+    public void deleteHabit(Long habitId) {
+        habitRollupRepository.deleteByHabitId(habitId);
+    }
+
+    // Rebuilds every habit's rollups from habit_logs, one short transaction per habit. Each
+    // transaction holds the habit lock, like every other writer of its logs and rollups, so a
+    // concurrent toggle can't land between the rebuild's delete and re-insert. With that lock
+    // held the rebuild needs no gap locks, which under REPEATABLE READ reach into the next
+    // habit's rows and deadlock with its toggles.
+    @Scheduled(cron = "${app.rollups.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        List<Long> habitIds = habitRepository.findAllIds();
+        logger.info("Reconciling rollups for {} habits", habitIds.size());
+        int failed = 0;
+        for (Long habitId : habitIds) {
+            try {
+                transaction.executeWithoutResult(status -> {
+                    // Deleted since the ids were listed
+                    if (habitRepository.findWithLockById(habitId).isPresent()) {
+                        rebuild(habitId);
+                    }
+                });
+            } catch (DataAccessException e) {
+                // Its rollups stay as they were until the next run
+                logger.warn("Reconciling rollups of habit {} failed", habitId, e);
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            logger.warn("Rollups of {} habits were not reconciled", failed);
+        }
+    }
+
+    // Aggregates hot rows in SQL, then adds the days of archived years from their bitmaps
+    private void rebuild(Long habitId) {
+        habitRollupRepository.rebuildForHabit(habitId);
+        List<HabitCalendar> archived = habitCalendarRepository.findByHabitIdAndArchivedTrueOrderByYearAsc(habitId);
+        if (archived.isEmpty()) {
+            return;
+        }
+
+        Long userId = archived.get(0).getHabit().getUser().getId();
+        Map<HabitRollup.Period, Map<LocalDate, Integer>> counts = new EnumMap<>(HabitRollup.Period.class);
+        for (HabitCalendar calendar : archived) {
+            for (LocalDate date : HabitCalendarService.completedDates(calendar)) {
+                for (HabitRollup.Period period : HabitRollup.Period.values()) {
+                    counts.computeIfAbsent(period, p -> new HashMap<>())
+                            .merge(period.bucketStart(date), 1, Integer::sum);
+                }
+            }
+        }
+        List<HabitRollup> deltas = new ArrayList<>();
+        counts.forEach((period, buckets) -> buckets.forEach((bucketStart, completed) ->
+                deltas.add(new HabitRollup(null, userId, habitId, period, bucketStart, completed))));
+        habitRollupRepository.addCompleted(deltas);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (habitRollupRepository.count() == 0 && habitRepository.count() > 0) {
+            reconcile();
+        }
+    }
+
+    // Reads only rollups and habit metadata, never habit_logs. A weekly habit is done once per
+    // ISO week, as on the dashboard: it counts one possible week, and one completed week if any
+    // day of it was completed, in the bucket where the week begins (or where the habit was
+    // created, for its first week). That comes from the WEEK rollups, fetched with the rest.
+    @Transactional(readOnly = true)
+    public AnalyticsResponse getAnalytics(Long userId, HabitRollup.Period period, LocalDate from, LocalDate to,
+            LocalDate today) {
+        LocalDate firstBucket = period.bucketStart(from);
+        List<HabitResponse> habits = habitRepository.findResponsesByUserId(userId);
+
+        Map<Long, Map<LocalDate, Integer>> completedByHabit = new HashMap<>();
+        Map<Long, Set<LocalDate>> completedWeeksByHabit = new HashMap<>();
+        for (HabitRollup rollup : habitRollupRepository.findByUserIdAndPeriodInAndBucketStartBetween(userId,
+                EnumSet.of(period, HabitRollup.Period.WEEK), HabitRollup.Period.WEEK.bucketStart(firstBucket), to)) {
+            if (rollup.getPeriod() == period && !rollup.getBucketStart().isBefore(firstBucket)) {
+                completedByHabit.computeIfAbsent(rollup.getHabitId(), id -> new HashMap<>())
+                        .put(rollup.getBucketStart(), rollup.getCompleted());
+            }
+            if (rollup.getPeriod() == HabitRollup.Period.WEEK && rollup.getCompleted() > 0) {
+                completedWeeksByHabit.computeIfAbsent(rollup.getHabitId(), id -> new HashSet<>())
+                        .add(rollup.getBucketStart());
+            }
+        }
+
+        List<LocalDate> bucketStarts = new ArrayList<>();
+        for (LocalDate bucket = firstBucket; !bucket.isAfter(to); bucket = period.nextBucket(bucket)) {
+            bucketStarts.add(bucket);
+        }
+
+        long[] totalCompleted = new long[bucketStarts.size()];
+        long[] totalPossible = new long[bucketStarts.size()];
+        List<HabitAnalyticsResponse> habitResults = new ArrayList<>(habits.size());
+        for (HabitResponse habit : habits) {
+            Map<LocalDate, Integer> completed = completedByHabit.getOrDefault(habit.getId(), Map.of());
+            Set<LocalDate> completedWeeks = completedWeeksByHabit.getOrDefault(habit.getId(), Set.of());
+            List<AnalyticsBucket> buckets = new ArrayList<>(bucketStarts.size());
+            for (int i = 0; i < bucketStarts.size(); i++) {
+                LocalDate bucket = bucketStarts.get(i);
+                LocalDate bucketEnd = period.nextBucket(bucket).minusDays(1);
+                long done;
+                long possible;
+                if (habit.getFrequency() == Habit.Frequency.WEEKLY) {
+                    List<LocalDate> weeks = weeksBeginningIn(habit, bucket, bucketEnd, today);
+                    done = weeks.stream().filter(completedWeeks::contains).count();
+                    possible = weeks.size();
+                } else {
+                    done = completed.getOrDefault(bucket, 0);
+                    possible = possibleDays(habit, bucket, bucketEnd, today);
+                }
+                buckets.add(new AnalyticsBucket(bucket, done, possible));
+                totalCompleted[i] += done;
+                totalPossible[i] += possible;
+            }
+            habitResults.add(new HabitAnalyticsResponse(habit.getId(), buckets));
+        }
+
+        List<AnalyticsBucket> totals = new ArrayList<>(bucketStarts.size());
+        for (int i = 0; i < bucketStarts.size(); i++) {
+            totals.add(new AnalyticsBucket(bucketStarts.get(i), totalCompleted[i], totalPossible[i]));
+        }
+        return new AnalyticsResponse(period, firstBucket, to, totals, habitResults);
+    }
+
+    private static long possibleDays(HabitResponse habit, LocalDate bucketStart, LocalDate bucketEnd,
+            LocalDate today) {
+        LocalDate start = countedFrom(habit, bucketStart);
+        LocalDate end = bucketEnd.isAfter(today) ? today : bucketEnd;
+        return start.isAfter(end) ? 0 : ChronoUnit.DAYS.between(start, end) + 1;
+    }
+
+    // Mondays of the weeks whose first counted day, the Monday or the creation day, is in the bucket
+    private static List<LocalDate> weeksBeginningIn(HabitResponse habit, LocalDate bucketStart,
+            LocalDate bucketEnd, LocalDate today) {
+        LocalDate start = countedFrom(habit, bucketStart);
+        LocalDate end = bucketEnd.isAfter(today) ? today : bucketEnd;
+        List<LocalDate> weeks = new ArrayList<>();
+        if (start.isAfter(end)) {
+            return weeks;
+        }
+        for (LocalDate week = HabitRollup.Period.WEEK.bucketStart(start); !week.isAfter(end);
+                week = week.plusWeeks(1)) {
+            if (!countedFrom(habit, week).isBefore(start)) {
+                weeks.add(week);
+            }
+        }
+        return weeks;
+    }
+
+    private static LocalDate countedFrom(HabitResponse habit, LocalDate date) {
+        if (habit.getCreatedAt() != null && habit.getCreatedAt().toLocalDate().isAfter(date)) {
+            return habit.getCreatedAt().toLocalDate();
+        }
+        return date;
+    }
+}
@@ -0,0 +1,192 @@
+package com.growmate.service;
+
+import com.growmate.model.Habit;
+import com.growmate.repository.HabitLogRepository;
+import com.growmate.repository.HabitRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+@Service
+@RequiredArgsConstructor
+public class StreakService {
+
+    private final HabitLogRepository habitLogRepository;
+    private final HabitRepository habitRepository;
+    private final HabitArchiveService habitArchiveService;
+    private final PlatformTransactionManager transactionManager;
+    private static final Logger logger = LoggerFactory.getLogger(StreakService.class);
+
+    private static final int BACKFILL_PAGE_SIZE = 500;
+
+    // Applies a single toggle of (habit, date) to the stored streak state.
+    // Forward progress and trimming the current run are handled in O(1);
+    // anything that may split or join older runs falls back to recompute().
+    @Transactional
+    public void applyToggle(Habit habit, LocalDate date, boolean completed) {
+        if (!applyIncrementally(habit, date, completed)) {
+            recompute(habit);
+        }
+    }
+
+    // Applies the days a batch changed, with their stored state already written. A single
+    // day of a habit follows applyToggle; several are only applied incrementally when they
+    // all extend the run forward, since applyToggle's fallbacks read the stored state, which
+    // already holds the whole batch. The habits left over are recomputed together from one
+    // read of their dates.
+    @Transactional
+    public void applyChanges(Map<Long, Habit> habits,
+            Map<Long, ? extends NavigableMap<LocalDate, Boolean>> changesByHabit) {
+        List<Habit> stale = new ArrayList<>();
+        changesByHabit.forEach((habitId, changes) -> {
+            Habit habit = habits.get(habitId);
+            if (!changes.isEmpty() && !applyIncrementally(habit, changes)) {
+                stale.add(habit);
+            }
+        });
+        if (stale.isEmpty()) {
+            return;
+        }
+        Map<Long, List<LocalDate>> dates = habitArchiveService.completedDates(
+                stale.stream().map(Habit::getId).toList());
+        stale.forEach(habit -> applyCompletedDates(habit, dates.getOrDefault(habit.getId(), List.of())));
+    }
+
+    private boolean applyIncrementally(Habit habit, NavigableMap<LocalDate, Boolean> changes) {
+        if (changes.size() == 1) {
+            return applyIncrementally(habit, changes.firstKey(), changes.firstEntry().getValue());
+        }
+        LocalDate last = habit.getLastCompletedDate();
+        boolean forward = habit.getCurrentStreak() != null && !changes.containsValue(Boolean.FALSE)
+                && (last == null || changes.firstKey().isAfter(last));
+        if (!forward) {
+            return false;
+        }
+        changes.keySet().forEach(date -> applyIncrementally(habit, date, true));
+        return true;
+    }
+
+    // False when the toggle needs a recompute()
+    private boolean applyIncrementally(Habit habit, LocalDate date, boolean completed) {
+        if (habit.getCurrentStreak() == null) {
+            return false;
+        }
+
+        Habit.Frequency frequency = habit.getFrequency();
+        LocalDate last = habit.getLastCompletedDate();
+        int current = habit.getCurrentStreak();
+        int longest = habit.getLongestStreak();
+
+        if (completed) {
+            if (last == null || date.isAfter(last)) {
+                long gap = last == null ? Long.MAX_VALUE : frequency.bucketsBetween(last, date);
+                // gap == 0 means the same ISO week, whose bucket was already counted
+                if (gap == 1) {
+                    current++;
+                } else if (gap > 1) {
+                    current = 1;
+                }
+                habit.setCurrentStreak(current);
+                habit.setLongestStreak(Math.max(longest, current));
+                habit.setLastCompletedDate(date);
+                return true;
+            }
+            return frequency == Habit.Frequency.WEEKLY && hasOtherCompletionInBucket(habit, date);
+        }
+
+        if (last == null || date.isAfter(last)) {
+            return true;
+        }
+        if (frequency == Habit.Frequency.WEEKLY && hasOtherCompletionInBucket(habit, date)) {
+            return !date.isEqual(last);
+        }
+
+        long offset = frequency.bucketsBetween(date, last);
+        if (offset < current && longest > current) {
+            // The removed bucket sits inside the current run and the longest run lies elsewhere
+            if (offset > 0) {
+                habit.setCurrentStreak((int) offset);
+                return true;
+            }
+            if (current > 1 && frequency == Habit.Frequency.DAILY) {
+                habit.setLastCompletedDate(date.minusDays(1));
+                habit.setCurrentStreak(current - 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Rebuilds streak state from the habit's completed dates (date column only), archived years included
+    @Transactional
+    public void recompute(Habit habit) {
+        applyCompletedDates(habit, habitArchiveService.completedDates(habit.getId()));
+    }
+
+    // Sets streak state from the full list of completed dates in ascending order
+    public static void applyCompletedDates(Habit habit, List<LocalDate> dates) {
+        Habit.Frequency frequency = habit.getFrequency();
+
+        int current = 0;
+        int longest = 0;
+        LocalDate previous = null;
+        for (LocalDate date : dates) {
+            long gap = previous == null ? Long.MAX_VALUE : frequency.bucketsBetween(previous, date);
+            if (gap == 1) {
+                current++;
+            } else if (gap != 0) {
+                current = 1;
+            }
+            longest = Math.max(longest, current);
+            previous = date;
+        }
+
+        habit.setCurrentStreak(current);
+        habit.setLongestStreak(longest);
+        habit.setLastCompletedDate(previous);
+    }
+
+    private boolean hasOtherCompletionInBucket(Habit habit, LocalDate date) {
+        LocalDate start = Habit.Frequency.WEEKLY.bucketStart(date);
+        return habitLogRepository.countByHabitIdAndCompletedTrueAndDateBetweenAndDateNot(
+                habit.getId(), start, start.plusDays(6), date) > 0;
+    }
+
+    // Habits from before streaks were stored, a page of ids at a time and one short
+    // transaction per habit, under the same lock as writes since traffic may already flow
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissingStreaks() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int backfilled = 0;
+        long afterId = 0;
+        List<Long> habitIds;
+        do {
+            habitIds = habitRepository.findIdsWithoutStreak(afterId, PageRequest.of(0, BACKFILL_PAGE_SIZE));
+            for (Long habitId : habitIds) {
+                transaction.executeWithoutResult(status -> habitRepository.findWithLockById(habitId)
+                        .filter(habit -> habit.getCurrentStreak() == null)
+                        .ifPresent(this::recompute));
+            }
+            backfilled += habitIds.size();
+            if (!habitIds.isEmpty()) {
+                afterId = habitIds.get(habitIds.size() - 1);
+            }
+        } while (habitIds.size() == BACKFILL_PAGE_SIZE);
+        if (backfilled > 0) {
+            logger.info("Backfilled streaks for {} habits", backfilled);
+        }
+    }
+}
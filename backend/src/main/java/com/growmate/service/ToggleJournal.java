@@ -0,0 +1,148 @@
+package com.growmate.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Append-only log of acknowledged toggle states, split into numbered segments. A line
+// "seq,userId,habitId,date,completed" holds the absolute state after a toggle, so replaying
+// the highest seq per (habit, date) is idempotent. A line "settled,habitId,date,seq" records
+// that the day's state up to seq is in MySQL, so replay skips it and can't overwrite a
+// later direct write. Lines reach the OS on every append, which survives a process crash;
+// fsync also covers power loss.
+class ToggleJournal implements AutoCloseable {
+    private static final String PREFIX = "toggles-";
+    private static final String SUFFIX = ".log";
+    private static final String SETTLED = "settled";
+
+    record Entry(long seq, Long userId, Long habitId, LocalDate date, boolean completed) {
+    }
+
+    private record Day(Long habitId, LocalDate date) {
+    }
+
+    private final Path directory;
+    private final boolean fsync;
+    private long segment;
+    private FileChannel channel;
+
+    ToggleJournal(Path directory, boolean fsync) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.fsync = fsync;
+        List<Long> existing = segments();
+        this.segment = existing.isEmpty() ? 0 : existing.get(existing.size() - 1);
+        open(segment + 1);
+    }
+
+    void append(Entry entry) {
+        write(entry.seq() + "," + entry.userId() + "," + entry.habitId() + "," + entry.date() + ","
+                + entry.completed() + "\n");
+    }
+
+    // Called once the day's state as of seq has committed
+    void settle(Long habitId, LocalDate date, long seq) {
+        write(SETTLED + "," + habitId + "," + date + "," + seq + "\n");
+    }
+
+    private synchronized void write(String line) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.US_ASCII));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Starts a new segment and returns the number of the one just closed; that segment and
+    // all older ones only hold states that were pending when this was called
+    synchronized long rotate() throws IOException {
+        long closed = segment;
+        channel.close();
+        open(segment + 1);
+        return closed;
+    }
+
+    // The latest state of each day in segments older than the current one, unless a later
+    // settlement covers it. A torn last line from a crash mid-append is skipped.
+    synchronized List<Entry> unsettledEntries() throws IOException {
+        Map<Day, Entry> latest = new HashMap<>();
+        Map<Day, Long> settled = new HashMap<>();
+        for (long number : segments()) {
+            if (number >= segment) {
+                break;
+            }
+            for (String line : Files.readAllLines(path(number), StandardCharsets.US_ASCII)) {
+                String[] fields = line.split(",");
+                if (fields.length == 4 && fields[0].equals(SETTLED) && isNumber(fields[3])) {
+                    settled.merge(new Day(Long.valueOf(fields[1]), LocalDate.parse(fields[2])),
+                            Long.parseLong(fields[3]), Math::max);
+                } else if (fields.length == 5 && (fields[4].equals("true") || fields[4].equals("false"))) {
+                    Entry entry = new Entry(Long.parseLong(fields[0]), Long.valueOf(fields[1]),
+                            Long.valueOf(fields[2]), LocalDate.parse(fields[3]), Boolean.parseBoolean(fields[4]));
+                    latest.merge(new Day(entry.habitId(), entry.date()), entry,
+                            (a, b) -> a.seq() >= b.seq() ? a : b);
+                }
+            }
+        }
+        List<Entry> entries = new ArrayList<>();
+        latest.forEach((day, entry) -> {
+            if (entry.seq() > settled.getOrDefault(day, 0L)) {
+                entries.add(entry);
+            }
+        });
+        return entries;
+    }
+
+    synchronized void deleteUpTo(long last) throws IOException {
+        for (long number : segments()) {
+            if (number <= last && number != segment) {
+                Files.deleteIfExists(path(number));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void open(long number) throws IOException {
+        segment = number;
+        channel = FileChannel.open(path(number), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private static boolean isNumber(String field) {
+        return !field.isEmpty() && field.chars().allMatch(Character::isDigit);
+    }
+
+    private Path path(long number) {
+        return directory.resolve(String.format("%s%019d%s", PREFIX, number, SUFFIX));
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
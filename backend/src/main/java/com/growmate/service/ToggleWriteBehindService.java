@@ -0,0 +1,282 @@
+package com.growmate.service;
+
+import com.growmate.dto.HabitLogRequest;
+import com.growmate.dto.HabitLogResponse;
+import com.growmate.exception.ToggleBacklogFullException;
+import com.growmate.repository.HabitLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+// Write-behind mode for toggles. A toggle flips the in-memory state of its (habit, date),
+// is journalled and acknowledged; the flush job then writes each day's final state with
+// its derived state, one transaction per user. Days toggled back to their stored state
+// are dropped without touching MySQL. Only the first toggle of a day reads the database.
+@Service
+@ConditionalOnProperty(name = "app.toggles.write-behind.enabled", havingValue = "true")
+public class ToggleWriteBehindService {
+    private static final Logger logger = LoggerFactory.getLogger(ToggleWriteBehindService.class);
+
+    private record Key(Long habitId, LocalDate date) {
+    }
+
+    // persisted is what MySQL holds, current what clients were told; seq orders the
+    // updates of a day across the map and the journal
+    private record Pending(Long userId, Long logId, boolean persisted, boolean current, long seq) {
+    }
+
+    private final HabitLogRepository habitLogRepository;
+    private final HabitArchiveService habitArchiveService;
+    private final HabitLogWriteService habitLogWriteService;
+    private final DataVersionService dataVersionService;
+    private final TransactionTemplate flushTransaction;
+    private final int maxPending;
+    private final ToggleJournal journal;
+
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    // A single flusher at a time keeps each day's writes in seq order
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Counter coalesced;
+    private final Counter flushed;
+
+    public ToggleWriteBehindService(HabitLogRepository habitLogRepository, HabitArchiveService habitArchiveService,
+            HabitLogWriteService habitLogWriteService, DataVersionService dataVersionService,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${app.toggles.write-behind.max-pending:10000}") int maxPending,
+            @Value("${app.toggles.write-behind.journal-dir:toggle-journal}") String journalDir,
+            @Value("${app.toggles.write-behind.journal-fsync:false}") boolean journalFsync) throws IOException {
+        this.habitLogRepository = habitLogRepository;
+        this.habitArchiveService = habitArchiveService;
+        this.habitLogWriteService = habitLogWriteService;
+        this.dataVersionService = dataVersionService;
+        // Independent of any caller transaction, so a flushed day is durable before it is settled
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxPending = maxPending;
+        this.journal = new ToggleJournal(Path.of(journalDir), journalFsync);
+        meterRegistry.gaugeMapSize("growmate.toggles.pending", Tags.empty(), pending);
+        this.coalesced = meterRegistry.counter("growmate.toggles.coalesced");
+        this.flushed = meterRegistry.counter("growmate.toggles.flushed");
+    }
+
+    // Empty when the habit does not exist or belongs to another user. The id is null
+    // while the day has no row yet.
+    public Optional<HabitLogResponse> toggle(Long habitId, Long userId, LocalDate date) {
+        Key key = new Key(habitId, date);
+        while (true) {
+            Pending loaded = null;
+            if (!pending.containsKey(key)) {
+                if (pending.size() >= maxPending) {
+                    throw new ToggleBacklogFullException("Too many pending toggles, retry shortly");
+                }
+                Optional<HabitLogResponse> state = habitLogRepository.findToggleState(habitId, userId, date);
+                if (state.isEmpty()) {
+                    return Optional.empty();
+                }
+                boolean completed = state.get().getId() != null
+                        ? state.get().getCompleted()
+                        : habitArchiveService.isArchivedCompletion(habitId, date);
+                loaded = new Pending(userId, state.get().getId(), completed, completed, 0);
+            }
+
+            Pending base = loaded;
+            Pending updated = pending.compute(key, (k, existing) -> {
+                Pending current = existing != null ? existing : base;
+                if (current == null || !current.userId().equals(userId)) {
+                    return existing;
+                }
+                return new Pending(userId, current.logId(), current.persisted(), !current.current(),
+                        sequence.incrementAndGet());
+            });
+            if (updated == null) {
+                // Settled and removed between the check and the update; MySQL is current again
+                continue;
+            }
+            if (!updated.userId().equals(userId)) {
+                return Optional.empty();
+            }
+
+            // Acknowledged only once the state is in the journal
+            journal.append(new ToggleJournal.Entry(updated.seq(), userId, habitId, date, updated.current()));
+            dataVersionService.acknowledge(userId);
+            return Optional.of(new HabitLogResponse(updated.logId(), habitId, date, updated.current()));
+        }
+    }
+
+    // The acknowledged but not yet flushed state of a day, if any
+    public Optional<Boolean> pendingState(Long habitId, LocalDate date) {
+        return Optional.ofNullable(pending.get(new Key(habitId, date))).map(Pending::current);
+    }
+
+    @Scheduled(fixedDelayString = "${app.toggles.write-behind.flush-ms:200}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            // Everything journalled before the rotation is part of the snapshot below. After a
+            // partial failure the segments stay, and their settlement lines keep recovery to
+            // the days that are still pending.
+            long coveredSegment = journal.rotate();
+            if (flush(userId -> true)) {
+                journal.deleteUpTo(coveredSegment);
+            }
+        } catch (IOException e) {
+            logger.error("Toggle journal rotation failed", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Lets a direct write for this user start from everything it was already told
+    public void flushUser(Long userId) {
+        flushLock.lock();
+        try {
+            flush(userId::equals);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Returns false when some user's batch has to be retried
+    private boolean flush(Predicate<Long> users) {
+        Map<Long, Map<Key, Pending>> byUser = new HashMap<>();
+        pending.forEach((key, entry) -> {
+            if (!users.test(entry.userId())) {
+                return;
+            }
+            if (entry.current() == entry.persisted()) {
+                // Toggled back to what MySQL already has
+                if (pending.remove(key, entry)) {
+                    journal.settle(key.habitId(), key.date(), entry.seq());
+                    coalesced.increment();
+                }
+                return;
+            }
+            byUser.computeIfAbsent(entry.userId(), id -> new HashMap<>()).put(key, entry);
+        });
+
+        boolean complete = true;
+        for (Map.Entry<Long, Map<Key, Pending>> batch : byUser.entrySet()) {
+            Long userId = batch.getKey();
+            Map<Key, Pending> snapshot = batch.getValue();
+            List<HabitLogRequest> operations = new ArrayList<>(snapshot.size());
+            snapshot.forEach((key, entry) -> operations.add(operation(key.habitId(), key.date(), entry.current())));
+            try {
+                Set<Long> deleted = flushTransaction.execute(status ->
+                        habitLogWriteService.setExistingCompletions(userId, operations));
+                int dropped = 0;
+                for (Map.Entry<Key, Pending> day : snapshot.entrySet()) {
+                    if (deleted.contains(day.getKey().habitId())) {
+                        // Nothing is left to write the day to
+                        drop(day.getKey(), day.getValue());
+                        dropped++;
+                    } else {
+                        settle(day.getKey(), day.getValue());
+                    }
+                }
+                if (dropped > 0) {
+                    logger.warn("Dropped {} pending toggles of user {} for deleted habits {}", dropped, userId,
+                            deleted);
+                }
+                flushed.increment(operations.size() - dropped);
+            } catch (RuntimeException e) {
+                logger.error("Flushing {} pending toggles of user {} failed, will retry", operations.size(), userId,
+                        e);
+                complete = false;
+            }
+        }
+        return complete;
+    }
+
+    // Toggles that arrived during the flush keep the day pending against the new stored state.
+    // The settlement is journalled first: if that fails the day stays pending and is rewritten.
+    private void settle(Key key, Pending flushedEntry) {
+        journal.settle(key.habitId(), key.date(), flushedEntry.seq());
+        pending.computeIfPresent(key, (k, entry) -> entry.seq() == flushedEntry.seq()
+                ? null
+                : new Pending(entry.userId(), entry.logId(), flushedEntry.current(), entry.current(), entry.seq()));
+    }
+
+    private void drop(Key key, Pending droppedEntry) {
+        journal.settle(key.habitId(), key.date(), droppedEntry.seq());
+        pending.remove(key);
+    }
+
+    // Replays what a crashed process acknowledged but did not settle. Runs before the web
+    // server takes traffic so no toggle reads a day the journal is about to overwrite.
+    @PostConstruct
+    public void recover() throws IOException {
+        List<ToggleJournal.Entry> unsettled = journal.unsettledEntries();
+        if (unsettled.isEmpty()) {
+            // Segments holding only settled days must go too: seqs restart below theirs
+            journal.deleteUpTo(journal.rotate());
+            return;
+        }
+
+        Map<Long, List<HabitLogRequest>> byUser = new HashMap<>();
+        long maxSeq = 0;
+        for (ToggleJournal.Entry entry : unsettled) {
+            byUser.computeIfAbsent(entry.userId(), id -> new ArrayList<>())
+                    .add(operation(entry.habitId(), entry.date(), entry.completed()));
+            maxSeq = Math.max(maxSeq, entry.seq());
+        }
+        sequence.set(maxSeq);
+        // A failure here stops startup and leaves the journal for the next attempt. Days of
+        // habits deleted since are skipped.
+        byUser.forEach((userId, operations) -> {
+            Set<Long> deleted = flushTransaction.execute(status ->
+                    habitLogWriteService.setExistingCompletions(userId, operations));
+            if (!deleted.isEmpty()) {
+                logger.warn("Skipped journalled toggles of user {} for deleted habits {}", userId, deleted);
+            }
+        });
+        journal.deleteUpTo(journal.rotate());
+        logger.info("Recovered {} journalled toggles", unsettled.size());
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flush();
+        if (!pending.isEmpty()) {
+            logger.warn("{} toggles still pending at shutdown, they will be replayed from the journal on restart",
+                    pending.size());
+        }
+        journal.close();
+    }
+
+    private static HabitLogRequest operation(Long habitId, LocalDate date, boolean completed) {
+        HabitLogRequest operation = new HabitLogRequest();
+        operation.setHabitId(habitId);
+        operation.setDate(date);
+        operation.setCompleted(completed);
+        return operation;
+    }
+}
@@ -16,6 +16,11 @@ public class UserService {
     private final UserRepository userRepository;
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
+    public User findById(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id " + userId));
+    }
+
     // Modified updateUser to only handle name
     public User updateUser(Long userId, UpdateUserRequest updateRequest) {
         logger.info("Attempting to update user with ID: {} with data: {}", userId, updateRequest);
@@ -0,0 +1,55 @@
+-- Schema the streak, calendar, rollup and conditional GET work added while the app still
+-- ran on ddl-auto. Sits between V1 and V2 so baselined databases get it too, and before
+-- V3, which extends habit_calendars.
+
+-- Existing users start at version 0; it only has to change on the next write
+ALTER TABLE users ADD COLUMN data_version BIGINT NOT NULL DEFAULT 0;
+
+-- Left NULL on existing habits: StreakService.backfillMissingStreaks computes them from
+-- the logs at startup, with the same daily/weekly rules it applies on every write
+ALTER TABLE habits
+    ADD COLUMN current_streak      INTEGER,
+    ADD COLUMN longest_streak      INTEGER,
+    ADD COLUMN last_completed_date DATE;
+
+-- Bitmaps are built from habit_logs the first time a year is read or written
+CREATE TABLE habit_calendars (
+    id       BIGINT        NOT NULL AUTO_INCREMENT,
+    habit_id BIGINT        NOT NULL,
+    year     INTEGER       NOT NULL,
+    days     VARBINARY(46) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_habit_calendars_habit_year UNIQUE (habit_id, year),
+    CONSTRAINT fk_habit_calendars_habit FOREIGN KEY (habit_id) REFERENCES habits (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE habit_rollups (
+    id           BIGINT                      NOT NULL AUTO_INCREMENT,
+    user_id      BIGINT                      NOT NULL,
+    habit_id     BIGINT                      NOT NULL,
+    period       ENUM ('DAY','WEEK','MONTH') NOT NULL,
+    bucket_start DATE                        NOT NULL,
+    completed    INTEGER                     NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_habit_rollups_habit_period_bucket UNIQUE (habit_id, period, bucket_start),
+    INDEX idx_habit_rollups_user_period_bucket (user_id, period, bucket_start)
+) ENGINE = InnoDB;
+
+-- Same aggregates as HabitRollupRepositoryImpl.rebuildForHabit; habit_logs has no user_id until V2
+INSERT INTO habit_rollups (user_id, habit_id, period, bucket_start, completed)
+SELECT h.user_id, hl.habit_id, 'DAY', hl.date, COUNT(*)
+FROM habit_logs hl JOIN habits h ON h.id = hl.habit_id
+WHERE hl.completed = TRUE
+GROUP BY h.user_id, hl.habit_id, hl.date;
+
+INSERT INTO habit_rollups (user_id, habit_id, period, bucket_start, completed)
+SELECT h.user_id, hl.habit_id, 'WEEK', DATE_SUB(hl.date, INTERVAL WEEKDAY(hl.date) DAY), COUNT(*)
+FROM habit_logs hl JOIN habits h ON h.id = hl.habit_id
+WHERE hl.completed = TRUE
+GROUP BY h.user_id, hl.habit_id, DATE_SUB(hl.date, INTERVAL WEEKDAY(hl.date) DAY);
+
+INSERT INTO habit_rollups (user_id, habit_id, period, bucket_start, completed)
+SELECT h.user_id, hl.habit_id, 'MONTH', DATE_SUB(hl.date, INTERVAL DAYOFMONTH(hl.date) - 1 DAY), COUNT(*)
+FROM habit_logs hl JOIN habits h ON h.id = hl.habit_id
+WHERE hl.completed = TRUE
+GROUP BY h.user_id, hl.habit_id, DATE_SUB(hl.date, INTERVAL DAYOFMONTH(hl.date) - 1 DAY);
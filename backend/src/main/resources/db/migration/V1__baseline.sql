@@ -0,0 +1,36 @@
+-- Schema as ddl-auto=update left it before migrations took over. Existing databases
+-- are baselined at this version (spring.flyway.baseline-on-migrate), so this only
+-- runs against an empty schema. Everything added since comes in later versions.
+
+CREATE TABLE users (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    name       VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    image      VARCHAR(255),
+    password   VARCHAR(255) NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE habits (
+    id          BIGINT                  NOT NULL AUTO_INCREMENT,
+    user_id     BIGINT                  NOT NULL,
+    title       VARCHAR(255)            NOT NULL,
+    description VARCHAR(1000),
+    frequency   ENUM ('DAILY','WEEKLY') NOT NULL,
+    color       VARCHAR(7)              NOT NULL,
+    created_at  DATETIME(6)             NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_habits_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE habit_logs (
+    id        BIGINT NOT NULL AUTO_INCREMENT,
+    habit_id  BIGINT NOT NULL,
+    date      DATE   NOT NULL,
+    completed BIT    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_habit_logs_habit_date UNIQUE (habit_id, date),
+    CONSTRAINT fk_habit_logs_habit FOREIGN KEY (habit_id) REFERENCES habits (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,26 @@
+-- Denormalizes the owning user onto habit_logs so per-user reads no longer join
+-- habit_logs -> habits, and adds covering indexes for the hot range queries.
+--
+-- Per-user page (HabitLogRepository.findPageByUserId), EXPLAIN shape:
+--   before: hl ALL or ref on the habit_id FK for every habit of h, h ref on user_id FK,
+--           "Using temporary; Using filesort" for ORDER BY date DESC, id DESC
+--   after:  hl range on idx_habit_logs_user_date, "Using where; Using index", rows read in
+--           index order so LIMIT stops early and there is no filesort
+-- Per-habit range (findResponsesByHabitIdAndDateBetween, rollup rebuilds):
+--   before: range on the (habit_id, date) unique key plus a row lookup for completed
+--   after:  range on idx_habit_logs_habit_date, "Using index"
+-- Habit list (findResponsesByUserId ORDER BY created_at DESC):
+--   before: ref on the user_id FK, "Using filesort"
+--   after:  ref on idx_habits_user_created, "Backward index scan", no filesort
+
+ALTER TABLE habit_logs ADD COLUMN user_id BIGINT NULL AFTER habit_id;
+
+UPDATE habit_logs hl JOIN habits h ON h.id = hl.habit_id SET hl.user_id = h.user_id;
+
+ALTER TABLE habit_logs
+    MODIFY user_id BIGINT NOT NULL,
+    ADD CONSTRAINT fk_habit_logs_user FOREIGN KEY (user_id) REFERENCES users (id),
+    ADD INDEX idx_habit_logs_user_date (user_id, date, id, habit_id, completed),
+    ADD INDEX idx_habit_logs_habit_date (habit_id, date, completed);
+
+CREATE INDEX idx_habits_user_created ON habits (user_id, created_at);
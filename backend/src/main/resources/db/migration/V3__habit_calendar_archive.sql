@@ -0,0 +1,2 @@
+-- Years whose habit_logs rows were moved into the calendar bitmap by the archival job
+ALTER TABLE habit_calendars ADD COLUMN archived BIT NOT NULL DEFAULT 0;
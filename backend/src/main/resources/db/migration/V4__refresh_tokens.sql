@@ -0,0 +1,19 @@
+-- Rotating refresh tokens. Only a SHA-256 of each token is stored. Every login starts a
+-- family; each refresh marks its token used and adds the successor to the same family,
+-- so presenting a used token again revokes the whole family.
+
+CREATE TABLE refresh_tokens (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    user_id    BIGINT      NOT NULL,
+    token_hash VARCHAR(64) NOT NULL,
+    family_id  VARCHAR(36) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    used_at    DATETIME(6),
+    revoked    BIT         NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_refresh_tokens_hash UNIQUE (token_hash),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    INDEX idx_refresh_tokens_family (family_id),
+    INDEX idx_refresh_tokens_expires (expires_at)
+) ENGINE = InnoDB;
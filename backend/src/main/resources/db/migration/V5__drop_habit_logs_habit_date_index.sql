@@ -0,0 +1,10 @@
+-- Drops idx_habit_logs_habit_date from V2. It repeated the (habit_id, date) unique key with
+-- completed appended, so every habit_logs write maintained two near-identical indexes. The
+-- unique key cannot take completed itself: it has to stay on (habit_id, date) for one log per
+-- habit and day and for the ON DUPLICATE KEY upserts.
+--
+-- Per-habit range (findResponsesByHabitIdAndDateBetween, rollup rebuilds), EXPLAIN shape:
+--   range on uk_habit_logs_habit_date plus a row lookup for completed, at most one per day
+--   in the range
+
+ALTER TABLE habit_logs DROP INDEX idx_habit_logs_habit_date;
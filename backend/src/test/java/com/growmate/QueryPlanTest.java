@@ -0,0 +1,191 @@
+package com.growmate;
+
+import com.growmate.support.EmbeddedDatabase;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// EXPLAIN of the hot reads on a seeded database, once at V1.1 with the queries as they were
+// and once on the current schema (V2, and V5 dropping its per-habit index again) with the
+// queries as they are now. The plans are written to
+// target/query-plans/V2__habit_logs_user_id.txt; benchmarks/query-plans-V2.txt is a recorded run.
+class QueryPlanTest {
+    private static final int USERS = 20;
+    private static final int HABITS_PER_USER = 5;
+    private static final int DAYS = 365;
+    private static final long USER_ID = 7;
+    // The middle one of USER_ID's habits
+    private static final long HABIT_ID = (USER_ID - 1) * HABITS_PER_USER + HABITS_PER_USER / 2 + 1;
+
+    private static final String PAGE = "Per-user page (findPageByUserId)";
+    private static final String RANGE = "Per-habit range (findResponsesByHabitIdAndDateBetween)";
+    private static final String LIST = "Habit list (findResponsesByUserId)";
+
+    private static final String PAGE_BEFORE = "SELECT hl.id, hl.habit_id, hl.date, hl.completed FROM habit_logs hl "
+            + "JOIN habits h ON h.id = hl.habit_id WHERE h.user_id = ? AND hl.date BETWEEN ? AND ? "
+            + "ORDER BY hl.date DESC, hl.id DESC LIMIT 50";
+    private static final String PAGE_AFTER = "SELECT hl.id, hl.habit_id, hl.date, hl.completed FROM habit_logs hl "
+            + "WHERE hl.user_id = ? AND hl.date BETWEEN ? AND ? ORDER BY hl.date DESC, hl.id DESC LIMIT 50";
+    private static final String HABIT_RANGE = "SELECT hl.id, hl.habit_id, hl.date, hl.completed FROM habit_logs hl "
+            + "WHERE hl.habit_id = ? AND hl.date BETWEEN ? AND ? ORDER BY hl.date DESC";
+    private static final String HABIT_LIST = "SELECT h.id, h.title, h.description, h.frequency, h.color, h.created_at, "
+            + "h.current_streak, h.longest_streak, h.last_completed_date FROM habits h WHERE h.user_id = ? "
+            + "ORDER BY h.created_at DESC";
+
+    @Test
+    void v2IndexesServeTheHotReads() throws Exception {
+        String url = EmbeddedDatabase.createDatabase("plans_" + UUID.randomUUID().toString().replace("-", ""));
+        LocalDate today = LocalDate.now();
+        // The last 90 days
+        Date from = Date.valueOf(today.minusDays(90));
+        Date to = Date.valueOf(today);
+        StringBuilder report = new StringBuilder();
+        try (Connection connection = DriverManager.getConnection(url + "?rewriteBatchedStatements=true",
+                EmbeddedDatabase.USERNAME, EmbeddedDatabase.PASSWORD)) {
+            migrate(url, "1.1");
+            seed(connection, today);
+            report.append(String.format("Server %s; %d users, %d habits each, %d days of logs per habit%n",
+                    connection.getMetaData().getDatabaseProductVersion(), USERS, HABITS_PER_USER, DAYS));
+
+            report.append("\n== Before V2 (schema at V1.1) ==\n");
+            Map<String, List<Map<String, String>>> before = new LinkedHashMap<>();
+            before.put(PAGE, explain(connection, PAGE_BEFORE, USER_ID, from, to));
+            before.put(RANGE, explain(connection, HABIT_RANGE, HABIT_ID, from, to));
+            before.put(LIST, explain(connection, HABIT_LIST, USER_ID));
+            before.forEach((name, plan) -> append(report, name, plan));
+
+            migrate(url, "latest");
+            analyze(connection);
+            report.append("\n== Current schema (after V2 and V5) ==\n");
+            Map<String, List<Map<String, String>>> after = new LinkedHashMap<>();
+            after.put(PAGE, explain(connection, PAGE_AFTER, USER_ID, from, to));
+            after.put(RANGE, explain(connection, HABIT_RANGE, HABIT_ID, from, to));
+            after.put(LIST, explain(connection, HABIT_LIST, USER_ID));
+            after.forEach((name, plan) -> append(report, name, plan));
+
+            Path output = Path.of("target", "query-plans", "V2__habit_logs_user_id.txt");
+            Files.createDirectories(output.getParent());
+            Files.writeString(output, report, StandardCharsets.UTF_8);
+
+            List<Map<String, String>> page = after.get(PAGE);
+            assertThat(page).hasSize(1);
+            assertThat(page.get(0).get("key")).isEqualTo("idx_habit_logs_user_date");
+            assertThat(page.get(0).get("Extra")).contains("Using index").doesNotContain("filesort");
+            List<Map<String, String>> range = after.get(RANGE);
+            assertThat(range.get(0).get("key")).isEqualTo("uk_habit_logs_habit_date");
+            assertThat(range.get(0).get("type")).isEqualTo("range");
+            List<Map<String, String>> list = after.get(LIST);
+            assertThat(list.get(0).get("key")).isEqualTo("idx_habits_user_created");
+            assertThat(list.get(0).get("Extra")).doesNotContain("filesort");
+        }
+    }
+
+    private static void migrate(String url, String target) {
+        Flyway.configure()
+                .dataSource(url, EmbeddedDatabase.USERNAME, EmbeddedDatabase.PASSWORD)
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    private static void seed(Connection connection, LocalDate today) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (long user = 1; user <= USERS; user++) {
+                statement.addBatch("INSERT INTO users (id, name, email, password, created_at) VALUES (" + user
+                        + ", 'User', 'user" + user + "@example.com', 'hash', NOW())");
+                for (int habit = 0; habit < HABITS_PER_USER; habit++) {
+                    statement.addBatch("INSERT INTO habits (user_id, title, frequency, color, created_at) VALUES ("
+                            + user + ", 'Habit', 'DAILY', '#4C1D95', NOW() - INTERVAL " + habit + " DAY)");
+                }
+            }
+            statement.executeBatch();
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO habit_logs (habit_id, date, completed) VALUES (?, ?, ?)");
+             Statement statement = connection.createStatement();
+             ResultSet habits = statement.executeQuery("SELECT id FROM habits ORDER BY id")) {
+            while (habits.next()) {
+                for (int day = 0; day < DAYS; day++) {
+                    insert.setLong(1, habits.getLong(1));
+                    insert.setDate(2, Date.valueOf(today.minusDays(day)));
+                    insert.setBoolean(3, day % 4 != 2);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+        analyze(connection);
+    }
+
+    private static void analyze(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE TABLE users, habits, habit_logs");
+        }
+    }
+
+    private static List<Map<String, String>> explain(Connection connection, String sql, Object... parameters)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            List<Map<String, String>> rows = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                while (resultSet.next()) {
+                    Map<String, String> row = new LinkedHashMap<>();
+                    for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                        // Without the generated schema name, so recorded runs compare line by line
+                        String value = resultSet.getString(column);
+                        row.put(metaData.getColumnLabel(column),
+                                value == null ? null : value.replace(connection.getCatalog() + ".", ""));
+                    }
+                    rows.add(row);
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static void append(StringBuilder report, String name, List<Map<String, String>> plan) {
+        report.append('\n').append(name).append('\n');
+        List<String> columns = new ArrayList<>(plan.get(0).keySet());
+        int[] widths = columns.stream().mapToInt(String::length).toArray();
+        for (Map<String, String> row : plan) {
+            for (int i = 0; i < columns.size(); i++) {
+                widths[i] = Math.max(widths[i], String.valueOf(row.get(columns.get(i))).length());
+            }
+        }
+        appendRow(report, columns, widths);
+        for (Map<String, String> row : plan) {
+            appendRow(report, columns.stream().map(column -> String.valueOf(row.get(column))).toList(), widths);
+        }
+    }
+
+    private static void appendRow(StringBuilder report, List<String> values, int[] widths) {
+        StringBuilder line = new StringBuilder("|");
+        for (int i = 0; i < values.size(); i++) {
+            line.append(' ').append(String.format("%-" + widths[i] + "s", values.get(i))).append(" |");
+        }
+        report.append(line).append('\n');
+    }
+}
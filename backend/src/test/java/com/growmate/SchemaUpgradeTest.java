@@ -0,0 +1,89 @@
+package com.growmate;
+
+import com.growmate.model.Habit;
+import com.growmate.model.HabitRollup;
+import com.growmate.repository.HabitRepository;
+import com.growmate.repository.HabitRollupRepository;
+import com.growmate.repository.UserRepository;
+import com.growmate.support.EmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A database as the app left it before migrations: the V1 schema with data and no Flyway
+// history. Starting the current app on it must baseline, migrate and pass validation.
+class SchemaUpgradeTest {
+
+    @Test
+    void databaseFromBeforeMigrationsIsUpgradedAndBackfilled() throws Exception {
+        String url = EmbeddedDatabase.createDatabase("upgrade_" + UUID.randomUUID().toString().replace("-", ""));
+        LocalDate today = LocalDate.now();
+        try (Connection connection = DriverManager.getConnection(url, EmbeddedDatabase.USERNAME,
+                EmbeddedDatabase.PASSWORD);
+             Statement statement = connection.createStatement()) {
+            String baseline = new ClassPathResource("db/migration/V1__baseline.sql")
+                    .getContentAsString(StandardCharsets.UTF_8).replaceAll("(?m)^--.*$", "");
+            for (String ddl : baseline.split(";")) {
+                if (!ddl.isBlank()) {
+                    statement.execute(ddl);
+                }
+            }
+            statement.execute("INSERT INTO users (id, name, email, password, created_at) "
+                    + "VALUES (1, 'Legacy', 'legacy@example.com', 'not-a-bcrypt-hash', NOW())");
+            statement.execute("INSERT INTO habits (id, user_id, title, frequency, color, created_at) "
+                    + "VALUES (1, 1, 'Read', 'DAILY', '#4C1D95', NOW())");
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO habit_logs (habit_id, date, completed) VALUES (1, ?, ?)")) {
+                for (int day = 0; day < 4; day++) {
+                    insert.setDate(1, Date.valueOf(today.minusDays(day)));
+                    // Two completed days, a miss, then an older completion
+                    insert.setBoolean(2, day != 2);
+                    insert.executeUpdate();
+                }
+            }
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(GrowMateApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + EmbeddedDatabase.USERNAME,
+                        "--spring.datasource.password=" + EmbeddedDatabase.PASSWORD,
+                        "--app.jwt.secret=test-secret-test-secret-test-secret-test-secret-test-secret-0123456789",
+                        "--app.cors.allowed-origins=http://localhost",
+                        "--app.password.bcrypt-cost=4",
+                        "--app.rollups.reconcile-cron=-",
+                        "--app.archive.cron=-",
+                        "--app.jwt.refresh-cleanup-cron=-")) {
+            Habit habit = context.getBean(HabitRepository.class).findById(1L).orElseThrow();
+            assertThat(habit.getCurrentStreak()).isEqualTo(2);
+            assertThat(habit.getLongestStreak()).isEqualTo(2);
+            assertThat(habit.getLastCompletedDate()).isEqualTo(today);
+            assertThat(context.getBean(UserRepository.class).findDataVersionById(1L)).contains(0L);
+
+            List<HabitRollup> days = context.getBean(HabitRollupRepository.class)
+                    .findByUserIdAndPeriodAndBucketStartBetweenOrderByBucketStartAsc(1L, HabitRollup.Period.DAY,
+                            today.minusDays(3), today);
+            assertThat(days).extracting(HabitRollup::getBucketStart)
+                    .containsExactly(today.minusDays(3), today.minusDays(1), today);
+            List<HabitRollup> months = context.getBean(HabitRollupRepository.class)
+                    .findByUserIdAndPeriodAndBucketStartBetweenOrderByBucketStartAsc(1L, HabitRollup.Period.MONTH,
+                            today.minusDays(3).withDayOfMonth(1), today);
+            // The four days may straddle a month boundary
+            assertThat(months.stream().mapToInt(HabitRollup::getCompleted).sum()).isEqualTo(3);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.growmate.config;
+
+import com.growmate.dto.HabitRequest;
+import com.growmate.model.User;
+import com.growmate.support.EmbeddedDatabase;
+import com.growmate.support.IntegrationTest;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Primary on the shared embedded server, two replica schemas on a second one. Nothing
+// replicates, so each replica holds its own data and a response shows where it was read.
+class ReadWriteRoutingTest extends IntegrationTest {
+    private static final String REPLICA_A = replica("a");
+    private static final String REPLICA_B = replica("b");
+
+    @DynamicPropertySource
+    static void replicas(DynamicPropertyRegistry registry) {
+        registry.add("app.datasource.replicas.urls", () -> REPLICA_A + "," + REPLICA_B);
+    }
+
+    @Test
+    void etagAndBodyOfOneRequestComeFromTheSameReplica() throws SQLException {
+        User user = createUser();
+        copyUser(REPLICA_A, user, 7, "From A");
+        copyUser(REPLICA_B, user, 9, "From B");
+
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            ResponseEntity<List<Map<String, Object>>> response = rest.exchange("/habits", HttpMethod.GET,
+                    authorized(user, null), new ParameterizedTypeReference<>() {
+                    });
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            String title = (String) response.getBody().get(0).get("title");
+            String version = title.equals("From A") ? "7" : "9";
+            assertThat(response.getHeaders().getETag()).startsWith("W/\"" + user.getId() + "-" + version + "-");
+            seen.add(title);
+        }
+        assertThat(seen).containsExactlyInAnyOrder("From A", "From B");
+    }
+
+    @Test
+    void readsAfterAWriteStayOnThePrimary() throws SQLException {
+        User user = createUser();
+        copyUser(REPLICA_A, user, 0, "Stale");
+        copyUser(REPLICA_B, user, 0, "Stale");
+
+        HabitRequest request = new HabitRequest();
+        request.setTitle("Fresh");
+        assertThat(rest.postForEntity("/habits", authorized(user, request), Map.class).getStatusCode().is2xxSuccessful())
+                .isTrue();
+
+        for (int i = 0; i < 2; i++) {
+            ResponseEntity<List<Map<String, Object>>> response = rest.exchange("/habits", HttpMethod.GET,
+                    authorized(user, null), new ParameterizedTypeReference<>() {
+                    });
+            assertThat(response.getBody()).extracting(habit -> habit.get("title")).containsExactly("Fresh");
+        }
+    }
+
+    @Test
+    void replicaFailingItsHealthCheckIsEjected() throws SQLException {
+        // Lag checking on: the replica schema is not replicating, so the probe rejects it
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(pool(EmbeddedDatabase.url()),
+                List.of(pool(REPLICA_A)), new ReadYourWritesTracker(0), 0);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            assertThat(databaseOf(routing)).isEqualTo(databaseName(REPLICA_A));
+            routing.checkReplicas();
+            assertThat(databaseOf(routing)).isEqualTo(databaseName(EmbeddedDatabase.url()));
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            routing.close();
+        }
+    }
+
+    private static String replica(String name) {
+        String url = EmbeddedDatabase.createReplicaDatabase(
+                "replica_" + name + "_" + UUID.randomUUID().toString().replace("-", ""));
+        Flyway.configure().dataSource(url, EmbeddedDatabase.USERNAME, EmbeddedDatabase.PASSWORD).load().migrate();
+        return url;
+    }
+
+    private static void copyUser(String replicaUrl, User user, long dataVersion, String habitTitle)
+            throws SQLException {
+        try (Connection connection = DriverManager.getConnection(replicaUrl, EmbeddedDatabase.USERNAME,
+                EmbeddedDatabase.PASSWORD)) {
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO users "
+                    + "(id, name, email, password, created_at, data_version) VALUES (?, ?, ?, ?, NOW(), ?)")) {
+                insert.setLong(1, user.getId());
+                insert.setString(2, user.getName());
+                insert.setString(3, user.getEmail());
+                insert.setString(4, user.getPassword());
+                insert.setLong(5, dataVersion);
+                insert.executeUpdate();
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO habits "
+                    + "(user_id, title, frequency, color, created_at) VALUES (?, ?, 'DAILY', '#4C1D95', NOW())")) {
+                insert.setLong(1, user.getId());
+                insert.setString(2, habitTitle);
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    private static HikariDataSource pool(String url) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(url);
+        pool.setUsername(EmbeddedDatabase.USERNAME);
+        pool.setPassword(EmbeddedDatabase.PASSWORD);
+        pool.setMaximumPoolSize(2);
+        return pool;
+    }
+
+    private static String databaseOf(ReadWriteRoutingDataSource routing) throws SQLException {
+        try (Connection connection = routing.getConnection()) {
+            return connection.getCatalog();
+        }
+    }
+
+    private static String databaseName(String url) {
+        return url.substring(url.lastIndexOf('/') + 1);
+    }
+}
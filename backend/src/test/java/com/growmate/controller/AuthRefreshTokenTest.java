@@ -0,0 +1,156 @@
+package com.growmate.controller;
+
+import com.growmate.support.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthRefreshTokenTest extends IntegrationTest {
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON = new ParameterizedTypeReference<>() {};
+    private static final String PASSWORD = "correct horse";
+
+    // The default HttpURLConnection client can't read a 401 answer to a POST
+    private TestRestTemplate client;
+
+    @BeforeEach
+    void createClient() {
+        client = new TestRestTemplate(new RestTemplateBuilder()
+                .rootUri(rest.getRootUri())
+                .requestFactory(() -> new JdkClientHttpRequestFactory()));
+    }
+
+    @Test
+    void refreshRotatesTheTokenPair() {
+        Map<String, Object> session = login(signup());
+
+        Map<String, Object> rotated = refresh(session.get("refreshToken")).getBody();
+
+        assertThat(rotated.get("refreshToken")).isNotNull().isNotEqualTo(session.get("refreshToken"));
+        assertThat(rotated.get("id")).isEqualTo(session.get("id"));
+        assertThat(habits(rotated.get("token"))).isEqualTo(HttpStatus.OK);
+        // The previous access token stays valid until it expires
+        assertThat(habits(session.get("token"))).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void reusedRefreshTokenRevokesTheWholeSession() {
+        String email = signup();
+        Map<String, Object> session = login(email);
+        Map<String, Object> rotated = refresh(session.get("refreshToken")).getBody();
+        Map<String, Object> latest = refresh(rotated.get("refreshToken")).getBody();
+
+        // Its successor has been used, so this is not a second tab catching up
+        ResponseEntity<Map<String, Object>> reuse = refresh(session.get("refreshToken"));
+
+        assertThat(reuse.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        // The legitimate successor and every access token of the session stop working too
+        assertThat(refresh(latest.get("refreshToken")).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(habits(latest.get("token"))).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(habits(session.get("token"))).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void simultaneousRefreshesGetTheSameSuccessor() throws Exception {
+        Map<String, Object> session = login(signup());
+
+        List<Future<ResponseEntity<Map<String, Object>>>> refreshes = new ArrayList<>();
+        ExecutorService tabs = Executors.newFixedThreadPool(2);
+        try {
+            for (int tab = 0; tab < 2; tab++) {
+                refreshes.add(tabs.submit(() -> refresh(session.get("refreshToken"))));
+            }
+            Map<String, Object> first = refreshes.get(0).get().getBody();
+            Map<String, Object> second = refreshes.get(1).get().getBody();
+
+            assertThat(refreshes.get(0).get().getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(refreshes.get(1).get().getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(second.get("refreshToken")).isEqualTo(first.get("refreshToken"));
+            assertThat(habits(first.get("token"))).isEqualTo(HttpStatus.OK);
+            assertThat(habits(second.get("token"))).isEqualTo(HttpStatus.OK);
+            assertThat(refresh(first.get("refreshToken")).getStatusCode()).isEqualTo(HttpStatus.OK);
+        } finally {
+            tabs.shutdown();
+        }
+    }
+
+    @Test
+    void reuseInOneSessionLeavesOtherSessionsAlone() {
+        String email = signup();
+        Map<String, Object> phone = login(email);
+        Map<String, Object> laptop = login(email);
+        Map<String, Object> rotated = refresh(phone.get("refreshToken")).getBody();
+        refresh(rotated.get("refreshToken"));
+
+        refresh(phone.get("refreshToken"));
+
+        assertThat(habits(laptop.get("token"))).isEqualTo(HttpStatus.OK);
+        assertThat(refresh(laptop.get("refreshToken")).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void logoutEndsTheSession() {
+        Map<String, Object> session = login(signup());
+
+        ResponseEntity<Void> logout = client.postForEntity("/auth/logout",
+                Map.of("refreshToken", session.get("refreshToken")), Void.class);
+
+        assertThat(logout.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(refresh(session.get("refreshToken")).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(habits(session.get("token"))).isEqualTo(HttpStatus.UNAUTHORIZED);
+        // Logging out again, or with a token the server never issued, is not an error
+        assertThat(client.postForEntity("/auth/logout", Map.of("refreshToken", session.get("refreshToken")),
+                Void.class).getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(client.postForEntity("/auth/logout", Map.of("refreshToken", "unknown"), Void.class)
+                .getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+    }
+
+    @Test
+    void unknownRefreshTokenIsRejected() {
+        assertThat(refresh("not-a-token").getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    private String signup() {
+        String email = "user-" + UUID.randomUUID() + "@example.com";
+        ResponseEntity<Map<String, Object>> response = client.exchange("/auth/signup", HttpMethod.POST,
+                new HttpEntity<>(Map.of("name", "Test user", "email", email, "password", PASSWORD)), JSON);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return email;
+    }
+
+    private Map<String, Object> login(String email) {
+        ResponseEntity<Map<String, Object>> response = client.exchange("/auth/login", HttpMethod.POST,
+                new HttpEntity<>(Map.of("email", email, "password", PASSWORD)), JSON);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+
+    private ResponseEntity<Map<String, Object>> refresh(Object refreshToken) {
+        return client.exchange("/auth/refresh", HttpMethod.POST,
+                new HttpEntity<>(Map.of("refreshToken", refreshToken)), JSON);
+    }
+
+    private HttpStatus habits(Object accessToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth((String) accessToken);
+        return HttpStatus.valueOf(client.exchange("/habits", HttpMethod.GET, new HttpEntity<>(headers), String.class)
+                .getStatusCode().value());
+    }
+}
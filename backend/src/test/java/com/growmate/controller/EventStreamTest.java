@@ -0,0 +1,236 @@
+package com.growmate.controller;
+
+import com.growmate.dto.ChangeEvent;
+import com.growmate.dto.HabitLogResponse;
+import com.growmate.model.User;
+import com.growmate.security.UserPrincipal;
+import com.growmate.service.ChangeEventService;
+import com.growmate.support.IntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Streams are read over real connections. The heartbeat is left to the tests, and a write
+// counts as stalled after 200 ms.
+@TestPropertySource(properties = {
+        "app.events.heartbeat-ms=3600000",
+        "app.events.slow-consumer-ms=200"
+})
+class EventStreamTest extends IntegrationTest {
+
+    private static final Event END = new Event(null, "end");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ChangeEventService changeEventService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void reconnectReplaysWhatWasMissed() throws Exception {
+        User user = createUser();
+        String first;
+        try (EventStream stream = open(user, null)) {
+            assertThat(stream.next().name()).isEqualTo("ready");
+            changeEventService.publish(user.getId(), ChangeEvent.habitDeleted(1L));
+            first = stream.next().id();
+        }
+        changeEventService.publish(user.getId(), ChangeEvent.habitDeleted(2L));
+        changeEventService.publish(user.getId(), ChangeEvent.habitDeleted(3L));
+
+        try (EventStream stream = open(user, first)) {
+            Event second = stream.next();
+            Event third = stream.next();
+            assertThat(second.name()).isEqualTo("habit.deleted");
+            assertThat(third.name()).isEqualTo("habit.deleted");
+            assertThat(stream.next().name()).isEqualTo("ready");
+            assertThat(List.of(first, second.id(), third.id())).doesNotHaveDuplicates();
+        }
+    }
+
+    @Test
+    void unknownOrTooOldIdGetsReset() throws Exception {
+        User user = createUser();
+        try (EventStream stream = open(user, "0-1")) {
+            assertThat(stream.next().name()).isEqualTo("reset");
+        }
+
+        String ready;
+        try (EventStream stream = open(user, null)) {
+            ready = stream.next().id();
+        }
+        // More than a buffer's worth missed is cheaper to refetch than to replay
+        for (long habitId = 0; habitId < 100; habitId++) {
+            changeEventService.publish(user.getId(), ChangeEvent.habitDeleted(habitId));
+        }
+        try (EventStream stream = open(user, ready)) {
+            assertThat(stream.next().name()).isEqualTo("reset");
+        }
+    }
+
+    @Test
+    void oldestConnectionIsEvictedBeyondTheLimit() throws Exception {
+        User user = createUser();
+        List<EventStream> streams = new ArrayList<>();
+        try {
+            for (int i = 0; i < 11; i++) {
+                EventStream stream = open(user, null);
+                streams.add(stream);
+                assertThat(stream.next().name()).isEqualTo("ready");
+            }
+
+            assertThat(streams.get(0).next()).isEqualTo(END);
+            changeEventService.publish(user.getId(), ChangeEvent.habitDeleted(1L));
+            assertThat(streams.get(10).next().name()).isEqualTo("habit.deleted");
+        } finally {
+            streams.forEach(EventStream::close);
+        }
+    }
+
+    @Test
+    void stalledClientsDoNotHoldUpOtherUsers() throws Exception {
+        User stalledUser = createUser();
+        User user = createUser();
+        double evictionsBefore = evictions();
+        List<Socket> stalled = new ArrayList<>();
+        try (EventStream stream = open(user, null)) {
+            assertThat(stream.next().name()).isEqualTo("ready");
+            // More stalled clients than sender threads, each with megabytes it will never read
+            for (int i = 0; i < 6; i++) {
+                stalled.add(openUnread(stalledUser));
+            }
+            List<HabitLogResponse> logs = new ArrayList<>();
+            for (long id = 0; id < 20_000; id++) {
+                logs.add(new HabitLogResponse(id, 1L, LocalDate.of(2024, 1, 1), true));
+            }
+            for (int i = 0; i < 16; i++) {
+                changeEventService.publish(stalledUser.getId(), ChangeEvent.logsChanged(logs));
+            }
+
+            long deadline = System.currentTimeMillis() + 20_000;
+            while (evictions() < evictionsBefore + stalled.size() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+                changeEventService.heartbeat();
+            }
+            assertThat(evictions()).isEqualTo(evictionsBefore + stalled.size());
+
+            changeEventService.publish(user.getId(), ChangeEvent.habitDeleted(1L));
+            assertThat(stream.next().name()).isEqualTo("habit.deleted");
+        } finally {
+            for (Socket socket : stalled) {
+                socket.close();
+            }
+        }
+    }
+
+    private double evictions() {
+        return meterRegistry.counter("growmate.events.evictions").count();
+    }
+
+    private EventStream open(User user, String lastEventId) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/events"))
+                .header("Authorization", "Bearer " + token(user))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        // A client per stream, so a closed stream's connection is never reused
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                .send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return new EventStream(response.body());
+    }
+
+    // Reads up to the ready event, then never reads again, with a receive buffer as small as allowed
+    private Socket openUnread(User user) throws Exception {
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(1024);
+        socket.setSoTimeout(10_000);
+        socket.connect(new InetSocketAddress("localhost", port));
+        OutputStream out = socket.getOutputStream();
+        out.write(("GET /api/events HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n"
+                + "Authorization: Bearer " + token(user) + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        InputStream in = socket.getInputStream();
+        StringBuilder received = new StringBuilder();
+        while (!received.toString().contains("event:ready")) {
+            int b = in.read();
+            assertThat(b).isNotEqualTo(-1);
+            received.append((char) b);
+        }
+        return socket;
+    }
+
+    private String token(User user) {
+        return jwtUtils.generateJwtToken(UserPrincipal.create(user));
+    }
+
+    private record Event(String id, String name) {
+    }
+
+    // Parses the stream on a background thread; END once the server closes it
+    private static final class EventStream implements AutoCloseable {
+        private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+        private final Stream<String> lines;
+
+        private EventStream(Stream<String> lines) {
+            this.lines = lines;
+            Thread reader = new Thread(() -> {
+                String[] current = new String[2];
+                try {
+                    lines.forEach(line -> {
+                        if (line.startsWith("id:")) {
+                            current[0] = line.substring(3).strip();
+                        } else if (line.startsWith("event:")) {
+                            current[1] = line.substring(6).strip();
+                        } else if (line.isEmpty() && current[1] != null) {
+                            events.add(new Event(current[0], current[1]));
+                            current[0] = null;
+                            current[1] = null;
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    // Closed by the test
+                }
+                events.add(END);
+            });
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private Event next() throws InterruptedException {
+            Event event = events.poll(10, TimeUnit.SECONDS);
+            assertThat(event).as("event within 10 s").isNotNull();
+            return event;
+        }
+
+        @Override
+        public void close() {
+            lines.close();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.growmate.controller;
+
+import com.growmate.model.Habit;
+import com.growmate.model.HabitLog;
+import com.growmate.model.User;
+import com.growmate.repository.HabitCalendarRepository;
+import com.growmate.repository.HabitLogRepository;
+import com.growmate.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HabitCalendarEndpointTest extends IntegrationTest {
+
+    @Autowired
+    private HabitLogRepository habitLogRepository;
+
+    @Autowired
+    private HabitCalendarRepository habitCalendarRepository;
+
+    @Test
+    void missingYearIsComputedFromLogsWithoutBeingStored() {
+        User user = createUser();
+        Habit habit = createHabit(user, "Walk");
+        LocalDate day = LocalDate.of(2021, 3, 4);
+        habitLogRepository.save(new HabitLog(null, habit, user.getId(), day, true));
+
+        ResponseEntity<Map<String, Object>> response = rest.exchange(
+                "/habit-logs/habit/" + habit.getId() + "/calendar?year=2021", HttpMethod.GET,
+                authorized(user, null), new ParameterizedTypeReference<>() {
+                });
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        byte[] days = Base64.getDecoder().decode((String) response.getBody().get("days"));
+        int bit = day.getDayOfYear() - 1;
+        assertThat(days[bit >> 3] & (1 << (bit & 7))).isNotZero();
+        assertThat(habitCalendarRepository.findByHabitIdAndYear(habit.getId(), 2021)).isEmpty();
+    }
+
+    @Test
+    void outOfRangeYearIsRejected() {
+        User user = createUser();
+        Habit habit = createHabit(user, "Walk");
+
+        for (String year : new String[] {"0", "-5", "10000", "2147483647"}) {
+            ResponseEntity<String> response = rest.exchange(
+                    "/habit-logs/habit/" + habit.getId() + "/calendar?year=" + year, HttpMethod.GET,
+                    authorized(user, null), String.class);
+            assertThat(response.getStatusCode()).as("year %s", year).isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.growmate.controller;
+
+import com.growmate.config.ReadYourWritesTracker;
+import com.growmate.model.Habit;
+import com.growmate.model.User;
+import com.growmate.repository.HabitLogRepository;
+import com.growmate.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The scheduled flush is pushed out of the way, so toggles stay pending until a request flushes them
+@TestPropertySource(properties = {
+        "app.toggles.write-behind.enabled=true",
+        "app.toggles.write-behind.flush-ms=3600000",
+        "app.toggles.write-behind.journal-dir=target/toggle-journal-test"
+})
+class HabitLogBulkWriteBehindTest extends IntegrationTest {
+
+    @Autowired
+    private HabitLogRepository habitLogRepository;
+
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @Test
+    void bulkWriteSeesPendingTogglesOfTheUser() {
+        User user = createUser();
+        Habit habit = createHabit(user, "Cycle");
+        LocalDate today = LocalDate.now();
+
+        ResponseEntity<String> toggle = rest.exchange("/habit-logs/toggle", HttpMethod.POST,
+                authorized(user, Map.of("habitId", habit.getId(), "date", today.toString())), String.class);
+        assertThat(toggle.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(habitLogRepository.findByHabitIdAndDate(habit.getId(), today)).isEmpty();
+
+        Map<String, Object> operation = Map.of("habitId", habit.getId(), "date", today.minusDays(1).toString(),
+                "completed", true);
+        ResponseEntity<String> bulk = rest.exchange("/habit-logs/bulk", HttpMethod.POST,
+                authorized(user, Map.of("operations", List.of(operation))), String.class);
+
+        assertThat(bulk.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(habitLogRepository.findByHabitIdAndDate(habit.getId(), today).orElseThrow().getCompleted())
+                .isTrue();
+        // The streak is recomputed inside the bulk transaction, so it only covers today if the
+        // flushed toggle was visible to it
+        assertThat(habitRepository.findById(habit.getId()).orElseThrow().getCurrentStreak()).isEqualTo(2);
+    }
+
+    @Test
+    void bulkWriteWinsOverAPendingToggleOfTheSameDay() {
+        User user = createUser();
+        Habit habit = createHabit(user, "Swim");
+        LocalDate today = LocalDate.now();
+        rest.exchange("/habit-logs/toggle", HttpMethod.POST,
+                authorized(user, Map.of("habitId", habit.getId(), "date", today.toString())), String.class);
+
+        Map<String, Object> operation = Map.of("habitId", habit.getId(), "date", today.toString(), "completed", false);
+        rest.exchange("/habit-logs/bulk", HttpMethod.POST, authorized(user, Map.of("operations", List.of(operation))),
+                String.class);
+
+        assertThat(habitLogRepository.findByHabitIdAndDate(habit.getId(), today).orElseThrow().getCompleted())
+                .isFalse();
+        assertThat(habitRepository.findById(habit.getId()).orElseThrow().getCurrentStreak()).isZero();
+    }
+
+    @Test
+    void acknowledgedToggleChangesTheEtagAndPinsReadsToThePrimary() {
+        User user = createUser();
+        Habit habit = createHabit(user, "Stretch");
+        String etag = rest.exchange("/habits", HttpMethod.GET, authorized(user, null), String.class)
+                .getHeaders().getETag();
+
+        rest.exchange("/habit-logs/toggle", HttpMethod.POST,
+                authorized(user, Map.of("habitId", habit.getId(), "date", LocalDate.now().toString())), String.class);
+
+        // Still unflushed, yet the cached copy is no longer current
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(authorized(user, null).getHeaders());
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<String> habits = rest.exchange("/habits", HttpMethod.GET, new HttpEntity<>(headers),
+                String.class);
+        assertThat(habits.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(habits.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(readYourWritesTracker.recentlyWrote(user.getId())).isTrue();
+    }
+
+    @Test
+    void bulkWriteCostsTheSameForAnyNumberOfHabits() {
+        User user = createUser();
+        List<Habit> habits = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            habits.add(createHabit(user, "Habit " + i));
+        }
+
+        String one = bulkQueryCount(user, habits.subList(0, 1));
+        assertThat(one).isNotNull();
+        assertThat(bulkQueryCount(user, habits.subList(1, 8))).isEqualTo(one);
+    }
+
+    private String bulkQueryCount(User user, List<Habit> habits) {
+        List<Map<String, Object>> operations = new ArrayList<>();
+        for (Habit habit : habits) {
+            for (int daysAgo = 0; daysAgo < 3; daysAgo++) {
+                operations.add(Map.of("habitId", habit.getId(), "date", LocalDate.now().minusDays(daysAgo).toString(),
+                        "completed", true));
+            }
+        }
+        ResponseEntity<String> bulk = rest.exchange("/habit-logs/bulk", HttpMethod.POST,
+                authorized(user, Map.of("operations", operations)), String.class);
+        assertThat(bulk.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return bulk.getHeaders().getFirst("X-Query-Count");
+    }
+}
@@ -0,0 +1,109 @@
+package com.growmate.controller;
+
+import com.growmate.config.ColumnarHabitLogHttpMessageConverter;
+import com.growmate.model.Habit;
+import com.growmate.model.HabitLog;
+import com.growmate.model.User;
+import com.growmate.repository.HabitLogRepository;
+import com.growmate.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HabitLogFormatsTest extends IntegrationTest {
+
+    @Autowired
+    private HabitLogRepository habitLogRepository;
+
+    @Test
+    void columnarAcceptGetsParallelArrays() {
+        User user = createUser();
+        Habit habit = createHabit(user, "Walk");
+        LocalDate today = LocalDate.now();
+        HabitLog newer = habitLogRepository.save(new HabitLog(null, habit, user.getId(), today, true));
+        HabitLog older = habitLogRepository.save(new HabitLog(null, habit, user.getId(), today.minusDays(1), false));
+
+        ResponseEntity<Map<String, List<Object>>> response = rest.exchange("/habit-logs", HttpMethod.GET,
+                accepting(user, ColumnarHabitLogHttpMessageConverter.COLUMNAR_JSON), new ParameterizedTypeReference<>() {
+                });
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(
+                ColumnarHabitLogHttpMessageConverter.COLUMNAR_JSON)).isTrue();
+        assertThat(response.getBody()).containsOnlyKeys("id", "habitId", "date", "completed");
+        assertThat(response.getBody().get("id")).extracting(id -> ((Number) id).longValue())
+                .containsExactly(newer.getId(), older.getId());
+        assertThat(response.getBody().get("habitId")).extracting(id -> ((Number) id).longValue())
+                .containsExactly(habit.getId(), habit.getId());
+        assertThat(response.getBody().get("date")).containsExactly(today.toString(), today.minusDays(1).toString());
+        assertThat(response.getBody().get("completed")).containsExactly(1, 0);
+    }
+
+    @Test
+    void wildcardAcceptStaysOnPlainJson() {
+        User user = createUser();
+        Habit habit = createHabit(user, "Read");
+        habitLogRepository.save(new HabitLog(null, habit, user.getId(), LocalDate.now(), true));
+
+        ResponseEntity<List<Map<String, Object>>> response = rest.exchange("/habit-logs", HttpMethod.GET,
+                accepting(user, MediaType.ALL), new ParameterizedTypeReference<>() {
+                });
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(response.getBody()).singleElement().satisfies(log -> assertThat(log.get("completed")).isEqualTo(true));
+    }
+
+    @Test
+    void largePageIsGzippedAndKeepsItsEtag() throws IOException {
+        User user = createUser();
+        Habit habit = createHabit(user, "Run");
+        LocalDate today = LocalDate.now();
+        habitLogRepository.saveAll(IntStream.range(0, 100)
+                .mapToObj(day -> new HabitLog(null, habit, user.getId(), today.minusDays(day), day % 3 != 0))
+                .toList());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(accepting(user, MediaType.APPLICATION_JSON).getHeaders());
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        ResponseEntity<byte[]> response = rest.exchange("/habit-logs", HttpMethod.GET, new HttpEntity<>(headers),
+                byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        String etag = response.getHeaders().getETag();
+        assertThat(etag).startsWith("W/\"");
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            assertThat(new String(body.readAllBytes(), StandardCharsets.UTF_8)).startsWith("[{");
+        }
+
+        headers.setIfNoneMatch(etag);
+        assertThat(rest.exchange("/habit-logs", HttpMethod.GET, new HttpEntity<>(headers), byte[].class)
+                .getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    private HttpEntity<Void> accepting(User user, MediaType mediaType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(authorized(user, null).getHeaders());
+        headers.setAccept(List.of(mediaType));
+        return new HttpEntity<>(headers);
+    }
+}
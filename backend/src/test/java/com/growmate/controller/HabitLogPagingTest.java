@@ -0,0 +1,90 @@
+package com.growmate.controller;
+
+import com.growmate.model.Habit;
+import com.growmate.model.HabitLog;
+import com.growmate.model.User;
+import com.growmate.repository.HabitLogRepository;
+import com.growmate.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HabitLogPagingTest extends IntegrationTest {
+    private static final ParameterizedTypeReference<List<Map<String, Object>>> LOGS =
+            new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private HabitLogRepository habitLogRepository;
+
+    @Test
+    void followingTheCursorReturnsEveryLogOnceNewestFirst() {
+        User user = createUser();
+        Habit first = createHabit(user, "Walk");
+        Habit second = createHabit(user, "Journal");
+        LocalDate today = LocalDate.now();
+        // Both habits log the same days, so pages split between rows that share a date
+        List<HabitLog> saved = new ArrayList<>();
+        for (int day = 0; day < 12; day++) {
+            saved.add(habitLogRepository.save(new HabitLog(null, first, user.getId(), today.minusDays(day), true)));
+            saved.add(habitLogRepository.save(new HabitLog(null, second, user.getId(), today.minusDays(day), day % 2 == 0)));
+        }
+        List<Long> expected = saved.stream()
+                .sorted(Comparator.comparing(HabitLog::getDate).thenComparing(HabitLog::getId).reversed())
+                .map(HabitLog::getId)
+                .toList();
+
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String url = "/habit-logs?limit=5" + (cursor != null ? "&cursor=" + cursor : "");
+            ResponseEntity<List<Map<String, Object>>> response =
+                    rest.exchange(url, HttpMethod.GET, authorized(user, null), LOGS);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            response.getBody().forEach(log -> ids.add(((Number) log.get("id")).longValue()));
+            cursor = response.getHeaders().getFirst("X-Next-Cursor");
+            pages++;
+        } while (cursor != null);
+
+        assertThat(ids).containsExactlyElementsOf(expected);
+        // 24 rows in pages of 5: four full pages, then a short one without a cursor
+        assertThat(pages).isEqualTo(5);
+    }
+
+    @Test
+    void streamReturnsTheWholeHistoryInOneResponse() {
+        User user = createUser();
+        Habit habit = createHabit(user, "Run");
+        LocalDate today = LocalDate.now();
+        for (int day = 0; day < 30; day++) {
+            habitLogRepository.save(new HabitLog(null, habit, user.getId(), today.minusDays(day), true));
+        }
+
+        ResponseEntity<List<Map<String, Object>>> response =
+                rest.exchange("/habit-logs/stream", HttpMethod.GET, authorized(user, null), LOGS);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(30);
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        User user = createUser();
+
+        ResponseEntity<String> response = rest.exchange("/habit-logs?cursor=yesterday", HttpMethod.GET,
+                authorized(user, null), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
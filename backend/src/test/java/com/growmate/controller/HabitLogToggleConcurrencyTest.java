@@ -0,0 +1,137 @@
+package com.growmate.controller;
+
+import com.growmate.model.Habit;
+import com.growmate.model.HabitCalendar;
+import com.growmate.model.HabitLog;
+import com.growmate.model.User;
+import com.growmate.repository.HabitCalendarRepository;
+import com.growmate.repository.HabitLogRepository;
+import com.growmate.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HabitLogToggleConcurrencyTest extends IntegrationTest {
+    private static final int THREADS = 8;
+    private static final int TOGGLES_PER_THREAD = 5;
+
+    @Autowired
+    private HabitLogRepository habitLogRepository;
+
+    @Autowired
+    private HabitCalendarRepository habitCalendarRepository;
+
+    @Test
+    void concurrentTogglesOfOneDayAllSucceedAndLeaveConsistentState() throws Exception {
+        User user = createUser();
+        Habit habit = createHabit(user, "Stretch");
+        LocalDate today = LocalDate.now();
+        Map<String, Object> body = Map.of("habitId", habit.getId(), "date", today.toString());
+
+        List<HttpStatus> statuses = toggleConcurrently(user, Collections.nCopies(THREADS * TOGGLES_PER_THREAD, body));
+
+        assertThat(statuses).containsOnly(HttpStatus.OK);
+        // An even number of flips leaves the day where it started
+        boolean expected = (THREADS * TOGGLES_PER_THREAD) % 2 == 1;
+        HabitLog log = habitLogRepository.findByHabitIdAndDate(habit.getId(), today).orElseThrow();
+        assertThat(log.getCompleted()).isEqualTo(expected);
+        assertThat(calendarBit(habit.getId(), today)).isEqualTo(expected);
+        assertThat(habitRepository.findById(habit.getId()).orElseThrow().getCurrentStreak())
+                .isEqualTo(expected ? 1 : 0);
+    }
+
+    @Test
+    void oddNumberOfConcurrentTogglesCompletesTheDay() throws Exception {
+        User user = createUser();
+        Habit habit = createHabit(user, "Read");
+        LocalDate today = LocalDate.now();
+        Map<String, Object> body = Map.of("habitId", habit.getId(), "date", today.toString());
+
+        List<HttpStatus> statuses = toggleConcurrently(user,
+                Collections.nCopies(THREADS * TOGGLES_PER_THREAD + 1, body));
+
+        assertThat(statuses).containsOnly(HttpStatus.OK);
+        assertThat(habitLogRepository.findByHabitIdAndDate(habit.getId(), today).orElseThrow().getCompleted())
+                .isTrue();
+        assertThat(calendarBit(habit.getId(), today)).isTrue();
+        assertThat(habitRepository.findById(habit.getId()).orElseThrow().getCurrentStreak()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentTogglesOfOneUsersHabitsAllSucceed() throws Exception {
+        User user = createUser();
+        List<Habit> habits = List.of(createHabit(user, "Walk"), createHabit(user, "Cook"), createHabit(user, "Sleep"));
+        LocalDate today = LocalDate.now();
+        // Different habits of the same user share only the user row, which every toggle bumps
+        List<Map<String, Object>> bodies = new ArrayList<>();
+        for (int i = 0; i < THREADS * TOGGLES_PER_THREAD; i++) {
+            Habit habit = habits.get(i % habits.size());
+            bodies.add(Map.of("habitId", habit.getId(), "date", today.minusDays(i / habits.size()).toString()));
+        }
+
+        List<HttpStatus> statuses = toggleConcurrently(user, bodies);
+
+        assertThat(statuses).containsOnly(HttpStatus.OK);
+        for (Map<String, Object> body : bodies) {
+            assertThat(habitLogRepository.findByHabitIdAndDate((Long) body.get("habitId"),
+                    LocalDate.parse((String) body.get("date"))).orElseThrow().getCompleted()).isTrue();
+        }
+    }
+
+    @Test
+    void toggleOfAnotherUsersHabitIsNotFound() {
+        User owner = createUser();
+        Habit habit = createHabit(owner, "Private");
+        User other = createUser();
+
+        ResponseEntity<String> response = rest.exchange("/habit-logs/toggle", HttpMethod.POST,
+                authorized(other, Map.of("habitId", habit.getId())), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(habitLogRepository.findByHabitIdAndDate(habit.getId(), LocalDate.now())).isEmpty();
+    }
+
+    private List<HttpStatus> toggleConcurrently(User user, List<Map<String, Object>> bodies) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<HttpStatus>> futures = new ArrayList<>();
+            for (Map<String, Object> body : bodies) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return HttpStatus.valueOf(rest.exchange("/habit-logs/toggle", HttpMethod.POST,
+                            authorized(user, body), String.class).getStatusCode().value());
+                }));
+            }
+            start.countDown();
+            List<HttpStatus> statuses = new ArrayList<>();
+            for (Future<HttpStatus> future : futures) {
+                statuses.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean calendarBit(Long habitId, LocalDate date) {
+        HabitCalendar calendar = habitCalendarRepository.findByHabitIdAndYear(habitId, date.getYear()).orElseThrow();
+        int bit = date.getDayOfYear() - 1;
+        return (calendar.getDays()[bit >> 3] & (1 << (bit & 7))) != 0;
+    }
+}
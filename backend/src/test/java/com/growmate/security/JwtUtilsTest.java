@@ -0,0 +1,48 @@
+package com.growmate.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilsTest {
+    private static final long TTL_MS = 900_000;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JwtUtils jwtUtils = new JwtUtils(meterRegistry, new AccessTokenRevocations(TTL_MS, meterRegistry));
+
+    @Test
+    void fullCacheEvictsTheLeastRecentlyUsedToken() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret",
+                "test-secret-test-secret-test-secret-test-secret-test-secret-0123456789");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", TTL_MS);
+        ReflectionTestUtils.setField(jwtUtils, "tokenCacheSize", 2);
+        jwtUtils.init();
+        String first = token(1);
+        String second = token(2);
+        String third = token(3);
+
+        jwtUtils.getPrincipalFromJwtToken(first);
+        jwtUtils.getPrincipalFromJwtToken(second);
+        // Touching first makes second the eldest
+        jwtUtils.getPrincipalFromJwtToken(first);
+        // A new session is still cached when the cache is full
+        jwtUtils.getPrincipalFromJwtToken(third);
+        jwtUtils.getPrincipalFromJwtToken(third);
+        jwtUtils.getPrincipalFromJwtToken(first);
+        assertThat(count("cached")).isEqualTo(3);
+
+        assertThat(jwtUtils.getPrincipalFromJwtToken(second)).get()
+                .extracting(UserPrincipal::getId).isEqualTo(2L);
+        assertThat(count("valid")).isEqualTo(4);
+    }
+
+    private String token(long userId) {
+        return jwtUtils.generateJwtToken(new UserPrincipal(userId, "User " + userId, userId + "@example.com", null));
+    }
+
+    private long count(String result) {
+        return meterRegistry.get("growmate.jwt.verification").tag("result", result).timer().count();
+    }
+}
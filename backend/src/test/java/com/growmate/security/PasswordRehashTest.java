@@ -0,0 +1,93 @@
+package com.growmate.security;
+
+import com.growmate.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class PasswordRehashTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void rehashIsDroppedInsteadOfRejectedWhenThePoolIsBusy() throws Exception {
+        // One thread, one queue slot, and hashes of "slow" hold the thread until released
+        encoder = new BoundedPasswordEncoder(new GatedEncoder(release), 1, 1, meterRegistry);
+        List<String> encoded = new CopyOnWriteArrayList<>();
+        encoder.encodeLater("slow", encoded::add);
+        encoder.encodeLater("queued", encoded::add);
+
+        encoder.encodeLater("dropped", encoded::add);
+        assertThat(meterRegistry.counter("growmate.password.rehash.deferred").count()).isEqualTo(1);
+        // A login in the same state is turned away
+        assertThatThrownBy(() -> encoder.encode("login")).isInstanceOf(PasswordHashingBusyException.class);
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (encoded.size() < 2 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertThat(encoded).containsExactly("slow", "queued");
+    }
+
+    @Test
+    void loginWithAnOutdatedHashRehashesAfterwards() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 1, meterRegistry);
+        UserPrincipal user = new UserPrincipal(1L, "Legacy", "legacy@example.com",
+                new BCryptPasswordEncoder(4).encode("secret"));
+        UserDetailsPasswordService passwordService = mock(UserDetailsPasswordService.class);
+        DeferredRehashAuthenticationProvider provider = new DeferredRehashAuthenticationProvider(
+                email -> user, encoder, passwordService);
+
+        Authentication authentication = provider.authenticate(
+                new UsernamePasswordAuthenticationToken("legacy@example.com", "secret"));
+
+        assertThat(authentication.isAuthenticated()).isTrue();
+        verify(passwordService, timeout(10_000)).updatePassword(any(),
+                argThat(hash -> hash.startsWith("$2a$05$") && encoder.matches("secret", hash)));
+    }
+
+    private record GatedEncoder(CountDownLatch release) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if ("slow".contentEquals(rawPassword)) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.growmate.service;
+
+import com.growmate.dto.HabitLogRequest;
+import com.growmate.model.Habit;
+import com.growmate.model.HabitCalendar;
+import com.growmate.model.HabitLog;
+import com.growmate.model.User;
+import com.growmate.repository.HabitCalendarRepository;
+import com.growmate.repository.HabitLogRepository;
+import com.growmate.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HabitArchiveServiceTest extends IntegrationTest {
+    private static final ParameterizedTypeReference<List<Map<String, Object>>> LOGS =
+            new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private HabitArchiveService habitArchiveService;
+
+    @Autowired
+    private HabitLogWriteService habitLogWriteService;
+
+    @Autowired
+    private HabitLogRepository habitLogRepository;
+
+    @Autowired
+    private HabitCalendarRepository habitCalendarRepository;
+
+    @Test
+    void archivedYearsAreMergedIntoPagedAndStreamedReads() {
+        User user = createUser();
+        Habit walk = createHabit(user, "Walk");
+        Habit read = createHabit(user, "Read");
+        LocalDate today = LocalDate.now();
+        int oldYear = today.getYear() - 5;
+        for (LocalDate date : List.of(LocalDate.of(oldYear, 1, 10), LocalDate.of(oldYear, 6, 1),
+                today.minusYears(1), today)) {
+            habitLogRepository.save(new HabitLog(null, walk, user.getId(), date, true));
+        }
+        // Misses are not kept by the archive
+        habitLogRepository.save(new HabitLog(null, walk, user.getId(), LocalDate.of(oldYear, 1, 11), false));
+
+        habitArchiveService.archiveOldLogs();
+
+        assertThat(habitLogRepository.findResponsesByHabitIdAndDateBetween(walk.getId(),
+                LocalDate.of(oldYear, 1, 1), LocalDate.of(oldYear, 12, 31))).isEmpty();
+        assertThat(habitCalendarRepository.findByHabitIdAndYear(walk.getId(), oldYear).orElseThrow().getArchived())
+                .isTrue();
+        // A hot row sharing its date with an archived day comes first, the archived day's id is negative
+        habitLogRepository.save(new HabitLog(null, read, user.getId(), LocalDate.of(oldYear, 6, 1), true));
+
+        List<String> expected = List.of(
+                walk.getId() + "@" + today,
+                walk.getId() + "@" + today.minusYears(1),
+                read.getId() + "@" + LocalDate.of(oldYear, 6, 1),
+                walk.getId() + "@" + LocalDate.of(oldYear, 6, 1),
+                walk.getId() + "@" + LocalDate.of(oldYear, 1, 10));
+
+        for (int limit : List.of(1, 2, 10)) {
+            List<Map<String, Object>> paged = readPages(user, limit);
+            assertThat(paged).extracting(HabitArchiveServiceTest::key).as("limit %d", limit)
+                    .containsExactlyElementsOf(expected);
+            assertThat(paged).extracting(log -> ((Number) log.get("id")).longValue() < 0)
+                    .containsExactly(false, false, false, true, true);
+        }
+
+        List<Map<String, Object>> streamed = rest.exchange("/habit-logs/stream", HttpMethod.GET,
+                authorized(user, null), LOGS).getBody();
+        assertThat(streamed).extracting(HabitArchiveServiceTest::key).containsExactlyElementsOf(expected);
+        assertThat(streamed).extracting(log -> log.get("id"))
+                .containsExactlyElementsOf(readPages(user, 10).stream().map(log -> log.get("id")).toList());
+    }
+
+    @Test
+    void writingIntoAnArchivedYearRestoresIt() {
+        User user = createUser();
+        Habit habit = createHabit(user, "Stretch");
+        int oldYear = LocalDate.now().getYear() - 5;
+        LocalDate archivedDay = LocalDate.of(oldYear, 3, 2);
+        habitLogWriteService.setCompletions(user.getId(), List.of(completion(habit, archivedDay)));
+        habitArchiveService.archiveOldLogs();
+        assertThat(checkCompleted(user, habit, archivedDay)).isTrue();
+
+        habitLogWriteService.setCompletions(user.getId(), List.of(completion(habit, archivedDay.plusDays(1))));
+
+        assertThat(habitCalendarRepository.findByHabitIdAndYear(habit.getId(), oldYear).orElseThrow().getArchived())
+                .isFalse();
+        assertThat(habitLogRepository.findResponsesByHabitIdAndDateBetween(habit.getId(),
+                LocalDate.of(oldYear, 1, 1), LocalDate.of(oldYear, 12, 31)))
+                .extracting(log -> log.getDate()).containsExactly(archivedDay.plusDays(1), archivedDay);
+        assertThat(checkCompleted(user, habit, archivedDay)).isTrue();
+        assertThat(habitRepository.findById(habit.getId()).orElseThrow().getLongestStreak()).isEqualTo(2);
+    }
+
+    @Test
+    void syntheticIdsAreNegativeAndUniqueAcrossCalendars() {
+        Set<Long> ids = new HashSet<>();
+        for (long calendarId : List.of(1L, 2L, 1000L)) {
+            HabitCalendar calendar = new HabitCalendar();
+            calendar.setId(calendarId);
+            for (LocalDate date = LocalDate.of(2024, 1, 1); date.getYear() == 2024; date = date.plusDays(1)) {
+                long id = HabitArchiveService.syntheticId(calendar, date);
+                assertThat(id).isNegative();
+                assertThat(ids.add(id)).as("%d %s", calendarId, date).isTrue();
+            }
+        }
+    }
+
+    private static HabitLogRequest completion(Habit habit, LocalDate date) {
+        HabitLogRequest operation = new HabitLogRequest();
+        operation.setHabitId(habit.getId());
+        operation.setDate(date);
+        operation.setCompleted(true);
+        return operation;
+    }
+
+    private List<Map<String, Object>> readPages(User user, int limit) {
+        List<Map<String, Object>> logs = new ArrayList<>();
+        String cursor = null;
+        do {
+            ResponseEntity<List<Map<String, Object>>> response = rest.exchange("/habit-logs?limit=" + limit
+                    + (cursor != null ? "&cursor=" + cursor : ""), HttpMethod.GET, authorized(user, null), LOGS);
+            logs.addAll(response.getBody());
+            cursor = response.getHeaders().getFirst("X-Next-Cursor");
+        } while (cursor != null);
+        return logs;
+    }
+
+    private boolean checkCompleted(User user, Habit habit, LocalDate date) {
+        return (Boolean) rest.exchange("/habit-logs/check?habitId=" + habit.getId() + "&date=" + date,
+                HttpMethod.GET, authorized(user, null), Map.class).getBody().get("completed");
+    }
+
+    private static String key(Map<String, Object> log) {
+        return ((Number) log.get("habitId")).longValue() + "@" + log.get("date");
+    }
+}
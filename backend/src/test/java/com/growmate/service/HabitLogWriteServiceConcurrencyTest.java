@@ -0,0 +1,117 @@
+package com.growmate.service;
+
+import com.growmate.dto.HabitLogRequest;
+import com.growmate.model.Habit;
+import com.growmate.model.User;
+import com.growmate.repository.HabitLogRepository;
+import com.growmate.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HabitLogWriteServiceConcurrencyTest extends IntegrationTest {
+    private static final int THREADS = 8;
+    private static final int BATCHES_PER_THREAD = 5;
+    private static final int DAYS = 10;
+
+    @Autowired
+    private HabitLogWriteService habitLogWriteService;
+
+    @Autowired
+    private HabitLogRepository habitLogRepository;
+
+    @Test
+    void concurrentBatchesOverTheSameHabitsAllCommit() throws Exception {
+        User user = createUser();
+        Habit first = createHabit(user, "Meditate");
+        Habit second = createHabit(user, "Floss");
+        LocalDate today = LocalDate.now();
+
+        runConcurrently(thread -> {
+            // Half the threads list the habits in the opposite order
+            List<Habit> habits = thread % 2 == 0 ? List.of(first, second) : List.of(second, first);
+            for (int batch = 0; batch < BATCHES_PER_THREAD; batch++) {
+                habitLogWriteService.setCompletions(user.getId(), operations(habits, today, true));
+            }
+        });
+
+        for (Habit habit : List.of(first, second)) {
+            for (int day = 0; day < DAYS; day++) {
+                assertThat(habitLogRepository.findByHabitIdAndDate(habit.getId(), today.minusDays(day))
+                        .orElseThrow().getCompleted()).isTrue();
+            }
+            assertThat(habitRepository.findById(habit.getId()).orElseThrow().getCurrentStreak()).isEqualTo(DAYS);
+        }
+    }
+
+    @Test
+    void concurrentImportChunksOverTheSameHabitsAllCommit() throws Exception {
+        User user = createUser();
+        Habit first = createHabit(user, "Stretch");
+        Habit second = createHabit(user, "Water");
+        LocalDate today = LocalDate.now();
+
+        runConcurrently(thread -> {
+            List<Habit> habits = thread % 2 == 0 ? List.of(first, second) : List.of(second, first);
+            for (int batch = 0; batch < BATCHES_PER_THREAD; batch++) {
+                habitLogWriteService.importCompletions(user.getId(), operations(habits, today, false));
+            }
+        });
+
+        for (Habit habit : List.of(first, second)) {
+            assertThat(habitLogRepository.findByHabitIdAndDate(habit.getId(), today).orElseThrow().getCompleted())
+                    .isFalse();
+        }
+    }
+
+    private static List<HabitLogRequest> operations(List<Habit> habits, LocalDate today, boolean completed) {
+        List<HabitLogRequest> operations = new ArrayList<>();
+        for (Habit habit : habits) {
+            for (int day = 0; day < DAYS; day++) {
+                HabitLogRequest operation = new HabitLogRequest();
+                operation.setHabitId(habit.getId());
+                operation.setDate(today.minusDays(day));
+                operation.setCompleted(completed);
+                operations.add(operation);
+            }
+        }
+        return operations;
+    }
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                int index = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    worker.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            // get() rethrows a deadlock or any other failure from the worker
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.growmate.service;
+
+import com.growmate.dto.HabitLogRequest;
+import com.growmate.model.Habit;
+import com.growmate.model.HabitRollup;
+import com.growmate.model.User;
+import com.growmate.repository.HabitRollupRepository;
+import com.growmate.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Batches update streaks and rollups from the days they change; after every batch the
+// result must equal a rebuild from the full history
+class HabitLogWriteServiceTest extends IntegrationTest {
+
+    @Autowired
+    private HabitLogWriteService habitLogWriteService;
+
+    @Autowired
+    private HabitRollupRepository habitRollupRepository;
+
+    @Test
+    void incrementalBatchesMatchAFullRebuild() {
+        User user = createUser();
+        Habit daily = createHabit(user, "Journal");
+        Habit weekly = createHabit(user, "Long run");
+        weekly.setFrequency(Habit.Frequency.WEEKLY);
+        habitRepository.save(weekly);
+        LocalDate today = LocalDate.now();
+
+        List<Map<Integer, Boolean>> batches = List.of(
+                // Forward from nothing, then forward across a gap
+                Map.of(35, true, 34, true, 28, true),
+                Map.of(8, true, 1, true, 0, true),
+                // Joins two runs, then splits one
+                Map.of(21, true, 14, true, 7, true),
+                Map.of(14, false),
+                // Trims the end of the current run
+                Map.of(0, false),
+                // Mixed, with a day that does not change
+                Map.of(0, true, 14, true, 28, false, 35, true));
+
+        for (Map<Integer, Boolean> batch : batches) {
+            List<HabitLogRequest> operations = new ArrayList<>();
+            for (Habit habit : List.of(daily, weekly)) {
+                batch.forEach((daysAgo, completed) -> {
+                    HabitLogRequest operation = new HabitLogRequest();
+                    operation.setHabitId(habit.getId());
+                    operation.setDate(today.minusDays(daysAgo));
+                    operation.setCompleted(completed);
+                    operations.add(operation);
+                });
+            }
+            habitLogWriteService.setCompletions(user.getId(), operations);
+            List<Object> incremental = derivedState(user, daily, weekly, today);
+
+            habitLogWriteService.rebuildDerivedState(user.getId(), List.of(daily.getId(), weekly.getId()));
+            assertThat(incremental).as("after %s", batch).isEqualTo(derivedState(user, daily, weekly, today));
+        }
+    }
+
+    private List<Object> derivedState(User user, Habit daily, Habit weekly, LocalDate today) {
+        List<Object> state = new ArrayList<>();
+        for (Habit habit : List.of(daily, weekly)) {
+            Habit stored = habitRepository.findById(habit.getId()).orElseThrow();
+            state.add(List.of(stored.getCurrentStreak(), stored.getLongestStreak(),
+                    String.valueOf(stored.getLastCompletedDate())));
+        }
+        for (HabitRollup.Period period : HabitRollup.Period.values()) {
+            // Buckets counted down to zero are kept by the incremental path and dropped by a rebuild
+            habitRollupRepository.findByUserIdAndPeriodAndBucketStartBetweenOrderByBucketStartAsc(user.getId(),
+                            period, today.minusYears(1), today).stream()
+                    .filter(rollup -> rollup.getCompleted() != 0)
+                    .map(rollup -> List.of(rollup.getHabitId(), period, rollup.getBucketStart(),
+                            rollup.getCompleted()))
+                    .sorted((a, b) -> a.toString().compareTo(b.toString()))
+                    .forEach(state::add);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,91 @@
+package com.growmate.service;
+
+import com.growmate.model.Habit;
+import com.growmate.model.HabitRollup;
+import com.growmate.model.User;
+import com.growmate.repository.HabitLogRepository;
+import com.growmate.repository.HabitRollupRepository;
+import com.growmate.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollupReconcileConcurrencyTest extends IntegrationTest {
+    private static final int DAYS = 4;
+    private static final int TOGGLES_PER_DAY = 15;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private HabitRollupRepository habitRollupRepository;
+
+    @Autowired
+    private HabitLogRepository habitLogRepository;
+
+    @Test
+    void reconcileDuringTogglesLeavesRollupsMatchingTheLogs() throws Exception {
+        User user = createUser();
+        Habit habit = createHabit(user, "Practice");
+        LocalDate today = LocalDate.now();
+
+        ExecutorService executor = Executors.newFixedThreadPool(DAYS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean toggling = new AtomicBoolean(true);
+        try {
+            Future<?> reconciler = executor.submit(() -> {
+                start.await();
+                while (toggling.get()) {
+                    rollupService.reconcile();
+                }
+                return null;
+            });
+            List<Future<?>> togglers = new ArrayList<>();
+            for (int day = 0; day < DAYS; day++) {
+                Map<String, Object> body = Map.of("habitId", habit.getId(), "date", today.minusDays(day).toString());
+                togglers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < TOGGLES_PER_DAY; i++) {
+                        assertThat(rest.exchange("/habit-logs/toggle", HttpMethod.POST, authorized(user, body),
+                                String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            try {
+                for (Future<?> toggler : togglers) {
+                    toggler.get(120, TimeUnit.SECONDS);
+                }
+            } finally {
+                toggling.set(false);
+            }
+            reconciler.get(120, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // An odd number of flips completes every day
+        for (int day = 0; day < DAYS; day++) {
+            assertThat(habitLogRepository.findByHabitIdAndDate(habit.getId(), today.minusDays(day))
+                    .orElseThrow().getCompleted()).isTrue();
+        }
+        List<HabitRollup> rollups = habitRollupRepository.findByUserIdAndPeriodAndBucketStartBetweenOrderByBucketStartAsc(
+                user.getId(), HabitRollup.Period.DAY, today.minusDays(DAYS - 1), today);
+        assertThat(rollups).hasSize(DAYS).allSatisfy(rollup -> assertThat(rollup.getCompleted()).isEqualTo(1));
+    }
+}
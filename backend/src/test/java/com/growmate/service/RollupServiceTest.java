@@ -0,0 +1,72 @@
+package com.growmate.service;
+
+import com.growmate.dto.AnalyticsBucket;
+import com.growmate.dto.AnalyticsResponse;
+import com.growmate.dto.HabitLogRequest;
+import com.growmate.model.Habit;
+import com.growmate.model.HabitRollup;
+import com.growmate.model.User;
+import com.growmate.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A weekly habit is done once per week however many of its days are completed, in every period
+class RollupServiceTest extends IntegrationTest {
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private HabitLogWriteService habitLogWriteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void weeklyHabitCountsCompletedWeeks() {
+        User user = createUser();
+        Habit weekly = createHabit(user, "Long run");
+        weekly.setFrequency(Habit.Frequency.WEEKLY);
+        habitRepository.save(weekly);
+        LocalDate today = LocalDate.now();
+        LocalDate firstWeek = today.with(DayOfWeek.MONDAY).minusWeeks(3);
+        jdbcTemplate.update("UPDATE habits SET created_at = ? WHERE id = ?", firstWeek.atStartOfDay(),
+                weekly.getId());
+
+        // Three days of the first week and one of the third
+        List<HabitLogRequest> operations = new ArrayList<>();
+        for (LocalDate date : List.of(firstWeek, firstWeek.plusDays(1), firstWeek.plusDays(2),
+                firstWeek.plusWeeks(2).plusDays(4))) {
+            HabitLogRequest operation = new HabitLogRequest();
+            operation.setHabitId(weekly.getId());
+            operation.setDate(date);
+            operation.setCompleted(true);
+            operations.add(operation);
+        }
+        habitLogWriteService.setCompletions(user.getId(), operations);
+
+        for (HabitRollup.Period period : HabitRollup.Period.values()) {
+            AnalyticsResponse analytics = rollupService.getAnalytics(user.getId(), period, firstWeek, today, today);
+            List<AnalyticsBucket> buckets = analytics.getHabits().get(0).getBuckets();
+            assertThat(buckets).as("%s", period)
+                    .allSatisfy(bucket -> assertThat(bucket.getCompleted()).isLessThanOrEqualTo(bucket.getPossible()));
+            assertThat(buckets.stream().mapToLong(AnalyticsBucket::getCompleted).sum()).as("%s", period)
+                    .isEqualTo(2);
+            assertThat(buckets.stream().mapToLong(AnalyticsBucket::getPossible).sum()).as("%s", period)
+                    .isEqualTo(4);
+        }
+
+        AnalyticsResponse days = rollupService.getAnalytics(user.getId(), HabitRollup.Period.DAY, firstWeek,
+                firstWeek.plusDays(6), today);
+        assertThat(days.getTotals()).extracting(AnalyticsBucket::getPossible).containsExactly(1L, 0L, 0L, 0L, 0L, 0L, 0L);
+        assertThat(days.getTotals()).extracting(AnalyticsBucket::getCompleted).containsExactly(1L, 0L, 0L, 0L, 0L, 0L, 0L);
+    }
+}
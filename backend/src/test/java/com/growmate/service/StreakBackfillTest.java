@@ -0,0 +1,62 @@
+package com.growmate.service;
+
+import com.growmate.dto.HabitLogRequest;
+import com.growmate.model.Habit;
+import com.growmate.model.User;
+import com.growmate.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreakBackfillTest extends IntegrationTest {
+
+    @Autowired
+    private HabitLogWriteService habitLogWriteService;
+
+    @Autowired
+    private StreakService streakService;
+
+    @Test
+    void habitsWithoutStoredStreaksAreBackfilled() {
+        User user = createUser();
+        LocalDate today = LocalDate.now();
+        List<Habit> habits = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Habit habit = createHabit(user, "Habit " + i);
+            List<HabitLogRequest> operations = new ArrayList<>();
+            for (int day = 0; day <= i; day++) {
+                operations.add(completion(habit, today.minusDays(day)));
+            }
+            habitLogWriteService.setCompletions(user.getId(), operations);
+            habits.add(habit);
+        }
+        habits.forEach(habit -> {
+            Habit stored = habitRepository.findById(habit.getId()).orElseThrow();
+            stored.setCurrentStreak(null);
+            stored.setLongestStreak(null);
+            habitRepository.save(stored);
+        });
+
+        streakService.backfillMissingStreaks();
+
+        for (int i = 0; i < habits.size(); i++) {
+            Habit backfilled = habitRepository.findById(habits.get(i).getId()).orElseThrow();
+            assertThat(backfilled.getCurrentStreak()).isEqualTo(i + 1);
+            assertThat(backfilled.getLongestStreak()).isEqualTo(i + 1);
+            assertThat(backfilled.getLastCompletedDate()).isEqualTo(today);
+        }
+    }
+
+    private static HabitLogRequest completion(Habit habit, LocalDate date) {
+        HabitLogRequest operation = new HabitLogRequest();
+        operation.setHabitId(habit.getId());
+        operation.setDate(date);
+        operation.setCompleted(true);
+        return operation;
+    }
+}
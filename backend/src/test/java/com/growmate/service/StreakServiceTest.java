@@ -0,0 +1,178 @@
+package com.growmate.service;
+
+import com.growmate.model.Habit;
+import com.growmate.repository.HabitLogRepository;
+import com.growmate.repository.HabitRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Every toggle is checked against a rebuild from the resulting dates; whether it got there
+// incrementally shows in whether the stored dates were read
+class StreakServiceTest {
+    private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+
+    private final HabitLogRepository habitLogRepository = mock(HabitLogRepository.class);
+    private final HabitArchiveService habitArchiveService = mock(HabitArchiveService.class);
+    private final StreakService streakService = new StreakService(habitLogRepository, mock(HabitRepository.class),
+            habitArchiveService, mock(PlatformTransactionManager.class));
+    private final TreeSet<LocalDate> stored = new TreeSet<>();
+
+    @Test
+    void completingTheNextDayExtendsTheRunInPlace() {
+        Habit habit = habit(Habit.Frequency.DAILY, days(1, 2, 3));
+
+        toggle(habit, day(4), true);
+
+        assertStreak(habit, 4, 4, day(4));
+        verify(habitArchiveService, never()).completedDates(anyLong());
+    }
+
+    @Test
+    void completingAfterAGapStartsANewRun() {
+        Habit habit = habit(Habit.Frequency.DAILY, days(1, 2, 3));
+
+        toggle(habit, day(6), true);
+
+        assertStreak(habit, 1, 3, day(6));
+        verify(habitArchiveService, never()).completedDates(anyLong());
+    }
+
+    @Test
+    void uncompletingTheLastDayTrimsTheRunInPlace() {
+        Habit habit = habit(Habit.Frequency.DAILY, days(1, 2, 3, 4, 5, 10, 11, 12));
+
+        toggle(habit, day(12), false);
+
+        assertStreak(habit, 2, 5, day(11));
+        verify(habitArchiveService, never()).completedDates(anyLong());
+    }
+
+    @Test
+    void uncompletingInsideTheCurrentRunKeepsItsTail() {
+        Habit habit = habit(Habit.Frequency.DAILY, days(1, 2, 3, 4, 5, 10, 11, 12));
+
+        toggle(habit, day(11), false);
+
+        assertStreak(habit, 1, 5, day(12));
+        verify(habitArchiveService, never()).completedDates(anyLong());
+    }
+
+    @Test
+    void splittingTheLongestRunRecomputes() {
+        Habit habit = habit(Habit.Frequency.DAILY, days(1, 2, 3, 4, 5));
+
+        toggle(habit, day(3), false);
+
+        assertStreak(habit, 2, 2, day(5));
+        verify(habitArchiveService).completedDates(habit.getId());
+    }
+
+    @Test
+    void joiningTwoRunsRecomputes() {
+        Habit habit = habit(Habit.Frequency.DAILY, days(1, 2, 4, 5));
+
+        toggle(habit, day(3), true);
+
+        assertStreak(habit, 5, 5, day(5));
+        verify(habitArchiveService).completedDates(habit.getId());
+    }
+
+    @Test
+    void weeklyBucketsAreIsoWeeksAcrossNewYear() {
+        // Tuesday and Sunday of the week starting Monday 23 December, then Monday 30 December,
+        // which is already ISO week 1 of 2025
+        Habit habit = habit(Habit.Frequency.WEEKLY, List.of(LocalDate.of(2024, 12, 24)));
+
+        toggle(habit, LocalDate.of(2024, 12, 29), true);
+        assertStreak(habit, 1, 1, LocalDate.of(2024, 12, 29));
+
+        toggle(habit, LocalDate.of(2024, 12, 30), true);
+        assertStreak(habit, 2, 2, LocalDate.of(2024, 12, 30));
+        verify(habitArchiveService, never()).completedDates(anyLong());
+    }
+
+    @Test
+    void uncompletingOneOfTwoDaysInAWeekKeepsTheWeek() {
+        Habit habit = habit(Habit.Frequency.WEEKLY, List.of(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 4),
+                LocalDate.of(2024, 1, 9)));
+
+        toggle(habit, LocalDate.of(2024, 1, 2), false);
+
+        assertStreak(habit, 2, 2, LocalDate.of(2024, 1, 9));
+        verify(habitArchiveService, never()).completedDates(anyLong());
+    }
+
+    @Test
+    void effectiveStreakLapsesAfterAMissedBucket() {
+        assertThat(Habit.Frequency.DAILY.effectiveStreak(3, day(10), day(11))).isEqualTo(3);
+        assertThat(Habit.Frequency.DAILY.effectiveStreak(3, day(10), day(12))).isZero();
+        // Last completed on a Monday, still counting through the Sunday of the next week
+        assertThat(Habit.Frequency.WEEKLY.effectiveStreak(2, day(1), day(14))).isEqualTo(2);
+        assertThat(Habit.Frequency.WEEKLY.effectiveStreak(2, day(1), day(15))).isZero();
+        assertThat(Habit.Frequency.DAILY.effectiveStreak(null, null, day(1))).isZero();
+    }
+
+    private Habit habit(Habit.Frequency frequency, List<LocalDate> dates) {
+        Habit habit = new Habit();
+        habit.setId(1L);
+        habit.setFrequency(frequency);
+        StreakService.applyCompletedDates(habit, dates);
+        stored.addAll(dates);
+        return habit;
+    }
+
+    // Applies the toggle the way the controller does, after the stored state has changed
+    private void toggle(Habit habit, LocalDate date, boolean completed) {
+        if (completed) {
+            stored.add(date);
+        } else {
+            stored.remove(date);
+        }
+        when(habitArchiveService.completedDates(1L)).thenReturn(new ArrayList<>(stored));
+        LocalDate weekStart = Habit.Frequency.WEEKLY.bucketStart(date);
+        long othersInWeek = stored.subSet(weekStart, true, weekStart.plusDays(6), true).stream()
+                .filter(other -> !other.equals(date))
+                .count();
+        when(habitLogRepository.countByHabitIdAndCompletedTrueAndDateBetweenAndDateNot(anyLong(), any(), any(),
+                any())).thenReturn(othersInWeek);
+
+        streakService.applyToggle(habit, date, completed);
+
+        Habit rebuilt = new Habit();
+        rebuilt.setFrequency(habit.getFrequency());
+        StreakService.applyCompletedDates(rebuilt, new ArrayList<>(stored));
+        assertThat(habit.getCurrentStreak()).as("current streak against a rebuild").isEqualTo(rebuilt.getCurrentStreak());
+        assertThat(habit.getLongestStreak()).as("longest streak against a rebuild").isEqualTo(rebuilt.getLongestStreak());
+    }
+
+    private static void assertStreak(Habit habit, int current, int longest, LocalDate lastCompleted) {
+        assertThat(habit.getCurrentStreak()).isEqualTo(current);
+        assertThat(habit.getLongestStreak()).isEqualTo(longest);
+        assertThat(habit.getLastCompletedDate()).isEqualTo(lastCompleted);
+    }
+
+    private static LocalDate day(int dayOfMonth) {
+        return JAN_1.withDayOfMonth(dayOfMonth);
+    }
+
+    private static List<LocalDate> days(int... daysOfMonth) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (int dayOfMonth : daysOfMonth) {
+            dates.add(day(dayOfMonth));
+        }
+        return dates;
+    }
+}
@@ -0,0 +1,88 @@
+package com.growmate.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ToggleJournalTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void latestStateOfEachDayIsReplayed() throws Exception {
+        try (ToggleJournal journal = new ToggleJournal(directory, false)) {
+            journal.append(new ToggleJournal.Entry(1, 7L, 10L, DAY, true));
+            journal.append(new ToggleJournal.Entry(2, 7L, 10L, DAY, false));
+            journal.append(new ToggleJournal.Entry(3, 7L, 10L, DAY.plusDays(1), true));
+        }
+
+        try (ToggleJournal journal = new ToggleJournal(directory, false)) {
+            assertThat(journal.unsettledEntries()).containsExactlyInAnyOrder(
+                    new ToggleJournal.Entry(2, 7L, 10L, DAY, false),
+                    new ToggleJournal.Entry(3, 7L, 10L, DAY.plusDays(1), true));
+        }
+    }
+
+    @Test
+    void settledDaysAreNotReplayedUnlessToggledAgain() throws Exception {
+        try (ToggleJournal journal = new ToggleJournal(directory, false)) {
+            journal.append(new ToggleJournal.Entry(1, 7L, 10L, DAY, true));
+            journal.append(new ToggleJournal.Entry(2, 7L, 11L, DAY, true));
+            journal.append(new ToggleJournal.Entry(3, 7L, 12L, DAY, true));
+            journal.settle(10L, DAY, 1);
+            // Settled in a later segment than the entry, and toggled again after the flush read it
+            journal.rotate();
+            journal.settle(11L, DAY, 2);
+            journal.append(new ToggleJournal.Entry(4, 7L, 12L, DAY, false));
+            journal.settle(12L, DAY, 3);
+        }
+
+        try (ToggleJournal journal = new ToggleJournal(directory, false)) {
+            assertThat(journal.unsettledEntries()).containsExactly(new ToggleJournal.Entry(4, 7L, 12L, DAY, false));
+        }
+    }
+
+    @Test
+    void tornLastLineIsSkipped() throws Exception {
+        try (ToggleJournal journal = new ToggleJournal(directory, false)) {
+            journal.append(new ToggleJournal.Entry(1, 7L, 10L, DAY, true));
+        }
+        Path segment = segments().get(segments().size() - 1);
+        Files.writeString(segment, "2,7,10,2024-03-01,fa", StandardCharsets.US_ASCII, StandardOpenOption.APPEND);
+
+        try (ToggleJournal journal = new ToggleJournal(directory, false)) {
+            assertThat(journal.unsettledEntries()).containsExactly(new ToggleJournal.Entry(1, 7L, 10L, DAY, true));
+        }
+    }
+
+    @Test
+    void deleteUpToKeepsTheOpenSegment() throws Exception {
+        try (ToggleJournal journal = new ToggleJournal(directory, false)) {
+            journal.append(new ToggleJournal.Entry(1, 7L, 10L, DAY, true));
+            journal.deleteUpTo(journal.rotate());
+            journal.append(new ToggleJournal.Entry(2, 7L, 10L, DAY, false));
+        }
+
+        assertThat(segments()).hasSize(1);
+        try (ToggleJournal journal = new ToggleJournal(directory, false)) {
+            assertThat(journal.unsettledEntries()).containsExactly(new ToggleJournal.Entry(2, 7L, 10L, DAY, false));
+        }
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.growmate.service;
+
+import com.growmate.dto.HabitLogRequest;
+import com.growmate.model.Habit;
+import com.growmate.model.User;
+import com.growmate.repository.HabitLogRepository;
+import com.growmate.support.IntegrationTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Drives instances directly on a temporary journal; a "crash" is an instance that is
+// dropped without flushing, and a restart is a new instance on the same directory
+class ToggleWriteBehindServiceTest extends IntegrationTest {
+
+    @Autowired
+    private HabitLogRepository habitLogRepository;
+
+    @Autowired
+    private HabitArchiveService habitArchiveService;
+
+    @Autowired
+    private HabitLogWriteService habitLogWriteService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path journalDir;
+
+    private final List<ToggleWriteBehindService> started = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+
+    @AfterEach
+    void shutdown() throws Exception {
+        for (ToggleWriteBehindService service : started) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void togglesOfADayCoalesceIntoOneWrite() throws Exception {
+        User user = createUser();
+        Habit habit = createHabit(user, "Sleep early");
+        LocalDate today = LocalDate.now();
+        LocalDate yesterday = today.minusDays(1);
+        ToggleWriteBehindService service = start();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(service.toggle(habit.getId(), user.getId(), today)).isPresent();
+        }
+        service.toggle(habit.getId(), user.getId(), yesterday);
+        service.toggle(habit.getId(), user.getId(), yesterday);
+        assertThat(habitLogRepository.findByHabitIdAndDate(habit.getId(), today)).isEmpty();
+        assertThat(service.pendingState(habit.getId(), today)).contains(true);
+
+        service.flush();
+
+        assertThat(habitLogRepository.findByHabitIdAndDate(habit.getId(), today).orElseThrow().getCompleted()).isTrue();
+        // Toggled back to its stored state, so never written
+        assertThat(habitLogRepository.findByHabitIdAndDate(habit.getId(), yesterday)).isEmpty();
+        assertThat(meterRegistry.counter("growmate.toggles.flushed").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("growmate.toggles.coalesced").count()).isEqualTo(1);
+        assertThat(service.pendingState(habit.getId(), today)).isEmpty();
+    }
+
+    @Test
+    void unflushedTogglesAreReplayedAfterACrash() throws Exception {
+        User user = createUser();
+        Habit habit = createHabit(user, "Journal");
+        LocalDate today = LocalDate.now();
+        start().toggle(habit.getId(), user.getId(), today);
+
+        start().recover();
+
+        assertThat(habitLogRepository.findByHabitIdAndDate(habit.getId(), today).orElseThrow().getCompleted()).isTrue();
+        assertThat(habitRepository.findById(habit.getId()).orElseThrow().getCurrentStreak()).isEqualTo(1);
+    }
+
+    @Test
+    void recoveryDoesNotReplayFlushedTogglesOverLaterWrites() throws Exception {
+        User user = createUser();
+        Habit flushedHabit = createHabit(user, "Walk");
+        Habit pendingHabit = createHabit(user, "Read");
+        LocalDate today = LocalDate.now();
+        ToggleWriteBehindService crashed = start();
+        crashed.toggle(flushedHabit.getId(), user.getId(), today);
+        crashed.flushUser(user.getId());
+        // A direct write, such as a bulk update, after the flush
+        habitLogWriteService.setCompletions(user.getId(), List.of(operation(flushedHabit, today, false)));
+        crashed.toggle(pendingHabit.getId(), user.getId(), today);
+
+        start().recover();
+
+        assertThat(habitLogRepository.findByHabitIdAndDate(flushedHabit.getId(), today).orElseThrow().getCompleted())
+                .isFalse();
+        assertThat(habitLogRepository.findByHabitIdAndDate(pendingHabit.getId(), today).orElseThrow().getCompleted())
+                .isTrue();
+    }
+
+    @Test
+    void recoveredJournalIsNotReplayedTwice() throws Exception {
+        User user = createUser();
+        Habit habit = createHabit(user, "Stretch");
+        LocalDate today = LocalDate.now();
+        start().toggle(habit.getId(), user.getId(), today);
+        start().recover();
+        habitLogWriteService.setCompletions(user.getId(), List.of(operation(habit, today, false)));
+
+        start().recover();
+
+        assertThat(habitLogRepository.findByHabitIdAndDate(habit.getId(), today).orElseThrow().getCompleted())
+                .isFalse();
+    }
+
+    @Test
+    void pendingTogglesOfADeletedHabitAreDroppedWithoutHoldingBackTheOthers() throws Exception {
+        User user = createUser();
+        Habit deleted = createHabit(user, "Paint");
+        Habit kept = createHabit(user, "Swim");
+        LocalDate today = LocalDate.now();
+        ToggleWriteBehindService service = start();
+        service.toggle(deleted.getId(), user.getId(), today);
+        service.toggle(kept.getId(), user.getId(), today);
+        deleteHabit(user, deleted);
+
+        service.flush();
+
+        assertThat(habitLogRepository.findByHabitIdAndDate(kept.getId(), today).orElseThrow().getCompleted()).isTrue();
+        assertThat(service.pendingState(kept.getId(), today)).isEmpty();
+        assertThat(service.pendingState(deleted.getId(), today)).isEmpty();
+        assertThat(meterRegistry.counter("growmate.toggles.flushed").count()).isEqualTo(1);
+        // Both days are settled, so a restart has nothing to replay
+        habitLogWriteService.setCompletions(user.getId(), List.of(operation(kept, today, false)));
+        start().recover();
+        assertThat(habitLogRepository.findByHabitIdAndDate(kept.getId(), today).orElseThrow().getCompleted())
+                .isFalse();
+    }
+
+    @Test
+    void recoverySkipsDeletedHabitsAndReplaysTheRest() throws Exception {
+        User user = createUser();
+        Habit deleted = createHabit(user, "Knit");
+        Habit kept = createHabit(user, "Cycle");
+        LocalDate today = LocalDate.now();
+        ToggleWriteBehindService crashed = start();
+        crashed.toggle(deleted.getId(), user.getId(), today);
+        crashed.toggle(kept.getId(), user.getId(), today);
+        deleteHabit(user, deleted);
+
+        start().recover();
+
+        assertThat(habitLogRepository.findByHabitIdAndDate(kept.getId(), today).orElseThrow().getCompleted()).isTrue();
+        assertThat(habitRepository.findById(deleted.getId())).isEmpty();
+    }
+
+    private void deleteHabit(User user, Habit habit) {
+        assertThat(rest.exchange("/habits/" + habit.getId(), HttpMethod.DELETE, authorized(user, null), String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private ToggleWriteBehindService start() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        ToggleWriteBehindService service = new ToggleWriteBehindService(habitLogRepository, habitArchiveService,
+                habitLogWriteService, dataVersionService, transactionManager, meterRegistry, 1000, journalDir.toString(), false);
+        started.add(service);
+        return service;
+    }
+
+    private static HabitLogRequest operation(Habit habit, LocalDate date, boolean completed) {
+        HabitLogRequest operation = new HabitLogRequest();
+        operation.setHabitId(habit.getId());
+        operation.setDate(date);
+        operation.setCompleted(completed);
+        return operation;
+    }
+}
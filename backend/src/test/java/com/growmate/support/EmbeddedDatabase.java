@@ -0,0 +1,79 @@
+package com.growmate.support;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// One embedded MariaDB per test JVM, shared by every Spring context, plus a second server
+// for replica tests, started on first use. The schema comes from
+// the Flyway migrations, exactly as in production; tests isolate themselves by creating
+// their own users.
+public final class EmbeddedDatabase {
+    public static final String USERNAME = "root";
+    public static final String PASSWORD = "";
+    private static final String DATABASE = "growmate_test";
+
+    private static DB db;
+    private static DB replicaServer;
+
+    private EmbeddedDatabase() {
+    }
+
+    public static synchronized String url() {
+        if (db == null) {
+            db = start();
+            createDatabase(serverUrl(db), DATABASE, true);
+        }
+        return serverUrl(db) + DATABASE;
+    }
+
+    // Another, empty schema on the same server, for tests that have to control what it holds
+    public static String createDatabase(String name) {
+        url();
+        return createDatabase(serverUrl(db), name, false);
+    }
+
+    // An empty schema on a second server that stands in for a replica. Nothing replicates
+    // into it, so tests migrate and fill it themselves.
+    public static synchronized String createReplicaDatabase(String name) {
+        if (replicaServer == null) {
+            replicaServer = start();
+        }
+        return createDatabase(serverUrl(replicaServer), name, false);
+    }
+
+    private static String serverUrl(DB server) {
+        return "jdbc:mysql://localhost:" + server.getConfiguration().getPort() + "/";
+    }
+
+    // Over JDBC because DB.createDB shells out to the mariadb client and its ncurses dependency
+    private static String createDatabase(String serverUrl, String name, boolean ifNotExists) {
+        try (Connection connection = DriverManager.getConnection(serverUrl, USERNAME, PASSWORD);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + (ifNotExists ? "IF NOT EXISTS " : "") + "`" + name + "`");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create database " + name, e);
+        }
+        return serverUrl + name;
+    }
+
+    private static DB start() {
+        try {
+            DBConfigurationBuilder builder = DBConfigurationBuilder.newBuilder().setPort(0);
+            // mariadbd refuses to start as root unless told to stay root (CI containers)
+            if ("root".equals(System.getProperty("user.name"))) {
+                builder.addArg("--user=root");
+            }
+            DB started = DB.newEmbeddedDB(builder.build());
+            started.start();
+            return started;
+        } catch (ManagedProcessException e) {
+            throw new IllegalStateException("Could not start the embedded database", e);
+        }
+    }
+}
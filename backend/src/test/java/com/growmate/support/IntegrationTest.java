@@ -0,0 +1,76 @@
+package com.growmate.support;
+
+import com.growmate.model.Habit;
+import com.growmate.model.User;
+import com.growmate.repository.HabitRepository;
+import com.growmate.repository.UserRepository;
+import com.growmate.security.JwtUtils;
+import com.growmate.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.UUID;
+
+// Full application on a random port against the embedded database. Scheduled jobs are off so
+// they can't interfere with what a test asserts; tests that need one call it directly.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "management.server.port=0",
+        "app.jwt.secret=test-secret-test-secret-test-secret-test-secret-test-secret-0123456789",
+        "app.cors.allowed-origins=http://localhost",
+        "app.password.bcrypt-cost=4",
+        "app.rollups.reconcile-cron=-",
+        "app.archive.cron=-",
+        "app.jwt.refresh-cleanup-cron=-",
+        "app.query-budget.enabled=true",
+        "app.query-budget.mode=fail",
+        "logging.level.com.growmate=INFO"
+})
+public abstract class IntegrationTest {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", EmbeddedDatabase::url);
+        registry.add("spring.datasource.username", () -> EmbeddedDatabase.USERNAME);
+        registry.add("spring.datasource.password", () -> EmbeddedDatabase.PASSWORD);
+    }
+
+    @Autowired
+    protected TestRestTemplate rest;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected HabitRepository habitRepository;
+
+    @Autowired
+    protected JwtUtils jwtUtils;
+
+    protected User createUser() {
+        User user = new User();
+        user.setName("Test user");
+        user.setEmail("user-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("not-a-bcrypt-hash");
+        return userRepository.save(user);
+    }
+
+    protected Habit createHabit(User user, String title) {
+        Habit habit = new Habit();
+        habit.setUser(user);
+        habit.setTitle(title);
+        return habitRepository.save(habit);
+    }
+
+    protected <T> HttpEntity<T> authorized(User user, T body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtUtils.generateJwtToken(UserPrincipal.create(user)));
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+}
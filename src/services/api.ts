@@ -55,4 +55,77 @@ api.interceptors.request.use(
 //   }
 // );
 
+// Renew the short-lived access token with the refresh token once, then retry.
+// Concurrent 401s share one refresh, since each refresh token can only be used once.
+let refreshing: Promise<string> | null = null;
+
+const postRefresh = async (refreshToken: string): Promise<string> => {
+  const response = await axios.post(`${API_BASE_URL}/auth/refresh`, {
+    refreshToken,
+  });
+  localStorage.setItem("token", response.data.token);
+  localStorage.setItem("refreshToken", response.data.refreshToken);
+  return response.data.token;
+};
+
+// Tabs take turns through a Web Lock; a tab that waited finds the refresh token already
+// rotated and uses the stored access token. Without Web Locks the server's reuse grace
+// period keeps simultaneous refreshes from ending the session.
+const refreshAccessToken = async (): Promise<string> => {
+  const refreshToken = localStorage.getItem("refreshToken");
+  if (!refreshToken) {
+    throw new Error("No refresh token");
+  }
+  if (!navigator.locks) {
+    return postRefresh(refreshToken);
+  }
+  return navigator.locks.request("growmate-token-refresh", async () => {
+    const current = localStorage.getItem("refreshToken");
+    const token = localStorage.getItem("token");
+    if (!current) {
+      throw new Error("No refresh token");
+    }
+    if (current !== refreshToken && token) {
+      return token;
+    }
+    return postRefresh(current);
+  });
+};
+
+api.interceptors.response.use(
+  (response) => response,
+  async (error) => {
+    const original = error.config;
+    if (
+      error.response?.status !== 401 ||
+      !original ||
+      original._retried ||
+      original.url?.includes("/auth/")
+    ) {
+      return Promise.reject(error);
+    }
+    original._retried = true;
+
+    // Another tab may have refreshed already
+    const sentToken = original.headers?.Authorization?.toString().substring(7);
+    const storedToken = localStorage.getItem("token");
+    try {
+      const token =
+        storedToken && storedToken !== sentToken
+          ? storedToken
+          : await (refreshing ??= refreshAccessToken().finally(() => {
+              refreshing = null;
+            }));
+      original.headers.Authorization = `Bearer ${token}`;
+      return api(original);
+    } catch (refreshError) {
+      localStorage.removeItem("token");
+      localStorage.removeItem("refreshToken");
+      localStorage.removeItem("user");
+      window.location.href = "/login";
+      return Promise.reject(refreshError);
+    }
+  }
+);
+
 export default api;
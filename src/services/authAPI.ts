@@ -24,6 +24,14 @@ export const authAPI = {
     }
   },
 
+  logout: async (refreshToken: string) => {
+    try {
+      await api.post("/auth/logout", { refreshToken });
+    } catch (error) {
+      return error;
+    }
+  },
+
   getCurrentUser: async () => {
     try {
       const response = await api.get("/user/me");
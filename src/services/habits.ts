@@ -50,9 +50,10 @@ export const habitsAPI = {
 
 // Habit Logs API
 export const habitLogsAPI = {
+  // The full history in one response; plain /habit-logs is paged by X-Next-Cursor
   getAll: async () => {
     try {
-      const response = await api.get("/habit-logs");
+      const response = await api.get("/habit-logs/stream");
       return response.data;
     } catch (error) {
       return error;